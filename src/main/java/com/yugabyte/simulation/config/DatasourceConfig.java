@@ -47,6 +47,7 @@ public class DatasourceConfig {
     	HikariDataSource ds = new HikariDataSource(hikariConfig());
 //    	ds.addDataSourceProperty(PGProperty.PREFER_QUERY_MODE.getName(), PreferQueryMode.EXTENDED_CACHE_EVERYTHING);
 ////        return new HikariDataSource(hikariConfig());
-    	return ds;
+    	// Time how long operations wait for connections, separately from their execution
+    	return new InstrumentedDataSource(ds);
     }
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.yugabyte.simulation.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.yugabyte.simulation.services.TimerService;
+
+/**
+ * Times how long each connection takes to get from the pool and adds it to the operation
+ * being timed on the calling thread, so the latency of operations can be split into the
+ * time spent waiting for a connection and the time spent executing against the database.
+ * The connection is also passed to the timer so the host each worker uses can be reported.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+	public InstrumentedDataSource(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+	/**
+	 * Close the pool this wraps, so the pool is still shut down with the application context.
+	 */
+	public void close() throws Exception {
+		if (getTargetDataSource() instanceof AutoCloseable) {
+			((AutoCloseable)getTargetDataSource()).close();
+		}
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		long start = System.nanoTime();
+		Connection connection;
+		try {
+			connection = super.getConnection();
+		}
+		finally {
+			TimerService.getCurrentTimer().addPoolWait(System.nanoTime() - start);
+		}
+		TimerService.getCurrentTimer().setConnection(connection);
+		return connection;
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		long start = System.nanoTime();
+		Connection connection;
+		try {
+			connection = super.getConnection(username, password);
+		}
+		finally {
+			TimerService.getCurrentTimer().addPoolWait(System.nanoTime() - start);
+		}
+		TimerService.getCurrentTimer().setConnection(connection);
+		return connection;
+	}
+}
@@ -0,0 +1,25 @@
+package com.yugabyte.simulation.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.yugabyte.simulation.services.PrometheusExporter;
+
+@RestController
+public class MetricsController {
+    @Autowired
+    private PrometheusExporter prometheusExporter;
+
+    /**
+     * The workload metrics for Prometheus to scrape
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<String> getMetrics() {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, PrometheusExporter.CONTENT_TYPE)
+                .body(prometheusExporter.scrape());
+    }
+}
@@ -1,6 +1,8 @@
 package com.yugabyte.simulation.controller;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
@@ -12,25 +14,38 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.yugabyte.simulation.dao.BaselineComparison;
 import com.yugabyte.simulation.dao.InvocationResult;
+import com.yugabyte.simulation.dao.LatencyHeatmapResult;
 import com.yugabyte.simulation.dao.ParamHolder;
 import com.yugabyte.simulation.dao.ParamValue;
+import com.yugabyte.simulation.dao.RunSummary;
+import com.yugabyte.simulation.dao.SloDefinition;
+import com.yugabyte.simulation.dao.SloStatus;
+import com.yugabyte.simulation.dao.SlowOperationsResult;
 import com.yugabyte.simulation.dao.SystemPreferences;
+import com.yugabyte.simulation.dao.WorkerStatsResult;
 import com.yugabyte.simulation.dao.WorkloadDesc;
 import com.yugabyte.simulation.dao.WorkloadParamDesc;
 import com.yugabyte.simulation.dao.WorkloadResult;
 import com.yugabyte.simulation.service.WorkloadInvoker;
 import com.yugabyte.simulation.service.WorkloadSimulation;
+import com.yugabyte.simulation.services.BaselineService;
+import com.yugabyte.simulation.services.FlightRecorderService;
 import com.yugabyte.simulation.services.ServiceManager;
 import com.yugabyte.simulation.services.SystemPreferencesService;
+import com.yugabyte.simulation.workload.AggregationWorkloadType;
 import com.yugabyte.simulation.workload.WorkloadManager;
 import com.yugabyte.simulation.workload.WorkloadTypeInstance;
 
@@ -49,6 +64,12 @@ public class WorkloadSimulationController {
     @Autowired
     private ServiceManager serviceManager;
     
+    @Autowired
+    private FlightRecorderService flightRecorderService;
+    
+    @Autowired
+    private BaselineService baselineService;
+    
     // Generic interface, to be populated with class loaded dynamically?
     @Autowired
     @Resource(name="${spring.workload:sonosWorkload}")    
@@ -58,6 +79,10 @@ public class WorkloadSimulationController {
     private static final String WORKLOAD_TYPE = "workloadType";
     private static final String WORKLOAD_PARAMS = "params";
     private static final String LOGGING_DIR_PARAM = "loggingDir";
+    private static final String BASELINE_PARAM = "baseline";
+    private static final String SAVE_BASELINE_PARAM = "saveBaseline";
+    // The exit code of a headless run which regressed against its baseline
+    private static final int REGRESSION_EXIT_CODE = 1;
 
     private List<WorkloadDesc> workloads = null;
 
@@ -106,6 +131,7 @@ public class WorkloadSimulationController {
     	
     	@Override
     	public void run() {
+    		long runStartTime = System.currentTimeMillis();
     		System.out.printf("Starting workload '%s' (%s) with params:\n", workload.getName(), workload.getWorkloadId());
     		for (int i = 0; i < paramsToUse.length; i++) {
     			System.out.printf("% 4d: %s = %s\n", i+1, neededParams.get(i).getName(), paramsToUse[i].toString());
@@ -120,19 +146,67 @@ public class WorkloadSimulationController {
     		}
 			
 	    	// Autoterminate the spring boot process
+	    	int returnCode = 0;
 	    	try {
 		    	do {
 		    		Thread.sleep(1000);
 		    	} while (workloadManager.getActiveWorkloads().size() > 1); // Note aggregation workload will be running
+		    	returnCode = checkBaseline(runStartTime);
 	    	}
 	    	catch (Exception e) {
 	    		e.printStackTrace();
 	    	}
 	    	finally {
-	    		exit(0);
+	    		exit(returnCode);
 	    	}
     	}
     	
+    	/**
+    	 * Compare the workloads of this run against -Dbaseline and save them as -DsaveBaseline,
+    	 * returning the exit code of the run.
+    	 */
+    	private int checkBaseline(long runStartTime) throws InterruptedException {
+    		String baselineName = System.getProperty(BASELINE_PARAM);
+    		String saveBaselineName = System.getProperty(SAVE_BASELINE_PARAM);
+    		if (baselineName == null && saveBaselineName == null) {
+    			return 0;
+    		}
+    		// Let the final intervals of the workloads be collated
+    		Thread.sleep(2L * serviceManager.getTimerService().getResultsIntervalMs());
+    		List<WorkloadTypeInstance> runWorkloads = new ArrayList<>();
+    		for (WorkloadTypeInstance instance : workloadManager.getAllWorkloads()) {
+    			if (instance.getStartTime() >= runStartTime && !(instance.getType() instanceof AggregationWorkloadType)) {
+    				runWorkloads.add(instance);
+    			}
+    		}
+    		runWorkloads.sort(Comparator.comparingLong(WorkloadTypeInstance::getStartTime));
+    		int returnCode = 0;
+    		if (baselineName != null) {
+    			try {
+    				BaselineComparison comparison = baselineService.compare(baselineName, runWorkloads, null, null, null, null);
+    				System.out.print(comparison.toString());
+    				returnCode = comparison.isPassed() ? 0 : REGRESSION_EXIT_CODE;
+    			}
+    			catch (RuntimeException e) {
+    				System.err.printf("Baseline %s could not be compared: %s\n", baselineName, e.getMessage());
+    				returnCode = -4;
+    			}
+    		}
+    		// Save even if the comparison failed, so the run is not lost
+    		if (saveBaselineName != null) {
+    			try {
+    				baselineService.save(saveBaselineName, runWorkloads);
+    			}
+    			catch (RuntimeException e) {
+    				System.err.printf("Baseline %s could not be saved: %s\n", saveBaselineName, e.getMessage());
+    				if (returnCode == 0) {
+    					returnCode = -4;
+    				}
+    			}
+    		}
+    		return returnCode;
+    	}
+    	
     	private ParamValue[] getParamsFromString(WorkloadDesc thisWorkload, String paramString) {
  
     		ParamValue[] values = new ParamValue[neededParams.size()];
@@ -289,12 +363,193 @@ public class WorkloadSimulationController {
     	return new InvocationResult("Ok");
     }
     
+    /**
+     * Replace the service level objectives of a running workload.
+     */
+    @PostMapping("set-slos/{workloadId}")
+    @ResponseBody
+    public InvocationResult setSlos(@PathVariable String workloadId, @RequestBody SloDefinition[] slos) {
+    	WorkloadTypeInstance instance = workloadManager.findWorkloadById(workloadId);
+    	if (instance == null) {
+    		throw new IllegalArgumentException("Unknown workload " + workloadId);
+    	}
+    	for (SloDefinition slo : slos) {
+    		String error = validateSlo(slo);
+    		if (error != null) {
+    			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, error);
+    		}
+    	}
+    	instance.setSlos(Arrays.asList(slos));
+    	return new InvocationResult("Ok");
+    }
+    
+    /**
+     * @return why the SLO is invalid, or null if it is valid
+     */
+    private String validateSlo(SloDefinition slo) {
+    	if (slo == null) {
+    		return "SLO must not be null";
+    	}
+    	if (!slo.hasLatencyObjective() && !slo.hasErrorObjective()) {
+    		return "SLO " + slo.getName() + " has neither a latency threshold nor an error ratio";
+    	}
+    	if (slo.getPercentile() <= 0 || slo.getPercentile() >= 100) {
+    		return "SLO " + slo.getName() + " percentile must be between 0 and 100";
+    	}
+    	if (slo.getWindowSeconds() <= 0) {
+    		return "SLO " + slo.getName() + " window must be at least 1 second";
+    	}
+    	if (slo.getAction() == null) {
+    		return "SLO " + slo.getName() + " has no action";
+    	}
+    	if (slo.getRateReductionPercent() < 0 || slo.getRateReductionPercent() >= 100) {
+    		return "SLO " + slo.getName() + " rate reduction must be between 0 and 99 percent";
+    	}
+    	return null;
+    }
+    
+    @GetMapping("get-slos/{workloadId}")
+    public List<SloStatus> getSlos(@PathVariable String workloadId) {
+    	WorkloadTypeInstance instance = workloadManager.findWorkloadById(workloadId);
+    	if (instance == null) {
+    		throw new IllegalArgumentException("Unknown workload " + workloadId);
+    	}
+    	return instance.getSloStatuses();
+    }
+    
+    /**
+     * The slowest worker threads of a workload, if started with -DworkerStats=true
+     */
+    @GetMapping("get-worker-stats/{workloadId}")
+    public WorkerStatsResult getWorkerStats(@PathVariable String workloadId,
+    		@RequestParam(name = "top", required = false, defaultValue = "10") int top,
+    		@RequestParam(name = "orderBy", required = false, defaultValue = "p99") String orderBy) {
+    	WorkloadTypeInstance instance = workloadManager.findWorkloadById(workloadId);
+    	if (instance == null) {
+    		throw new IllegalArgumentException("Unknown workload " + workloadId);
+    	}
+    	return instance.getWorkerStats(top, orderBy);
+    }
+    
+    /**
+     * The slowest operations of a workload over its run and in each recent interval starting
+     * at or after fromTime, with the statement, key and host each one used.
+     */
+    @GetMapping("get-slow-operations/{workloadId}")
+    public SlowOperationsResult getSlowOperations(@PathVariable String workloadId,
+    		@RequestParam(name = "fromTime", required = false, defaultValue = "0") long fromTime) {
+    	WorkloadTypeInstance instance = workloadManager.findWorkloadById(workloadId);
+    	if (instance == null) {
+    		throw new IllegalArgumentException("Unknown workload " + workloadId);
+    	}
+    	return instance.getSlowOperations(fromTime);
+    }
+    
+    /**
+     * Start a Flight Recorder recording which includes the workload operations taking longer
+     * than thresholdMs, using the JDK's default or profile settings for everything else.
+     */
+    @GetMapping("start-recording")
+    public InvocationResult startRecording(
+    		@RequestParam(name = "settings", required = false, defaultValue = "default") String settings,
+    		@RequestParam(name = "thresholdMs", required = false, defaultValue = "10") long thresholdMs,
+    		@RequestParam(name = "maxAgeSeconds", required = false, defaultValue = "0") long maxAgeSeconds) {
+    	flightRecorderService.start(settings, thresholdMs, maxAgeSeconds);
+    	return new InvocationResult("Ok");
+    }
+    
+    /**
+     * Write the recording so far to a file, returning its path
+     */
+    @GetMapping("dump-recording")
+    public InvocationResult dumpRecording() {
+    	return new InvocationResult(flightRecorderService.dump());
+    }
+    
+    /**
+     * Stop the recording and write it to a file, returning its path
+     */
+    @GetMapping("stop-recording")
+    public InvocationResult stopRecording() {
+    	return new InvocationResult(flightRecorderService.stop());
+    }
+    
+    private List<WorkloadTypeInstance> findWorkloads(List<String> workloadIds) {
+    	List<WorkloadTypeInstance> instances = new ArrayList<>();
+    	for (String workloadId : workloadIds) {
+    		WorkloadTypeInstance instance = workloadManager.findWorkloadById(workloadId);
+    		if (instance == null) {
+    			throw new IllegalArgumentException("Unknown workload " + workloadId);
+    		}
+    		instances.add(instance);
+    	}
+    	return instances;
+    }
+    
+    /**
+     * Save completed workloads as a named baseline, replacing any baseline of that name.
+     */
+    @GetMapping("save-baseline/{name}")
+    public InvocationResult saveBaseline(@PathVariable String name, @RequestParam(name = "workloadIds") List<String> workloadIds) {
+    	return new InvocationResult(baselineService.save(name, findWorkloads(workloadIds)));
+    }
+    
+    @GetMapping("get-baselines")
+    public List<String> getBaselines() {
+    	return baselineService.getBaselineNames();
+    }
+    
+    /**
+     * Compare completed workloads, in the order given, against the runs of a baseline. 
+     * Tolerances not given use the -Dbaseline... defaults.
+     */
+    @GetMapping("compare-baseline/{name}")
+    public BaselineComparison compareBaseline(@PathVariable String name,
+    		@RequestParam(name = "workloadIds") List<String> workloadIds,
+    		@RequestParam(name = "latencyTolerancePercent", required = false) Double latencyTolerancePercent,
+    		@RequestParam(name = "throughputTolerancePercent", required = false) Double throughputTolerancePercent,
+    		@RequestParam(name = "errorTolerancePercent", required = false) Double errorTolerancePercent,
+    		@RequestParam(name = "warmupSeconds", required = false) Integer warmupSeconds) {
+    	return baselineService.compare(name, findWorkloads(workloadIds), latencyTolerancePercent,
+    			throughputTolerancePercent, errorTolerancePercent, warmupSeconds);
+    }
+    
+    @GetMapping("get-run-summary/{workloadId}")
+    public RunSummary getRunSummary(@PathVariable String workloadId) {
+    	WorkloadTypeInstance instance = workloadManager.findWorkloadById(workloadId);
+    	if (instance == null) {
+    		throw new IllegalArgumentException("Unknown workload " + workloadId);
+    	}
+    	return instance.getRunSummary();
+    }
+    
     @GetMapping("/getResults/{afterTime}")
     @ResponseBody
     public Map<String, WorkloadResult> getResults(
-    		@PathVariable(name = "afterTime") long afterTime) {
+    		@PathVariable(name = "afterTime") long afterTime,
+    		@RequestParam(name = "resolutionMs", required = false, defaultValue = "0") long resolutionMs) {
+    	
+    	return workloadManager.getResults(afterTime, resolutionMs);
+    }
+    
+    /**
+     * Counts per log scaled latency bucket of each interval of a workload, starting after 
+     * <code>fromTime</code>. Poll with the start time of the last row received to get
+     * only the new rows.
+     */
+    @GetMapping("/getHeatmap/{workloadId}")
+    @ResponseBody
+    public LatencyHeatmapResult getHeatmap(
+    		@PathVariable(name = "workloadId") String workloadId,
+    		@RequestParam(name = "fromTime", required = false, defaultValue = "0") long fromTime,
+    		@RequestParam(name = "toTime", required = false, defaultValue = "" + Long.MAX_VALUE) long toTime,
+    		@RequestParam(name = "resolutionMs", required = false, defaultValue = "0") long resolutionMs) {
     	
-    	return workloadManager.getResults(afterTime);
+    	WorkloadTypeInstance instance = workloadManager.findWorkloadById(workloadId);
+    	if (instance == null) {
+    		throw new IllegalArgumentException("Unknown workload " + workloadId);
+    	}
+    	return instance.getLatencyHeatmap(fromTime, toTime, resolutionMs);
     }
 }
 
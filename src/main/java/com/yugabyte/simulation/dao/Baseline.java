@@ -0,0 +1,153 @@
+package com.yugabyte.simulation.dao;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * The results of one or more completed workloads saved under a name, so later runs of the
+ * same workloads can be compared against them. Each interval keeps its full latency
+ * histogram, encoded as in the interval histogram logs, so intervals can be resampled to put
+ * confidence intervals on the differences between runs.
+ */
+public class Baseline {
+	public static class Interval {
+		private final long startTimeMs;
+		private final long durationMs;
+		private final long numFailed;
+		private final byte[] encodedLatencies;
+
+		/**
+		 * @param encodedLatencies The latencies of the interval from HistogramLogFormat.encode
+		 */
+		public Interval(long startTimeMs, long durationMs, long numFailed, byte[] encodedLatencies) {
+			this.startTimeMs = startTimeMs;
+			this.durationMs = durationMs;
+			this.numFailed = numFailed;
+			this.encodedLatencies = encodedLatencies;
+		}
+
+		public long getStartTimeMs() {
+			return startTimeMs;
+		}
+
+		public long getDurationMs() {
+			return durationMs;
+		}
+
+		public long getNumFailed() {
+			return numFailed;
+		}
+
+		/**
+		 * The latencies of the operations in the interval, successful or not
+		 */
+		public byte[] getEncodedLatencies() {
+			return encodedLatencies;
+		}
+	}
+
+	public static class Run {
+		private final String workloadId;
+		private final String description;
+		private final long startTime;
+		private final List<Interval> intervals;
+
+		public Run(String workloadId, String description, long startTime, List<Interval> intervals) {
+			this.workloadId = workloadId;
+			this.description = description;
+			this.startTime = startTime;
+			this.intervals = intervals;
+		}
+
+		public String getWorkloadId() {
+			return workloadId;
+		}
+
+		public String getDescription() {
+			return description;
+		}
+
+		public long getStartTime() {
+			return startTime;
+		}
+
+		public List<Interval> getIntervals() {
+			return intervals;
+		}
+	}
+
+	private final String name;
+	private final long createdTime;
+	private final List<Run> runs;
+
+	public Baseline(String name, long createdTime, List<Run> runs) {
+		this.name = name;
+		this.createdTime = createdTime;
+		this.runs = Collections.unmodifiableList(runs);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getCreatedTime() {
+		return createdTime;
+	}
+
+	/**
+	 * The workloads of the baseline in the order they were started
+	 */
+	public List<Run> getRuns() {
+		return runs;
+	}
+
+	public String toJson() {
+		JSONObject json = new JSONObject();
+		json.put("name", name);
+		json.put("createdTime", createdTime);
+		JSONArray runsJson = new JSONArray();
+		for (Run run : runs) {
+			JSONObject runJson = new JSONObject();
+			runJson.put("workloadId", run.getWorkloadId());
+			runJson.put("description", run.getDescription() == null ? "" : run.getDescription());
+			runJson.put("startTime", run.getStartTime());
+			JSONArray intervalsJson = new JSONArray();
+			for (Interval interval : run.getIntervals()) {
+				JSONObject intervalJson = new JSONObject();
+				intervalJson.put("startTimeMs", interval.getStartTimeMs());
+				intervalJson.put("durationMs", interval.getDurationMs());
+				intervalJson.put("numFailed", interval.getNumFailed());
+				intervalJson.put("latencies", Base64.getEncoder().encodeToString(interval.getEncodedLatencies()));
+				intervalsJson.put(intervalJson);
+			}
+			runJson.put("intervals", intervalsJson);
+			runsJson.put(runJson);
+		}
+		json.put("runs", runsJson);
+		return json.toString(1);
+	}
+
+	public static Baseline fromJson(String text) {
+		JSONObject json = new JSONObject(text);
+		JSONArray runsJson = json.getJSONArray("runs");
+		List<Run> runs = new ArrayList<>();
+		for (int i = 0; i < runsJson.length(); i++) {
+			JSONObject runJson = runsJson.getJSONObject(i);
+			JSONArray intervalsJson = runJson.getJSONArray("intervals");
+			List<Interval> intervals = new ArrayList<>();
+			for (int j = 0; j < intervalsJson.length(); j++) {
+				JSONObject intervalJson = intervalsJson.getJSONObject(j);
+				intervals.add(new Interval(intervalJson.getLong("startTimeMs"), intervalJson.getLong("durationMs"),
+						intervalJson.getLong("numFailed"), Base64.getDecoder().decode(intervalJson.getString("latencies"))));
+			}
+			runs.add(new Run(runJson.getString("workloadId"), runJson.optString("description", ""),
+					runJson.getLong("startTime"), intervals));
+		}
+		return new Baseline(json.getString("name"), json.getLong("createdTime"), runs);
+	}
+}
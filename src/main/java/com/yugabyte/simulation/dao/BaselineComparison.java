@@ -0,0 +1,248 @@
+package com.yugabyte.simulation.dao;
+
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * The verdict of comparing runs against a saved {@link Baseline}. Each metric has the
+ * change from the baseline with a bootstrap confidence interval. A metric regresses when it
+ * is worse by more than its tolerance and the whole confidence interval is on the worse
+ * side of no change, so neither noise nor small but real changes fail the comparison.
+ */
+public class BaselineComparison {
+	public static class Metric {
+		private final String name;
+		private final double baseline;
+		private final double current;
+		private final double change;
+		private final double changeLow;
+		private final double changeHigh;
+		private final double tolerance;
+		private final boolean regression;
+
+		public Metric(String name, double baseline, double current, double change, double changeLow,
+				double changeHigh, double tolerance, boolean regression) {
+			this.name = name;
+			this.baseline = baseline;
+			this.current = current;
+			this.change = change;
+			this.changeLow = changeLow;
+			this.changeHigh = changeHigh;
+			this.tolerance = tolerance;
+			this.regression = regression;
+		}
+
+		/**
+		 * opsPerSecond, errorPercent or a latency percentile such as p99Us
+		 */
+		public String getName() {
+			return name;
+		}
+
+		public double getBaseline() {
+			return baseline;
+		}
+
+		public double getCurrent() {
+			return current;
+		}
+
+		/**
+		 * The change from the baseline as a percentage of it, except for errorPercent where
+		 * it is the difference in percentage points.
+		 */
+		public double getChange() {
+			return change;
+		}
+
+		/**
+		 * The lower end of the confidence interval of the change
+		 */
+		public double getChangeLow() {
+			return changeLow;
+		}
+
+		public double getChangeHigh() {
+			return changeHigh;
+		}
+
+		/**
+		 * The largest change in the worse direction allowed, in the units of the change
+		 */
+		public double getTolerance() {
+			return tolerance;
+		}
+
+		public boolean isRegression() {
+			return regression;
+		}
+	}
+
+	public static class Run {
+		private final String baselineWorkloadId;
+		private final String workloadId;
+		private final String description;
+		private final int baselineIntervals;
+		private final int intervals;
+		private final List<Metric> metrics;
+
+		public Run(String baselineWorkloadId, String workloadId, String description, int baselineIntervals,
+				int intervals, List<Metric> metrics) {
+			this.baselineWorkloadId = baselineWorkloadId;
+			this.workloadId = workloadId;
+			this.description = description;
+			this.baselineIntervals = baselineIntervals;
+			this.intervals = intervals;
+			this.metrics = metrics;
+		}
+
+		public String getBaselineWorkloadId() {
+			return baselineWorkloadId;
+		}
+
+		public String getWorkloadId() {
+			return workloadId;
+		}
+
+		public String getDescription() {
+			return description;
+		}
+
+		/**
+		 * The number of intervals of the baseline compared, after any warmup
+		 */
+		public int getBaselineIntervals() {
+			return baselineIntervals;
+		}
+
+		public int getIntervals() {
+			return intervals;
+		}
+
+		public List<Metric> getMetrics() {
+			return metrics;
+		}
+
+		public boolean isPassed() {
+			for (Metric metric : metrics) {
+				if (metric.isRegression()) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private final String baselineName;
+	private final double confidence;
+	private final int bootstrapSamples;
+	private final List<Run> runs;
+	private final String message;
+
+	public BaselineComparison(String baselineName, double confidence, int bootstrapSamples, List<Run> runs, String message) {
+		this.baselineName = baselineName;
+		this.confidence = confidence;
+		this.bootstrapSamples = bootstrapSamples;
+		this.runs = runs;
+		this.message = message;
+	}
+
+	public String getBaselineName() {
+		return baselineName;
+	}
+
+	public double getConfidence() {
+		return confidence;
+	}
+
+	public int getBootstrapSamples() {
+		return bootstrapSamples;
+	}
+
+	public List<Run> getRuns() {
+		return runs;
+	}
+
+	/**
+	 * Why the runs could not all be compared, such as a different number of workloads to
+	 * the baseline, or null
+	 */
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * True if every run was compared and none regressed
+	 */
+	public boolean isPassed() {
+		if (message != null) {
+			return false;
+		}
+		for (Run run : runs) {
+			if (!run.isPassed()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public String toJson() {
+		JSONObject json = new JSONObject();
+		json.put("baselineName", baselineName);
+		json.put("passed", isPassed());
+		if (message != null) {
+			json.put("message", message);
+		}
+		json.put("confidence", confidence);
+		json.put("bootstrapSamples", bootstrapSamples);
+		JSONArray runsJson = new JSONArray();
+		for (Run run : runs) {
+			JSONObject runJson = new JSONObject();
+			runJson.put("baselineWorkloadId", run.getBaselineWorkloadId());
+			runJson.put("workloadId", run.getWorkloadId());
+			runJson.put("description", run.getDescription() == null ? "" : run.getDescription());
+			runJson.put("passed", run.isPassed());
+			runJson.put("baselineIntervals", run.getBaselineIntervals());
+			runJson.put("intervals", run.getIntervals());
+			JSONArray metricsJson = new JSONArray();
+			for (Metric metric : run.getMetrics()) {
+				JSONObject metricJson = new JSONObject();
+				metricJson.put("name", metric.getName());
+				metricJson.put("baseline", metric.getBaseline());
+				metricJson.put("current", metric.getCurrent());
+				metricJson.put("change", metric.getChange());
+				metricJson.put("changeLow", metric.getChangeLow());
+				metricJson.put("changeHigh", metric.getChangeHigh());
+				metricJson.put("tolerance", metric.getTolerance());
+				metricJson.put("regression", metric.isRegression());
+				metricsJson.put(metricJson);
+			}
+			runJson.put("metrics", metricsJson);
+			runsJson.put(runJson);
+		}
+		json.put("runs", runsJson);
+		return json.toString(2);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Comparison with baseline %s: %s\n", baselineName, isPassed() ? "PASSED" : "FAILED"));
+		if (message != null) {
+			sb.append("  ").append(message).append('\n');
+		}
+		for (Run run : runs) {
+			sb.append(String.format("  %s against %s (%d intervals against %d): %s\n", run.getWorkloadId(),
+					run.getBaselineWorkloadId(), run.getIntervals(), run.getBaselineIntervals(), run.isPassed() ? "passed" : "FAILED"));
+			for (Metric metric : run.getMetrics()) {
+				sb.append(String.format("    %-13s %,14.1f -> %,14.1f  %+7.1f [%+7.1f, %+7.1f] tolerance %.1f%s\n",
+						metric.getName(), metric.getBaseline(), metric.getCurrent(), metric.getChange(),
+						metric.getChangeLow(), metric.getChangeHigh(), metric.getTolerance(),
+						metric.isRegression() ? "  REGRESSION" : ""));
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,45 @@
+package com.yugabyte.simulation.dao;
+
+/**
+ * The cost to the simulator's machine of the operations in a period: the CPU time of the
+ * worker threads and the bytes they allocated while running the operations, including the
+ * driver and any data generation. Dividing by the operation count gives the cost of each
+ * operation, to size load generators and to spot regressions in the client path.
+ */
+public class ClientCost {
+	private final long ops;
+	private final long cpuTimeUs;
+	private final long allocatedBytes;
+
+	public ClientCost(long ops, long cpuTimeUs, long allocatedBytes) {
+		this.ops = ops;
+		this.cpuTimeUs = cpuTimeUs;
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	/**
+	 * The number of operations whose cost was sampled
+	 */
+	public long getOps() {
+		return ops;
+	}
+
+	public long getCpuTimeUs() {
+		return cpuTimeUs;
+	}
+
+	/**
+	 * The bytes allocated, or 0 if the JVM cannot measure allocations per thread
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	public double getCpuUsPerOp() {
+		return ops == 0 ? 0 : (double)cpuTimeUs / ops;
+	}
+
+	public double getBytesPerOp() {
+		return ops == 0 ? 0 : (double)allocatedBytes / ops;
+	}
+}
@@ -0,0 +1,62 @@
+package com.yugabyte.simulation.dao;
+
+/**
+ * Pauses of the simulator's own JVM over an interval. Operations in flight during a pause
+ * have it included in their latency, so a latency spike in an interval which is flagged
+ * as paused may be the load generator rather than the database.
+ * <p>
+ * The pause times are those seen by a thread which repeatedly sleeps for a short time, and
+ * so include GC, safepoints and the process not being scheduled. The GC times are those
+ * reported by the collectors and are normally a subset of these.
+ */
+public class ClientPauses {
+	private final long count;
+	private final long totalUs;
+	private final long maxUs;
+	private final long gcCount;
+	private final long gcTotalUs;
+	private final long gcMaxUs;
+	private final boolean paused;
+
+	public ClientPauses(long count, long totalUs, long maxUs, long gcCount, long gcTotalUs, long gcMaxUs, boolean paused) {
+		this.count = count;
+		this.totalUs = totalUs;
+		this.maxUs = maxUs;
+		this.gcCount = gcCount;
+		this.gcTotalUs = gcTotalUs;
+		this.gcMaxUs = gcMaxUs;
+		this.paused = paused;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getTotalUs() {
+		return totalUs;
+	}
+
+	public long getMaxUs() {
+		return maxUs;
+	}
+
+	public long getGcCount() {
+		return gcCount;
+	}
+
+	public long getGcTotalUs() {
+		return gcTotalUs;
+	}
+
+	public long getGcMaxUs() {
+		return gcMaxUs;
+	}
+
+	/**
+	 * Whether the longest pause exceeded the threshold, in which case the latencies
+	 * of the interval should not be attributed to the database.
+	 */
+	public boolean isPaused() {
+		return paused;
+	}
+}
@@ -0,0 +1,42 @@
+package com.yugabyte.simulation.dao;
+
+/**
+ * The state of the JDBC connection pool, sampled at the end of an interval. When intervals
+ * are merged these are the peaks of the merged intervals. Threads waiting for a connection
+ * mean operations are being held up by the client rather than the database.
+ */
+public class ConnectionPoolStats {
+	private final int active;
+	private final int idle;
+	private final int pending;
+	private final int total;
+
+	public ConnectionPoolStats(int active, int idle, int pending, int total) {
+		this.active = active;
+		this.idle = idle;
+		this.pending = pending;
+		this.total = total;
+	}
+
+	/**
+	 * Connections in use
+	 */
+	public int getActive() {
+		return active;
+	}
+
+	public int getIdle() {
+		return idle;
+	}
+
+	/**
+	 * Threads waiting for a connection
+	 */
+	public int getPending() {
+		return pending;
+	}
+
+	public int getTotal() {
+		return total;
+	}
+}
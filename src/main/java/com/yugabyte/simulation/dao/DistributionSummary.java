@@ -0,0 +1,72 @@
+package com.yugabyte.simulation.dao;
+
+import com.yugabyte.simulation.services.LatencyHistogram;
+
+/**
+ * Summary statistics of a distribution of values, such as the latencies recorded 
+ * over an interval. All the values are in the units recorded, microseconds for latencies.
+ */
+public class DistributionSummary {
+	private final long count;
+	private final long min;
+	private final long avg;
+	private final long max;
+	private final long p50;
+	private final long p90;
+	private final long p99;
+	private final long p999;
+
+	public DistributionSummary(LatencyHistogram histogram) {
+		this.count = histogram.getTotalCount();
+		this.min = histogram.getMin();
+		this.avg = histogram.getMean();
+		this.max = histogram.getMax();
+		this.p50 = histogram.getValueAtPercentile(50.0);
+		this.p90 = histogram.getValueAtPercentile(90.0);
+		this.p99 = histogram.getValueAtPercentile(99.0);
+		this.p999 = histogram.getValueAtPercentile(99.9);
+	}
+
+	public DistributionSummary(long count, long min, long avg, long max, long p50, long p90, long p99, long p999) {
+		this.count = count;
+		this.min = min;
+		this.avg = avg;
+		this.max = max;
+		this.p50 = p50;
+		this.p90 = p90;
+		this.p99 = p99;
+		this.p999 = p999;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getMin() {
+		return min;
+	}
+
+	public long getAvg() {
+		return avg;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	public long getP50() {
+		return p50;
+	}
+
+	public long getP90() {
+		return p90;
+	}
+
+	public long getP99() {
+		return p99;
+	}
+
+	public long getP999() {
+		return p999;
+	}
+}
@@ -0,0 +1,77 @@
+package com.yugabyte.simulation.dao;
+
+import java.util.List;
+
+/**
+ * Counts of operations per latency bucket per interval for a workload, for drawing as a
+ * heatmap. The buckets are log scaled, four per doubling of latency, and are the same for
+ * every row. Rows only hold the range of buckets from the lowest to the highest non-empty
+ * bucket of their interval.
+ */
+public class LatencyHeatmapResult {
+	public static class Row {
+		private final long startTimeMs;
+		private final long durationMs;
+		private final int firstBucket;
+		private final int[] counts;
+
+		public Row(long startTimeMs, long durationMs, int firstBucket, int[] counts) {
+			this.startTimeMs = startTimeMs;
+			this.durationMs = durationMs;
+			this.firstBucket = firstBucket;
+			this.counts = counts;
+		}
+
+		public long getStartTimeMs() {
+			return startTimeMs;
+		}
+
+		public long getDurationMs() {
+			return durationMs;
+		}
+
+		/**
+		 * The index of the bucket of the first count
+		 */
+		public int getFirstBucket() {
+			return firstBucket;
+		}
+
+		public int[] getCounts() {
+			return counts;
+		}
+	}
+
+	private final String workloadId;
+	private final long resolutionMs;
+	private final long[] bucketBoundsUs;
+	private final List<Row> rows;
+
+	public LatencyHeatmapResult(String workloadId, long resolutionMs, long[] bucketBoundsUs, List<Row> rows) {
+		this.workloadId = workloadId;
+		this.resolutionMs = resolutionMs;
+		this.bucketBoundsUs = bucketBoundsUs;
+		this.rows = rows;
+	}
+
+	public String getWorkloadId() {
+		return workloadId;
+	}
+
+	public long getResolutionMs() {
+		return resolutionMs;
+	}
+
+	/**
+	 * The lowest latency in each bucket. There is one more entry than there are buckets, so
+	 * bucket <code>i</code> holds latencies from <code>bucketBoundsUs[i]</code> up to but not
+	 * including <code>bucketBoundsUs[i+1]</code>.
+	 */
+	public long[] getBucketBoundsUs() {
+		return bucketBoundsUs;
+	}
+
+	public List<Row> getRows() {
+		return rows;
+	}
+}
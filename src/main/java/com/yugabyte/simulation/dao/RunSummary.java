@@ -0,0 +1,308 @@
+package com.yugabyte.simulation.dao;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.json.JSONObject;
+
+import com.yugabyte.simulation.services.LatencyHistogram;
+import com.yugabyte.simulation.services.TimingSnapshot;
+
+/**
+ * Totals and latency percentiles over the whole run of a workload. These are computed from
+ * the merged histograms of every interval, so unlike anything derived from the interval
+ * results the percentiles are exact (to the resolution of the histogram).
+ */
+public class RunSummary {
+	private final String workloadId;
+	private final String workloadTypeName;
+	private final String description;
+	private final boolean complete;
+	private final long startTime;
+	private final long endTime;
+	private final long durationMs;
+	private final long totalOps;
+	private final long numSucceeded;
+	private final long numFailed;
+	private final double throughput;
+	private final long minUs;
+	private final long avgUs;
+	private final long p50Us;
+	private final long p90Us;
+	private final long p99Us;
+	private final long p999Us;
+	private final long p9999Us;
+	private final long maxUs;
+	private final DistributionSummary responseTime;
+	private final long numLateStarts;
+	private final Map<String, Long> errors;
+	private final ClientPauses clientPauses;
+	private final DistributionSummary poolWait;
+	private final DistributionSummary execution;
+	private final ClientCost clientCost;
+	private final DistributionSummary rowsPerOp;
+	private final long rows;
+	private final long bytes;
+
+	/**
+	 * @param complete false if the workload is still running, in which case this is the summary so far
+	 */
+	public RunSummary(String workloadId, String workloadTypeName, String description, boolean complete,
+			long startTime, long endTime, TimingSnapshot totals) {
+		this.workloadId = workloadId;
+		this.workloadTypeName = workloadTypeName;
+		this.description = description;
+		this.complete = complete;
+		this.startTime = startTime;
+		this.endTime = endTime;
+		this.durationMs = Math.max(0, endTime - startTime);
+		LatencyHistogram latencies = totals.getLatencies();
+		this.totalOps = latencies.getTotalCount();
+		this.numFailed = totals.getFailureCount();
+		this.numSucceeded = totalOps - numFailed;
+		this.throughput = durationMs == 0 ? 0 : totalOps * 1000.0 / durationMs;
+		this.minUs = latencies.getMin();
+		this.avgUs = latencies.getMean();
+		this.p50Us = latencies.getValueAtPercentile(50.0);
+		this.p90Us = latencies.getValueAtPercentile(90.0);
+		this.p99Us = latencies.getValueAtPercentile(99.0);
+		this.p999Us = latencies.getValueAtPercentile(99.9);
+		this.p9999Us = latencies.getValueAtPercentile(99.99);
+		this.maxUs = latencies.getMax();
+		this.responseTime = totals.getResponseTimes().isEmpty() ? null : new DistributionSummary(totals.getResponseTimes());
+		this.numLateStarts = totals.getLateStartCount();
+		this.errors = totals.getErrors().isEmpty() ? Collections.emptyMap() : new LinkedHashMap<>(totals.getErrors());
+		this.clientPauses = totals.getPauses();
+		this.poolWait = totals.getPoolWaits().isEmpty() ? null : new DistributionSummary(totals.getPoolWaits());
+		this.execution = totals.getExecutionTimes().isEmpty() ? null : new DistributionSummary(totals.getExecutionTimes());
+		this.clientCost = totals.getClientCost();
+		this.rowsPerOp = totals.getRowsPerOp().isEmpty() ? null : new DistributionSummary(totals.getRowsPerOp());
+		this.rows = totals.getRowsPerOp().getTotalValue();
+		this.bytes = totals.getBytes();
+	}
+
+	public String getWorkloadId() {
+		return workloadId;
+	}
+
+	public String getWorkloadTypeName() {
+		return workloadTypeName;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public boolean isComplete() {
+		return complete;
+	}
+
+	public long getStartTime() {
+		return startTime;
+	}
+
+	public long getEndTime() {
+		return endTime;
+	}
+
+	public long getDurationMs() {
+		return durationMs;
+	}
+
+	public long getTotalOps() {
+		return totalOps;
+	}
+
+	public long getNumSucceeded() {
+		return numSucceeded;
+	}
+
+	public long getNumFailed() {
+		return numFailed;
+	}
+
+	/**
+	 * Average operations per second over the run
+	 */
+	public double getThroughput() {
+		return throughput;
+	}
+
+	public long getMinUs() {
+		return minUs;
+	}
+
+	public long getAvgUs() {
+		return avgUs;
+	}
+
+	public long getP50Us() {
+		return p50Us;
+	}
+
+	public long getP90Us() {
+		return p90Us;
+	}
+
+	public long getP99Us() {
+		return p99Us;
+	}
+
+	public long getP999Us() {
+		return p999Us;
+	}
+
+	public long getP9999Us() {
+		return p9999Us;
+	}
+
+	public long getMaxUs() {
+		return maxUs;
+	}
+
+	public DistributionSummary getResponseTime() {
+		return responseTime;
+	}
+
+	public long getNumLateStarts() {
+		return numLateStarts;
+	}
+
+	public Map<String, Long> getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Pauses of the simulator's JVM over the run, null if they were not recorded.
+	 */
+	public ClientPauses getClientPauses() {
+		return clientPauses;
+	}
+
+	/**
+	 * Time operations spent waiting for connections from the pool, null if none used it.
+	 */
+	public DistributionSummary getPoolWait() {
+		return poolWait;
+	}
+
+	/**
+	 * Latency of the operations which used the pool, excluding the wait for connections.
+	 */
+	public DistributionSummary getExecution() {
+		return execution;
+	}
+
+	/**
+	 * The CPU time and allocations of the simulator per operation, null if not measured.
+	 */
+	public ClientCost getClientCost() {
+		return clientCost;
+	}
+
+	/**
+	 * The rows processed by each operation which reported rows, null if none did.
+	 */
+	public DistributionSummary getRowsPerOp() {
+		return rowsPerOp;
+	}
+
+	public long getRows() {
+		return rows;
+	}
+
+	public long getBytes() {
+		return bytes;
+	}
+
+	public double getRowsPerSecond() {
+		return durationMs == 0 ? 0 : rows * 1000.0 / durationMs;
+	}
+
+	public double getMegabytesPerSecond() {
+		return durationMs == 0 ? 0 : bytes * 1000.0 / durationMs / (1024 * 1024);
+	}
+
+	private static JSONObject toJson(DistributionSummary summary) {
+		JSONObject json = new JSONObject();
+		json.put("count", summary.getCount());
+		json.put("min", summary.getMin());
+		json.put("avg", summary.getAvg());
+		json.put("max", summary.getMax());
+		json.put("p50", summary.getP50());
+		json.put("p90", summary.getP90());
+		json.put("p99", summary.getP99());
+		json.put("p999", summary.getP999());
+		return json;
+	}
+
+	public String toJson() {
+		JSONObject json = new JSONObject();
+		json.put("workloadId", workloadId);
+		json.put("workloadTypeName", workloadTypeName);
+		json.put("description", description);
+		json.put("complete", complete);
+		json.put("startTime", startTime);
+		json.put("endTime", endTime);
+		json.put("durationMs", durationMs);
+		json.put("totalOps", totalOps);
+		json.put("numSucceeded", numSucceeded);
+		json.put("numFailed", numFailed);
+		json.put("throughput", throughput);
+		json.put("minUs", minUs);
+		json.put("avgUs", avgUs);
+		json.put("p50Us", p50Us);
+		json.put("p90Us", p90Us);
+		json.put("p99Us", p99Us);
+		json.put("p999Us", p999Us);
+		json.put("p9999Us", p9999Us);
+		json.put("maxUs", maxUs);
+		if (responseTime != null) {
+			json.put("responseTime", toJson(responseTime));
+			json.put("numLateStarts", numLateStarts);
+		}
+		if (poolWait != null) {
+			json.put("poolWait", toJson(poolWait));
+			json.put("execution", toJson(execution));
+		}
+		if (rowsPerOp != null) {
+			json.put("rowsPerOp", toJson(rowsPerOp));
+			json.put("rows", rows);
+			json.put("bytes", bytes);
+			json.put("rowsPerSecond", getRowsPerSecond());
+			json.put("megabytesPerSecond", getMegabytesPerSecond());
+		}
+		json.put("errors", errors);
+		if (clientCost != null) {
+			JSONObject cost = new JSONObject();
+			cost.put("ops", clientCost.getOps());
+			cost.put("cpuUsPerOp", clientCost.getCpuUsPerOp());
+			cost.put("bytesPerOp", clientCost.getBytesPerOp());
+			json.put("clientCost", cost);
+		}
+		if (clientPauses != null) {
+			JSONObject pauses = new JSONObject();
+			pauses.put("count", clientPauses.getCount());
+			pauses.put("totalUs", clientPauses.getTotalUs());
+			pauses.put("maxUs", clientPauses.getMaxUs());
+			pauses.put("gcCount", clientPauses.getGcCount());
+			pauses.put("gcTotalUs", clientPauses.getGcTotalUs());
+			pauses.put("gcMaxUs", clientPauses.getGcMaxUs());
+			pauses.put("paused", clientPauses.isPaused());
+			json.put("clientPauses", pauses);
+		}
+		return json.toString(2);
+	}
+
+	@Override
+	public String toString() {
+		if (clientPauses != null && clientPauses.isPaused()) {
+			return String.format("%s: %,d ops (%,d failed) in %,dms, %,.1f ops/s, p50: %,dus, p99: %,dus, p99.9: %,dus, p99.99: %,dus, max: %,dus, max client pause: %,dus\n",
+					workloadId, totalOps, numFailed, durationMs, throughput, p50Us, p99Us, p999Us, p9999Us, maxUs,
+					Math.max(clientPauses.getMaxUs(), clientPauses.getGcMaxUs()));
+		}
+		return String.format("%s: %,d ops (%,d failed) in %,dms, %,.1f ops/s, p50: %,dus, p99: %,dus, p99.9: %,dus, p99.99: %,dus, max: %,dus\n",
+				workloadId, totalOps, numFailed, durationMs, throughput, p50Us, p99Us, p999Us, p9999Us, maxUs);
+	}
+}
@@ -0,0 +1,142 @@
+package com.yugabyte.simulation.dao;
+
+import java.util.List;
+
+/**
+ * Whether the simulator itself was the bottleneck of a workload in the last interval
+ * assessed. A workload which falls short of its target rate while the client is out of
+ * threads, connections or CPU is limited by the load generator, and its results say little
+ * about the database. A shortfall with no such reason is most likely the database.
+ */
+public class SaturationStatus {
+	public enum Status {
+		/** The workload achieved its target, or has none, and the client had capacity to spare */
+		OK,
+		/** The client was short of threads, connections or CPU, or was paused */
+		CLIENT_SATURATED,
+		/** The workload fell short of its target rate without the client being saturated */
+		BELOW_TARGET
+	}
+
+	public enum Reason {
+		/** Every worker thread allowed was in use and more were needed */
+		THREAD_CAP,
+		/** The workload's operations spent a noticeable share of their time waiting for a connection */
+		POOL_EXHAUSTED,
+		/** The simulator process was using most of the CPU of its machine */
+		CLIENT_CPU,
+		/** The simulator JVM was paused for longer than the pause threshold */
+		CLIENT_PAUSED,
+		/** Many scheduled operations started later than intended */
+		LATE_STARTS
+	}
+
+	private final Status status;
+	private final List<Reason> reasons;
+	private final long startTime;
+	private final double targetRate;
+	private final double achievedRate;
+	private final double rateShortfallPercent;
+	private final int poolPending;
+	private final double poolWaitPercent;
+	private final double clientCpuPercent;
+	private final double lateStartPercent;
+	private final int saturatedIntervals;
+	private final int intervals;
+
+	public SaturationStatus(Status status, List<Reason> reasons, long startTime, double targetRate,
+			double achievedRate, double rateShortfallPercent, int poolPending, double poolWaitPercent,
+			double clientCpuPercent, double lateStartPercent, int saturatedIntervals, int intervals) {
+		this.status = status;
+		this.reasons = reasons;
+		this.startTime = startTime;
+		this.targetRate = targetRate;
+		this.achievedRate = achievedRate;
+		this.rateShortfallPercent = rateShortfallPercent;
+		this.poolPending = poolPending;
+		this.poolWaitPercent = poolWaitPercent;
+		this.clientCpuPercent = clientCpuPercent;
+		this.lateStartPercent = lateStartPercent;
+		this.saturatedIntervals = saturatedIntervals;
+		this.intervals = intervals;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public List<Reason> getReasons() {
+		return reasons;
+	}
+
+	/**
+	 * The start time of the interval assessed
+	 */
+	public long getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * The operations per second the workload was aiming for, 0 if it has no target rate
+	 */
+	public double getTargetRate() {
+		return targetRate;
+	}
+
+	public double getAchievedRate() {
+		return achievedRate;
+	}
+
+	/**
+	 * How far the achieved rate was below the target rate as a percentage of it, 0 if the
+	 * target was met or the workload has none
+	 */
+	public double getRateShortfallPercent() {
+		return rateShortfallPercent;
+	}
+
+	/**
+	 * Threads waiting for a connection at the end of the interval
+	 */
+	public int getPoolPending() {
+		return poolPending;
+	}
+
+	/**
+	 * The time this workload's operations spent waiting for a connection, as a percentage of
+	 * their total time
+	 */
+	public double getPoolWaitPercent() {
+		return poolWaitPercent;
+	}
+
+	/**
+	 * The CPU used by the simulator process as a percentage of all the CPUs of its machine,
+	 * or -1 if the JVM cannot measure it
+	 */
+	public double getClientCpuPercent() {
+		return clientCpuPercent;
+	}
+
+	public double getLateStartPercent() {
+		return lateStartPercent;
+	}
+
+	/**
+	 * The number of intervals of the run in which the client was saturated
+	 */
+	public int getSaturatedIntervals() {
+		return saturatedIntervals;
+	}
+
+	/**
+	 * The number of intervals of the run assessed
+	 */
+	public int getIntervals() {
+		return intervals;
+	}
+
+	public boolean isClientSaturated() {
+		return status == Status.CLIENT_SATURATED;
+	}
+}
@@ -0,0 +1,100 @@
+package com.yugabyte.simulation.dao;
+
+/**
+ * A service level objective for a workload, such as "p99 under 20ms and under 0.1% errors",
+ * evaluated over a sliding window of intervals. Either objective can be disabled by leaving
+ * it at 0. The objective is breached when the window consumes error budget faster than the
+ * objective allows, that is its burn rate exceeds 1.
+ */
+public class SloDefinition {
+	public enum Action {
+		/** Only log that the objective was breached */
+		LOG,
+		/** Terminate the workload */
+		STOP,
+		/** Reduce the target rate of a throughput workload, repeated each window while breached */
+		REDUCE_RATE
+	}
+
+	private String name;
+	private double percentile = 99.0;
+	private double latencyThresholdMs = 0;
+	private double maxErrorRatio = 0;
+	private int windowSeconds = 60;
+	private Action action = Action.LOG;
+	private int rateReductionPercent = 10;
+
+	public String getName() {
+		return name;
+	}
+	public void setName(String name) {
+		this.name = name;
+	}
+	/**
+	 * The percentile of operations which must complete within the latency threshold
+	 */
+	public double getPercentile() {
+		return percentile;
+	}
+	public void setPercentile(double percentile) {
+		this.percentile = percentile;
+	}
+	public double getLatencyThresholdMs() {
+		return latencyThresholdMs;
+	}
+	public void setLatencyThresholdMs(double latencyThresholdMs) {
+		this.latencyThresholdMs = latencyThresholdMs;
+	}
+	/**
+	 * The highest allowed ratio of failed operations to all operations, such as 0.001
+	 */
+	public double getMaxErrorRatio() {
+		return maxErrorRatio;
+	}
+	public void setMaxErrorRatio(double maxErrorRatio) {
+		this.maxErrorRatio = maxErrorRatio;
+	}
+	public int getWindowSeconds() {
+		return windowSeconds;
+	}
+	public void setWindowSeconds(int windowSeconds) {
+		this.windowSeconds = windowSeconds;
+	}
+	public Action getAction() {
+		return action;
+	}
+	public void setAction(Action action) {
+		this.action = action;
+	}
+	public int getRateReductionPercent() {
+		return rateReductionPercent;
+	}
+	public void setRateReductionPercent(int rateReductionPercent) {
+		this.rateReductionPercent = rateReductionPercent;
+	}
+	
+	public boolean hasLatencyObjective() {
+		return latencyThresholdMs > 0 && percentile > 0 && percentile < 100;
+	}
+	
+	public boolean hasErrorObjective() {
+		return maxErrorRatio > 0;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		if (hasLatencyObjective()) {
+			sb.append(String.format("p%s < %sms", 
+					percentile == Math.rint(percentile) ? Long.toString((long)percentile) : Double.toString(percentile),
+					latencyThresholdMs == Math.rint(latencyThresholdMs) ? Long.toString((long)latencyThresholdMs) : Double.toString(latencyThresholdMs)));
+		}
+		if (hasErrorObjective()) {
+			if (sb.length() > 0) {
+				sb.append(" and ");
+			}
+			sb.append(String.format("error ratio < %s", Double.toString(maxErrorRatio)));
+		}
+		return sb.append(" over ").append(windowSeconds).append("s").toString();
+	}
+}
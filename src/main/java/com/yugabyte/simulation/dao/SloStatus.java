@@ -0,0 +1,96 @@
+package com.yugabyte.simulation.dao;
+
+/**
+ * The state of a workload's service level objective as of the last interval evaluated.
+ * Burn rates are the rate the error budget is being consumed relative to the rate the 
+ * objective allows, so 1 means exactly meeting the objective and anything higher is a breach.
+ */
+public class SloStatus {
+	private final String name;
+	private final String objective;
+	private final String action;
+	private final double burnRate;
+	private final double latencyBurnRate;
+	private final double errorBurnRate;
+	private final double budgetConsumed;
+	private final boolean breached;
+	private final int breachCount;
+	private final long lastBreachTime;
+	private final int actionCount;
+
+	public SloStatus(String name, String objective, String action, double burnRate, double latencyBurnRate,
+			double errorBurnRate, double budgetConsumed, boolean breached, int breachCount, long lastBreachTime,
+			int actionCount) {
+		this.name = name;
+		this.objective = objective;
+		this.action = action;
+		this.burnRate = burnRate;
+		this.latencyBurnRate = latencyBurnRate;
+		this.errorBurnRate = errorBurnRate;
+		this.budgetConsumed = budgetConsumed;
+		this.breached = breached;
+		this.breachCount = breachCount;
+		this.lastBreachTime = lastBreachTime;
+		this.actionCount = actionCount;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * A description of the objective, such as "p99 < 20ms over 60s"
+	 */
+	public String getObjective() {
+		return objective;
+	}
+
+	public String getAction() {
+		return action;
+	}
+
+	/**
+	 * The higher of the latency and error burn rates over the current window
+	 */
+	public double getBurnRate() {
+		return burnRate;
+	}
+
+	public double getLatencyBurnRate() {
+		return latencyBurnRate;
+	}
+
+	public double getErrorBurnRate() {
+		return errorBurnRate;
+	}
+
+	/**
+	 * The fraction of the error budget of the whole run used so far, over 1 means the run
+	 * as a whole has not met the objective.
+	 */
+	public double getBudgetConsumed() {
+		return budgetConsumed;
+	}
+
+	public boolean isBreached() {
+		return breached;
+	}
+
+	public int getBreachCount() {
+		return breachCount;
+	}
+
+	/**
+	 * The start time of the interval in which the objective was last breached, 0 if never
+	 */
+	public long getLastBreachTime() {
+		return lastBreachTime;
+	}
+
+	/**
+	 * The number of times the action has been taken
+	 */
+	public int getActionCount() {
+		return actionCount;
+	}
+}
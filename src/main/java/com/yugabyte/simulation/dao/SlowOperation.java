@@ -0,0 +1,102 @@
+package com.yugabyte.simulation.dao;
+
+/**
+ * One of the slowest operations of a workload, with the context the operation attached to
+ * its timer, such as the statement run and the key used, so it can be reproduced.
+ */
+public class SlowOperation {
+	public static final String CSV_HEADER = "Interval Start Time,Start Time,Latency Us,Response Time Us,Status,Operation,Statement,Key,Host,Thread\n";
+
+	private final long startTime;
+	private final long latencyUs;
+	private final long responseTimeUs;
+	private final String status;
+	private final String operation;
+	private final String statement;
+	private final String key;
+	private final String host;
+	private final String thread;
+
+	public SlowOperation(long startTime, long latencyUs, long responseTimeUs, String status, String operation,
+			String statement, String key, String host, String thread) {
+		this.startTime = startTime;
+		this.latencyUs = latencyUs;
+		this.responseTimeUs = responseTimeUs;
+		this.status = status;
+		this.operation = operation;
+		this.statement = statement;
+		this.key = key;
+		this.host = host;
+		this.thread = thread;
+	}
+
+	/**
+	 * When the operation started, in milliseconds since the epoch
+	 */
+	public long getStartTime() {
+		return startTime;
+	}
+
+	public long getLatencyUs() {
+		return latencyUs;
+	}
+
+	/**
+	 * The time from when the operation was scheduled to start, or -1 if it was not scheduled
+	 */
+	public long getResponseTimeUs() {
+		return responseTimeUs;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	/**
+	 * The name the operation was registered under, or null
+	 */
+	public String getOperation() {
+		return operation;
+	}
+
+	/**
+	 * The statement the operation ran, or null if it did not attach one
+	 */
+	public String getStatement() {
+		return statement;
+	}
+
+	/**
+	 * The key the operation used, or null if it did not attach one
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * The database host of the last connection the operation got from the pool, or null
+	 */
+	public String getHost() {
+		return host;
+	}
+
+	public String getThread() {
+		return thread;
+	}
+
+	private static String csvField(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+			return '"' + value.replace("\"", "\"\"").replace('\n', ' ') + '"';
+		}
+		return value;
+	}
+
+	public String toCsv(long intervalStartTime) {
+		return String.format("%d,%d,%d,%d,%s,%s,%s,%s,%s,%s\n", intervalStartTime, startTime, latencyUs,
+				responseTimeUs, status, csvField(operation), csvField(statement), csvField(key), csvField(host),
+				csvField(thread));
+	}
+}
@@ -0,0 +1,64 @@
+package com.yugabyte.simulation.dao;
+
+import java.util.List;
+
+/**
+ * The slowest operations of a workload over its whole run and in each recent interval,
+ * slowest first.
+ */
+public class SlowOperationsResult {
+	public static class Interval {
+		private final long startTime;
+		private final List<SlowOperation> operations;
+
+		public Interval(long startTime, List<SlowOperation> operations) {
+			this.startTime = startTime;
+			this.operations = operations;
+		}
+
+		public long getStartTime() {
+			return startTime;
+		}
+
+		public List<SlowOperation> getOperations() {
+			return operations;
+		}
+	}
+
+	private final String workloadId;
+	private final int size;
+	private final List<SlowOperation> slowest;
+	private final List<Interval> intervals;
+
+	public SlowOperationsResult(String workloadId, int size, List<SlowOperation> slowest, List<Interval> intervals) {
+		this.workloadId = workloadId;
+		this.size = size;
+		this.slowest = slowest;
+		this.intervals = intervals;
+	}
+
+	public String getWorkloadId() {
+		return workloadId;
+	}
+
+	/**
+	 * The number of operations kept per interval and for the run, 0 if disabled, see -DslowOperations
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * The slowest operations of the whole run
+	 */
+	public List<SlowOperation> getSlowest() {
+		return slowest;
+	}
+
+	/**
+	 * The intervals which had any operations, oldest first
+	 */
+	public List<Interval> getIntervals() {
+		return intervals;
+	}
+}
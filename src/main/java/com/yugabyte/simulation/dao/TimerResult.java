@@ -1,49 +1,159 @@
 package com.yugabyte.simulation.dao;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.yugabyte.simulation.services.LatencyHistogram;
+import com.yugabyte.simulation.services.TimingSnapshot;
+
 public class TimerResult {
+	public static final String CSV_HEADER = "Start Time,Min Time Us,Average Time Us,Max Time Us,Num Succeeded,Num Failed,"
+			+ "P50 Time Us,P90 Time Us,P99 Time Us,P99.9 Time Us,Duration Ms,"
+			+ "Client Pause Total Us,Client Pause Max Us,GC Count,GC Pause Total Us,Client Paused,"
+			+ "Pool Wait Avg Us,Pool Wait P99 Us,Execution Avg Us,Execution P99 Us,Pool Active,Pool Idle,Pool Pending,"
+			+ "Client CPU Us Per Op,Bytes Allocated Per Op,Rows Per Sec,MB Per Sec,Rows Per Op Avg,Rows Per Op P99";
+	public static final String ERRORS_CSV_HEADER = "Start Time,Error Type,Count\n";
+	public static final String PHASES_CSV_HEADER = "Start Time,Phase,Count,Min Time Us,Average Time Us,Max Time Us,"
+			+ "P50 Time Us,P90 Time Us,P99 Time Us,P99.9 Time Us\n";
+	private static final String CSV_FORMAT = "%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d";
+
 	private final long numSucceeded;
 	private final long numFailed;
 	private final long minUs;
 	private final long maxUs;
 	private final long avgUs;
+	private final long p50Us;
+	private final long p90Us;
+	private final long p99Us;
+	private final long p999Us;
 	private final long startTimeMs;
+	private final long durationMs;
+	// Only populated for workloads which schedule their operations
+	private final DistributionSummary responseTime;
+	private final long numLateStarts;
+	private final Map<String, DistributionSummary> phases;
+	private final Map<String, TimerResult> operations;
+	private final Map<String, Long> errors;
+	// Null if pauses were not recorded, as for the results of operations
+	private final ClientPauses clientPauses;
+	// Only populated for operations which get connections from the pool
+	private final DistributionSummary poolWait;
+	private final DistributionSummary execution;
+	private final ConnectionPoolStats connectionPool;
+	// Only populated if the cost of operations to the client is measured
+	private final ClientCost clientCost;
+	// Only populated for operations which report the rows they process
+	private final DistributionSummary rowsPerOp;
+	private final long rows;
+	private final long bytes;
 	
-	public TimerResult(long[] succeededTimes, int succeededCounts,
-				long[] failedTimes, int failedCounts, long startTimeMs) {
-		
-		this.numFailed = failedCounts;
-		this.numSucceeded = succeededCounts;
-		this.startTimeMs = startTimeMs;
-		
-		long minUs = Long.MAX_VALUE;
-		long maxUs = Long.MIN_VALUE;
-		long totalTime = 0;
-		for (int j = 0; j < 2; j++) {
-			long[] data = (j == 0 ? succeededTimes : failedTimes);
-			int count = (j == 0 ? succeededCounts : failedCounts);
-			for (int i = 0; i < count; i++) {
-				long time = data[i];
-				if (time < minUs) {
-					minUs = time;
-				}
-				if (time > maxUs) {
-					maxUs = time;
+	public TimerResult(TimingSnapshot snapshot, long startTimeMs, long durationMs) {
+		this(snapshot, startTimeMs, durationMs, Collections.emptyMap());
+	}
+	
+	/**
+	 * Create a result for a workload which also reports each of its named operation 
+	 * types separately.
+	 */
+	public TimerResult(TimingSnapshot snapshot, long startTimeMs, long durationMs, Map<String, TimerResult> operations) {
+		this(snapshot.getLatencies(), snapshot.getFailureCount(), startTimeMs, durationMs,
+				summarize(snapshot.getResponseTimes()),
+				snapshot.getLateStartCount(), summarizePhases(snapshot.getPhases()), operations,
+				snapshot.getErrors().isEmpty() ? Collections.emptyMap() : new LinkedHashMap<>(snapshot.getErrors()),
+				snapshot.getPauses(), summarize(snapshot.getPoolWaits()), summarize(snapshot.getExecutionTimes()),
+				snapshot.getPoolStats(), snapshot.getClientCost(), summarize(snapshot.getRowsPerOp()),
+				snapshot.getRowsPerOp().getTotalValue(), snapshot.getBytes());
+	}
+	
+	private static DistributionSummary summarize(LatencyHistogram histogram) {
+		return histogram.isEmpty() ? null : new DistributionSummary(histogram);
+	}
+	
+	private static Map<String, DistributionSummary> summarizePhases(Map<String, LatencyHistogram> phases) {
+		Map<String, DistributionSummary> result = null;
+		for (Map.Entry<String, LatencyHistogram> phase : phases.entrySet()) {
+			if (!phase.getValue().isEmpty()) {
+				if (result == null) {
+					result = new LinkedHashMap<>();
 				}
-				totalTime += time;
+				result.put(phase.getKey(), new DistributionSummary(phase.getValue()));
 			}
 		}
-		if (minUs < Long.MAX_VALUE) {
-			this.minUs = minUs;
-			this.maxUs = maxUs;
-			this.avgUs = totalTime / (failedCounts + succeededCounts);
-
-			// If StdDev is required see https://www.programiz.com/java-programming/examples/standard-deviation
-		}
-		else {
-			this.minUs = 0;
-			this.maxUs = 0;
-			this.avgUs = 0;
-		}
+		return result == null ? Collections.emptyMap() : result;
+	}
+	
+	/**
+	 * Create a result from the latencies of all the operations (successful and failed)
+	 * recorded in the interval.
+	 */
+	public TimerResult(LatencyHistogram latencies, long failedCount, long startTimeMs, long durationMs) {
+		this(latencies, failedCount, startTimeMs, durationMs, null, 0, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), null, null, null, null, null, null, 0, 0);
+	}
+	
+	private TimerResult(LatencyHistogram latencies, long failedCount, long startTimeMs, long durationMs,
+			DistributionSummary responseTime, long numLateStarts, Map<String, DistributionSummary> phases,
+			Map<String, TimerResult> operations, Map<String, Long> errors, ClientPauses clientPauses,
+			DistributionSummary poolWait, DistributionSummary execution, ConnectionPoolStats connectionPool,
+			ClientCost clientCost, DistributionSummary rowsPerOp, long rows, long bytes) {
+		this.numFailed = failedCount;
+		this.numSucceeded = latencies.getTotalCount() - failedCount;
+		this.startTimeMs = startTimeMs;
+		this.durationMs = durationMs;
+		this.minUs = latencies.getMin();
+		this.maxUs = latencies.getMax();
+		this.avgUs = latencies.getMean();
+		this.p50Us = latencies.getValueAtPercentile(50.0);
+		this.p90Us = latencies.getValueAtPercentile(90.0);
+		this.p99Us = latencies.getValueAtPercentile(99.0);
+		this.p999Us = latencies.getValueAtPercentile(99.9);
+		this.responseTime = responseTime;
+		this.numLateStarts = numLateStarts;
+		this.phases = phases;
+		this.operations = operations;
+		this.errors = errors;
+		this.clientPauses = clientPauses;
+		this.poolWait = poolWait;
+		this.execution = execution;
+		this.connectionPool = connectionPool;
+		this.clientCost = clientCost;
+		this.rowsPerOp = rowsPerOp;
+		this.rows = rows;
+		this.bytes = bytes;
+	}
+	
+	/**
+	 * Recreate a result with no phases, operations or errors from its stored values.
+	 */
+	public TimerResult(long startTimeMs, long durationMs, long numSucceeded, long numFailed,
+			long minUs, long avgUs, long maxUs, long p50Us, long p90Us, long p99Us, long p999Us,
+			DistributionSummary responseTime, long numLateStarts, ClientPauses clientPauses,
+			DistributionSummary poolWait, DistributionSummary execution, ConnectionPoolStats connectionPool,
+			ClientCost clientCost, DistributionSummary rowsPerOp, long rows, long bytes) {
+		this.startTimeMs = startTimeMs;
+		this.durationMs = durationMs;
+		this.numSucceeded = numSucceeded;
+		this.numFailed = numFailed;
+		this.minUs = minUs;
+		this.avgUs = avgUs;
+		this.maxUs = maxUs;
+		this.p50Us = p50Us;
+		this.p90Us = p90Us;
+		this.p99Us = p99Us;
+		this.p999Us = p999Us;
+		this.responseTime = responseTime;
+		this.numLateStarts = numLateStarts;
+		this.phases = Collections.emptyMap();
+		this.operations = Collections.emptyMap();
+		this.errors = Collections.emptyMap();
+		this.clientPauses = clientPauses;
+		this.poolWait = poolWait;
+		this.execution = execution;
+		this.connectionPool = connectionPool;
+		this.clientCost = clientCost;
+		this.rowsPerOp = rowsPerOp;
+		this.rows = rows;
+		this.bytes = bytes;
 	}
 	
 	protected TimerResult(TimerResult original) {
@@ -52,7 +162,25 @@ public class TimerResult {
 		this.avgUs = original.avgUs;
 		this.maxUs = original.maxUs;
 		this.minUs = original.minUs;
+		this.p50Us = original.p50Us;
+		this.p90Us = original.p90Us;
+		this.p99Us = original.p99Us;
+		this.p999Us = original.p999Us;
 		this.startTimeMs = original.startTimeMs;
+		this.durationMs = original.durationMs;
+		this.responseTime = original.responseTime;
+		this.numLateStarts = original.numLateStarts;
+		this.phases = original.phases;
+		this.operations = original.operations;
+		this.errors = original.errors;
+		this.clientPauses = original.clientPauses;
+		this.poolWait = original.poolWait;
+		this.execution = original.execution;
+		this.connectionPool = original.connectionPool;
+		this.clientCost = original.clientCost;
+		this.rowsPerOp = original.rowsPerOp;
+		this.rows = original.rows;
+		this.bytes = original.bytes;
 	}
 
 	public long getNumSucceeded() {
@@ -75,18 +203,205 @@ public class TimerResult {
 		return avgUs;
 	}
 
+	public long getP50Us() {
+		return p50Us;
+	}
+
+	public long getP90Us() {
+		return p90Us;
+	}
+
+	public long getP99Us() {
+		return p99Us;
+	}
+
+	public long getP999Us() {
+		return p999Us;
+	}
+
 	public long getStartTimeMs() {
 		return startTimeMs;
 	}
 	
+	/**
+	 * The length of the interval this result covers. Counts should be divided by
+	 * this to get rates, as the interval is configurable and may not be a second.
+	 */
+	public long getDurationMs() {
+		return durationMs;
+	}
+	
+	/**
+	 * The latency measured from when each operation was scheduled to start, which 
+	 * includes any time the operation was held up behind a slow predecessor. 
+	 * Null if no scheduled operations completed in this interval.
+	 */
+	public DistributionSummary getResponseTime() {
+		return responseTime;
+	}
+	
+	public long getNumLateStarts() {
+		return numLateStarts;
+	}
+	
+	/**
+	 * Latencies of the named phases of the operations in this interval, keyed by phase name.
+	 */
+	public Map<String, DistributionSummary> getPhases() {
+		return phases;
+	}
+	
+	/**
+	 * Pauses of the simulator's JVM during this interval, which are included in the
+	 * latencies of any operations in flight at the time. Null for operation results.
+	 */
+	public ClientPauses getClientPauses() {
+		return clientPauses;
+	}
+	
+	/**
+	 * Time the operations spent waiting for a connection from the pool. Null if no operations
+	 * in this interval used the pool.
+	 */
+	public DistributionSummary getPoolWait() {
+		return poolWait;
+	}
+	
+	/**
+	 * The latency of the operations which used the pool, excluding the time waiting for 
+	 * connections. This is the latency attributable to the database.
+	 */
+	public DistributionSummary getExecution() {
+		return execution;
+	}
+	
+	/**
+	 * The state of the connection pool at the end of the interval, or the peaks over it
+	 * for merged intervals. Null for operation results.
+	 */
+	public ConnectionPoolStats getConnectionPool() {
+		return connectionPool;
+	}
+	
+	/**
+	 * The CPU time and allocations of the simulator per operation, or null if not measured,
+	 * see -DclientCost
+	 */
+	public ClientCost getClientCost() {
+		return clientCost;
+	}
+	
+	/**
+	 * The number of rows processed by each operation which reported rows, null if none did.
+	 */
+	public DistributionSummary getRowsPerOp() {
+		return rowsPerOp;
+	}
+	
+	public long getRows() {
+		return rows;
+	}
+	
+	public long getBytes() {
+		return bytes;
+	}
+	
+	public double getRowsPerSecond() {
+		return durationMs <= 0 ? 0 : rows * 1000.0 / durationMs;
+	}
+	
+	public double getMegabytesPerSecond() {
+		return durationMs <= 0 ? 0 : bytes * 1000.0 / durationMs / (1024 * 1024);
+	}
+	
+	/**
+	 * Format the columns common to all workload types, matching {@link #CSV_HEADER}. 
+	 * Workload types append their own columns and the line terminator.
+	 */
+	public String toCsv() {
+		String csv = String.format(CSV_FORMAT, startTimeMs, minUs, avgUs, maxUs, numSucceeded, numFailed,
+				p50Us, p90Us, p99Us, p999Us, durationMs);
+		if (clientPauses == null) {
+			csv += ",,,,,";
+		}
+		else {
+			csv += String.format(",%d,%d,%d,%d,%s", clientPauses.getTotalUs(), clientPauses.getMaxUs(),
+					clientPauses.getGcCount(), clientPauses.getGcTotalUs(), clientPauses.isPaused());
+		}
+		if (poolWait == null) {
+			csv += ",,,,";
+		}
+		else {
+			csv += String.format(",%d,%d,%d,%d", poolWait.getAvg(), poolWait.getP99(), execution.getAvg(), execution.getP99());
+		}
+		if (connectionPool == null) {
+			csv += ",,,";
+		}
+		else {
+			csv += String.format(",%d,%d,%d", connectionPool.getActive(), connectionPool.getIdle(), connectionPool.getPending());
+		}
+		if (clientCost == null) {
+			csv += ",,";
+		}
+		else {
+			csv += String.format(",%.1f,%.0f", clientCost.getCpuUsPerOp(), clientCost.getBytesPerOp());
+		}
+		if (rowsPerOp == null) {
+			return csv + ",,,,";
+		}
+		return csv + String.format(",%.1f,%.3f,%d,%d", getRowsPerSecond(), getMegabytesPerSecond(), rowsPerOp.getAvg(), rowsPerOp.getP99());
+	}
+	
+	/**
+	 * Results of each of the named operation types of the workload in this interval, 
+	 * keyed by operation name. These are also included in the totals of this result.
+	 */
+	public Map<String, TimerResult> getOperations() {
+		return operations;
+	}
+	
+	/**
+	 * The number of failures in this interval of each type of error, keyed by the SQLState
+	 * or exception class which caused them. Only types which occurred are present.
+	 */
+	public Map<String, Long> getErrors() {
+		return errors;
+	}
+	
+	/**
+	 * Format one line per error type, matching {@link #ERRORS_CSV_HEADER}.
+	 */
+	public String errorsToCsv() {
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<String, Long> entry : errors.entrySet()) {
+			sb.append(String.format("%d,%s,%d\n", startTimeMs, entry.getKey(), entry.getValue()));
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * Format one line per phase, matching {@link #PHASES_CSV_HEADER}.
+	 */
+	public String phasesToCsv() {
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<String, DistributionSummary> entry : phases.entrySet()) {
+			DistributionSummary phase = entry.getValue();
+			sb.append(String.format("%d,%s,%d,%d,%d,%d,%d,%d,%d,%d\n", startTimeMs, entry.getKey(), 
+					phase.getCount(), phase.getMin(), phase.getAvg(), phase.getMax(),
+					phase.getP50(), phase.getP90(), phase.getP99(), phase.getP999()));
+		}
+		return sb.toString();
+	}
+	
 	@Override
 	public String toString() {
-		return String.format("Ops/s: %,d (%,d, %,d), min: %,dus, avg: %,dus, max: %,dus\n",
-				(numSucceeded + numFailed),
+		return String.format("Ops/s: %,d (%,d, %,d), min: %,dus, avg: %,dus, p99: %,dus, max: %,dus\n",
+				durationMs <= 0 ? 0 : (numSucceeded + numFailed) * 1000 / durationMs,
 				numSucceeded,
 				numFailed,
 				minUs,
 				avgUs,
+				p99Us,
 				maxUs);
 	}
 }
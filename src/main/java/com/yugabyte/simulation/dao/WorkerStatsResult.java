@@ -0,0 +1,72 @@
+package com.yugabyte.simulation.dao;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The slowest workers of a workload, with how the workers are spread over the database
+ * hosts so uneven load balancing shows up.
+ */
+public class WorkerStatsResult {
+	private final String workloadId;
+	private final boolean enabled;
+	private final int workerCount;
+	private final long medianP99Us;
+	private final List<WorkerSummary> workers;
+	private final Map<String, Integer> workersByHost;
+	private final Map<String, Double> opsPerSecondByHost;
+
+	public WorkerStatsResult(String workloadId, boolean enabled, int workerCount, long medianP99Us,
+			List<WorkerSummary> workers, Map<String, Integer> workersByHost, Map<String, Double> opsPerSecondByHost) {
+		this.workloadId = workloadId;
+		this.enabled = enabled;
+		this.workerCount = workerCount;
+		this.medianP99Us = medianP99Us;
+		this.workers = workers;
+		this.workersByHost = workersByHost;
+		this.opsPerSecondByHost = opsPerSecondByHost;
+	}
+
+	public String getWorkloadId() {
+		return workloadId;
+	}
+
+	/**
+	 * False if per worker stats are not being collected, see -DworkerStats
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public int getWorkerCount() {
+		return workerCount;
+	}
+
+	/**
+	 * The median of the p99 latencies of all the workers, to compare the slowest against
+	 */
+	public long getMedianP99Us() {
+		return medianP99Us;
+	}
+
+	/**
+	 * The top workers in the requested order, slowest first by default
+	 */
+	public List<WorkerSummary> getWorkers() {
+		return workers;
+	}
+
+	/**
+	 * The number of workers whose last connection was to each host
+	 */
+	public Map<String, Integer> getWorkersByHost() {
+		return workersByHost;
+	}
+
+	/**
+	 * The throughput of the workers whose last connection was to each host
+	 */
+	public Map<String, Double> getOpsPerSecondByHost() {
+		return opsPerSecondByHost;
+	}
+}
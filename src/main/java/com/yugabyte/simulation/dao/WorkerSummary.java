@@ -0,0 +1,89 @@
+package com.yugabyte.simulation.dao;
+
+/**
+ * The operations of one worker thread since it started. Percentiles are approximate, to
+ * within about 20%, which is enough to pick out workers running much slower than the rest.
+ */
+public class WorkerSummary {
+	private final String threadName;
+	private final long operations;
+	private final long failures;
+	private final double opsPerSecond;
+	private final long avgUs;
+	private final long p50Us;
+	private final long p99Us;
+	private final long maxUs;
+	private final String lastHost;
+	private final long inFlightMs;
+	private final long idleMs;
+
+	public WorkerSummary(String threadName, long operations, long failures, double opsPerSecond, long avgUs,
+			long p50Us, long p99Us, long maxUs, String lastHost, long inFlightMs, long idleMs) {
+		this.threadName = threadName;
+		this.operations = operations;
+		this.failures = failures;
+		this.opsPerSecond = opsPerSecond;
+		this.avgUs = avgUs;
+		this.p50Us = p50Us;
+		this.p99Us = p99Us;
+		this.maxUs = maxUs;
+		this.lastHost = lastHost;
+		this.inFlightMs = inFlightMs;
+		this.idleMs = idleMs;
+	}
+
+	public String getThreadName() {
+		return threadName;
+	}
+
+	public long getOperations() {
+		return operations;
+	}
+
+	public long getFailures() {
+		return failures;
+	}
+
+	public double getOpsPerSecond() {
+		return opsPerSecond;
+	}
+
+	public long getAvgUs() {
+		return avgUs;
+	}
+
+	public long getP50Us() {
+		return p50Us;
+	}
+
+	public long getP99Us() {
+		return p99Us;
+	}
+
+	public long getMaxUs() {
+		return maxUs;
+	}
+
+	/**
+	 * The database host of the connection the worker last obtained, or null if it has not
+	 * used a JDBC connection.
+	 */
+	public String getLastHost() {
+		return lastHost;
+	}
+
+	/**
+	 * How long the operation the worker is currently running has taken so far, 0 if it is
+	 * between operations. A worker with a large value is likely stuck.
+	 */
+	public long getInFlightMs() {
+		return inFlightMs;
+	}
+
+	/**
+	 * How long since the worker finished its last operation, if it is between operations.
+	 */
+	public long getIdleMs() {
+		return idleMs;
+	}
+}
@@ -11,12 +11,19 @@ public class WorkloadResult {
 	private final boolean canBeTerminated;
 	private final boolean isTerminated;
 	private final List<TimerResult> results;
+	private final long resolutionMs;
 	private final long startTime;
 	private final long endTime;
 	private final String status;
 	private final String description;
+	private final List<SloStatus> slos;
+	private final SaturationStatus saturation;
 	
 	public WorkloadResult(long fromTime, WorkloadTypeInstance instance) {
+		this(fromTime, 0, instance);
+	}
+	
+	public WorkloadResult(long fromTime, long resolutionMs, WorkloadTypeInstance instance) {
 		this.workloadId = instance.getWorkloadId();
 		this.workloadTypeName = instance.getType().getTypeName();
 		this.canBeTerminated = instance.getType().canBeTerminated();
@@ -25,12 +32,15 @@ public class WorkloadResult {
 		this.endTime = instance.getEndTime();
 		this.status = instance.getStatus().toString();
 		if (fromTime < Long.MAX_VALUE) {
-			this.results = instance.getResults(fromTime);
+			this.results = instance.getResults(fromTime, resolutionMs);
 		}
 		else {
 			this.results = new ArrayList<TimerResult>();
 		}
 		this.description = instance.getDescription();
+		this.resolutionMs = instance.getResultsResolutionMs(resolutionMs);
+		this.slos = instance.getSloStatuses();
+		this.saturation = instance.getSaturation();
 	}
 
 	public String getWorkloadId() {
@@ -65,7 +75,30 @@ public class WorkloadResult {
 		return results;
 	}
 	
+	/**
+	 * The length of the intervals of the results
+	 */
+	public long getResolutionMs() {
+		return resolutionMs;
+	}
+	
 	public String getDescription() {
 		return description;
 	}
+	
+	/**
+	 * The status of each service level objective attached to the workload, including the
+	 * burn rate of its error budget over its window.
+	 */
+	public List<SloStatus> getSlos() {
+		return slos;
+	}
+	
+	/**
+	 * Whether the simulator rather than the database limited the workload in the last
+	 * interval, or null if no interval has been collated.
+	 */
+	public SaturationStatus getSaturation() {
+		return saturation;
+	}
 }
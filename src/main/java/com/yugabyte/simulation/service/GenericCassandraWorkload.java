@@ -8,6 +8,7 @@ import com.yugabyte.simulation.dao.InvocationResult;
 import com.yugabyte.simulation.dao.ParamValue;
 import com.yugabyte.simulation.dao.WorkloadDesc;
 import com.yugabyte.simulation.dao.WorkloadParamDesc;
+import com.yugabyte.simulation.services.RowCounting;
 import com.yugabyte.simulation.services.ServiceManager;
 import com.yugabyte.simulation.workload.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -237,11 +238,10 @@ public class GenericCassandraWorkload extends WorkloadSimulationBase implements
         CqlSession session = this.getCassandraClient();
         PreparedStatement ps = session.prepare(query);
         ResultSet rs = session.execute(ps.bind(id));
-        for (Row row : rs) {
+        RowCounting.forEachRow(rs, row -> {
             // process the row
-            int count = 0;
             System.out.println(row.getUuid("pkid")+","+row.getString("col1"));
-        }
+        });
     }
 
     private void runPointReadgeneric2(UUID id){
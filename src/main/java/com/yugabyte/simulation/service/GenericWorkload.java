@@ -1,7 +1,10 @@
 package com.yugabyte.simulation.service;
 
 import com.yugabyte.simulation.dao.*;
+import com.yugabyte.simulation.services.RowCounting;
 import com.yugabyte.simulation.services.ServiceManager;
+import com.yugabyte.simulation.services.Timer;
+import com.yugabyte.simulation.services.TimerService;
 import com.yugabyte.simulation.workload.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -121,7 +124,7 @@ public class GenericWorkload extends WorkloadSimulationBase implements WorkloadS
     private WorkloadDesc runningWorkload = new WorkloadDesc(
             GenericWorkload.WorkloadType.RUN_SIMULATION.toString(),
             "Simulation",
-            "Run a simulation of a reads from 3 tables (Latency on charts will show cumulative value for 3 selects and 3 inserts)",
+            "Run a simulation of a reads from 3 tables, optionally mixed with inserts. Reads and inserts are reported as separate operations (latency of each shows the cumulative value for 3 selects or 3 inserts)",
             new WorkloadParamDesc("Throughput (tps)", 1, 1000000, 500),
             new WorkloadParamDesc("Max Threads", 1, 500, 64),
             new WorkloadParamDesc("Include new Inserts (to 3 tables)", false)
@@ -218,25 +221,36 @@ public class GenericWorkload extends WorkloadSimulationBase implements WorkloadS
         Random random = ThreadLocalRandom.current();
         jdbcTemplate.setFetchSize(1000);
 
-        runInstanceType
-                .createInstance(serviceManager)
+        ThroughputWorkloadType.ThroughputWorkloadInstance instance = runInstanceType.createInstance(serviceManager);
+        int readsOperation = instance.registerOperation("point reads");
+        int insertsOperation = runInserts ? instance.registerOperation("inserts") : -1;
+        instance
                 .setMaxThreads(maxThreads)
                 .execute(tps, (customData, threadData) -> {
+                    Timer timer = TimerService.getCurrentTimer();
+                    // With inserts included, half of the operations are inserts
+                    if (runInserts && random.nextBoolean()) {
+                        timer.setOperation(insertsOperation);
+                        timer.setContext("inserts generic1-3", null);
+                        runInserts();
+                        return;
+                    }
                     UUID id = uuids.get(random.nextInt(uuids.size()));
+                    timer.setOperation(readsOperation);
+                    timer.setContext("point reads generic1-3", id);
                     runPointReadgeneric1(id);
+                    timer.timeSubPortion("read generic1");
                     runPointReadgeneric2(id);
+                    timer.timeSubPortion("read generic2");
                     runPointReadgeneric3(id);
-
-                    if(runInserts){
-                        runInserts();
-                    }
+                    timer.timeSubPortion("read generic3");
                 });
     }
 
     private void runPointReadgeneric1(UUID id){
         String query = POINT_SELECT_QUERY_GENERIC1;
         jdbcTemplate.query(query, new Object[] {id}, new int[] {Types.VARCHAR},
-                new RowCallbackHandler() {
+                RowCounting.counting(new RowCallbackHandler() {
                     @Override
                     public void processRow(ResultSet rs) throws SQLException {
 /*                                    System.out.printf("pkid=%s, col1='%s', col2=%s, col3=%s, col4=%s, col5=%s, col6=%s, col7=%s, col8=%s, col9=%s \n",
@@ -253,13 +267,13 @@ public class GenericWorkload extends WorkloadSimulationBase implements WorkloadS
 
                                     );*/
                     }
-                });
+                }));
     }
 
     private void runPointReadgeneric2(UUID id){
         String query = POINT_SELECT_QUERY_GENERIC2;
         jdbcTemplate.query(query, new Object[] {id}, new int[] {Types.VARCHAR},
-                new RowCallbackHandler() {
+                RowCounting.counting(new RowCallbackHandler() {
                     @Override
                     public void processRow(ResultSet rs) throws SQLException {
 /*                                    System.out.printf("pkid=%s, rawdatacol='%s' \n",
@@ -267,13 +281,13 @@ public class GenericWorkload extends WorkloadSimulationBase implements WorkloadS
                                             rs.getBytes("rawdatacol") != null?rs.getBytes("rawdatacol").length:null
                                     );*/
                     }
-                });
+                }));
     }
 
     private void runPointReadgeneric3(UUID id){
         String query = POINT_SELECT_QUERY_GENERIC3;
         jdbcTemplate.query(query, new Object[] {id}, new int[] {Types.VARCHAR},
-                new RowCallbackHandler() {
+                RowCounting.counting(new RowCallbackHandler() {
                     @Override
                     public void processRow(ResultSet rs) throws SQLException {
 /*                        System.out.printf("pkid=%s, col1='%s' , rawdatacol='%s' \n",
@@ -282,7 +296,7 @@ public class GenericWorkload extends WorkloadSimulationBase implements WorkloadS
                                 rs.getBytes("rawdatacol") != null?rs.getBytes("rawdatacol").length:null
                         );*/
                     }
-                });
+                }));
     }
 
     private void runInserts(){
@@ -16,6 +16,7 @@ import org.springframework.stereotype.Repository;
 
 import com.yugabyte.simulation.dao.WorkloadDesc;
 import com.yugabyte.simulation.dao.WorkloadParamDesc;
+import com.yugabyte.simulation.services.TimerService;
 import com.yugabyte.simulation.workload.Step;
 import com.yugabyte.simulation.workload.WorkloadSimulationBase;
 
@@ -163,6 +164,7 @@ public class NewFormatWorkload extends WorkloadSimulationBase implements Workloa
 	
 	private void runQueryNoTxn() {
 		int custNum = ThreadLocalRandom.current().nextInt(1000, 20_000_000);
+		TimerService.getCurrentTimer().setContext("QUERY", custNum);
 		jdbcTemplate.query(QUERY, new Object[] {custNum}, new int[] {Types.INTEGER},
 			new RowCallbackHandler() {
 				@Override
@@ -15,6 +15,7 @@ import com.yugabyte.simulation.dao.InvocationResult;
 import com.yugabyte.simulation.dao.ParamValue;
 import com.yugabyte.simulation.dao.WorkloadDesc;
 import com.yugabyte.simulation.dao.WorkloadParamDesc;
+import com.yugabyte.simulation.services.RowCounting;
 import com.yugabyte.simulation.services.ServiceManager;
 import com.yugabyte.simulation.workload.FixedStepsWorkloadType;
 import com.yugabyte.simulation.workload.FixedTargetWorkloadType;
@@ -180,7 +181,7 @@ public class SimpleSelectWorkload extends WorkloadSimulationBase implements Work
 			.execute(tps, (customData, threadData) -> {
 				String query = QUERY;
 				jdbcTemplate.query(query,
-					new RowCallbackHandler() {
+					RowCounting.counting(new RowCallbackHandler() {
 						@Override
 						public void processRow(ResultSet rs) throws SQLException {
 //							System.out.printf("id=%s, word='%s', active=%b\n", 
@@ -188,7 +189,7 @@ public class SimpleSelectWorkload extends WorkloadSimulationBase implements Work
 //									rs.getString("word_name"),
 //									rs.getInt("active_ind"));
 						}
-					});
+					}));
 			});
 	}
 }
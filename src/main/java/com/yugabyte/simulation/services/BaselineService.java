@@ -0,0 +1,375 @@
+package com.yugabyte.simulation.services;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.yugabyte.simulation.dao.Baseline;
+import com.yugabyte.simulation.dao.BaselineComparison;
+import com.yugabyte.simulation.workload.WorkloadTypeInstance;
+
+/**
+ * Saves completed runs as named baselines and compares later runs against them.
+ * <p>
+ * Confidence intervals come from a block bootstrap: the intervals of each run are grouped
+ * into at most {@value #MAX_BLOCKS} blocks of consecutive intervals, and the blocks of both
+ * runs are resampled with replacement {@value #BOOTSTRAP_SAMPLES} times. Resampling blocks
+ * rather than single intervals keeps the correlation between neighbouring intervals, and
+ * bounds the cost of a comparison however long the runs were. Percentiles are interpolated
+ * within the buckets of the full latency histograms the baselines hold, which are under 1%
+ * wide.
+ */
+@Service
+public class BaselineService {
+	public static final int BOOTSTRAP_SAMPLES = 1000;
+	public static final double CONFIDENCE = 0.95;
+	private static final int MAX_BLOCKS = 200;
+	// A fixed seed so comparing the same runs always gives the same verdict
+	private static final long BOOTSTRAP_SEED = 0x5eed;
+	private static final String FILE_EXTENSION = ".baseline.json";
+	private static final Pattern VALID_NAME = Pattern.compile("[A-Za-z0-9_.-]+");
+
+	private static final String[] METRIC_NAMES = { "opsPerSecond", "errorPercent", "p50Us", "p90Us", "p99Us" };
+	private static final double[] PERCENTILES = { 50.0, 90.0, 99.0 };
+	private static final int OPS_PER_SECOND = 0;
+	private static final int ERROR_PERCENT = 1;
+	private static final int FIRST_PERCENTILE = 2;
+
+	@Value("${simulation.baseline-dir:baselines}")
+	private String baselineDir;
+
+	@Value("${simulation.baseline-latency-tolerance-percent:10}")
+	private double latencyTolerancePercent;
+
+	@Value("${simulation.baseline-throughput-tolerance-percent:5}")
+	private double throughputTolerancePercent;
+
+	@Value("${simulation.baseline-error-tolerance-percent:0.1}")
+	private double errorTolerancePercent;
+
+	@Value("${simulation.baseline-warmup-seconds:0}")
+	private int warmupSeconds;
+
+	/**
+	 * Consecutive intervals of a run merged together
+	 */
+	static class Block {
+		long durationMs = 0;
+		long totalCount = 0;
+		long numFailed = 0;
+		// The counts of the histogram buckets from firstBucket up to the last non-empty one
+		int firstBucket = LatencyHistogram.BUCKET_COUNT;
+		long[] counts = new long[0];
+
+		/**
+		 * @param latencies Workspace for decoding the interval's latencies
+		 */
+		void add(Baseline.Interval interval, LatencyHistogram latencies) {
+			latencies.reset();
+			HistogramLogFormat.decodeInto(interval.getEncodedLatencies(), latencies);
+			durationMs += interval.getDurationMs();
+			totalCount += latencies.getTotalCount();
+			numFailed += interval.getNumFailed();
+			if (latencies.isEmpty()) {
+				return;
+			}
+			int intervalFirst = LatencyHistogram.bucketIndex(latencies.getMin());
+			int intervalEnd = LatencyHistogram.bucketIndex(latencies.getMax()) + 1;
+			int first = Math.min(firstBucket, intervalFirst);
+			int end = Math.max(firstBucket + counts.length, intervalEnd);
+			if (first != firstBucket || end != firstBucket + counts.length) {
+				long[] newCounts = new long[end - first];
+				System.arraycopy(counts, 0, newCounts, firstBucket - first, counts.length);
+				counts = newCounts;
+				firstBucket = first;
+			}
+			for (int i = intervalFirst; i < intervalEnd; i++) {
+				counts[i - firstBucket] += latencies.getCountAt(i);
+			}
+		}
+	}
+
+	private static void checkName(String name) {
+		if (name == null || !VALID_NAME.matcher(name).matches()) {
+			throw new IllegalArgumentException("Invalid baseline name '" + name + "', only letters, digits, '_', '.' and '-' are allowed");
+		}
+	}
+
+	private Path getPath(String name) {
+		checkName(name);
+		return Paths.get(baselineDir, name + FILE_EXTENSION);
+	}
+
+	/**
+	 * Capture the intervals of a completed workload
+	 */
+	public Baseline.Run captureRun(WorkloadTypeInstance workload) {
+		if (!workload.isComplete() && !workload.isTerminated()) {
+			throw new IllegalArgumentException("Workload " + workload.getWorkloadId() + " has not completed");
+		}
+		return new Baseline.Run(workload.getWorkloadId(), workload.getDescription(), workload.getStartTime(),
+				workload.getRunHistograms().getIntervals());
+	}
+
+	/**
+	 * Save the completed workloads as a baseline, replacing any baseline of the same name.
+	 * @return The path of the baseline file
+	 */
+	public String save(String name, List<WorkloadTypeInstance> workloads) {
+		Path path = getPath(name);
+		List<Baseline.Run> runs = new ArrayList<>();
+		for (WorkloadTypeInstance workload : workloads) {
+			runs.add(captureRun(workload));
+		}
+		Baseline baseline = new Baseline(name, System.currentTimeMillis(), runs);
+		try {
+			Files.createDirectories(path.toAbsolutePath().getParent());
+			Files.write(path, baseline.toJson().getBytes(StandardCharsets.UTF_8));
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Could not write baseline " + path + ": " + e.getMessage(), e);
+		}
+		System.out.printf("Saved %d workload(s) as baseline %s in %s\n", runs.size(), name, path);
+		return path.toString();
+	}
+
+	public Baseline load(String name) {
+		Path path = getPath(name);
+		if (!Files.exists(path)) {
+			throw new IllegalArgumentException("Unknown baseline " + name);
+		}
+		try {
+			return Baseline.fromJson(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Could not read baseline " + path + ": " + e.getMessage(), e);
+		}
+	}
+
+	public List<String> getBaselineNames() {
+		List<String> names = new ArrayList<>();
+		Path directory = Paths.get(baselineDir);
+		if (!Files.isDirectory(directory)) {
+			return names;
+		}
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_EXTENSION)) {
+			for (Path file : files) {
+				String fileName = file.getFileName().toString();
+				names.add(fileName.substring(0, fileName.length() - FILE_EXTENSION.length()));
+			}
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Could not list baselines in " + directory + ": " + e.getMessage(), e);
+		}
+		Collections.sort(names);
+		return names;
+	}
+
+	/**
+	 * Compare completed workloads against a baseline, the first workload against the first
+	 * run of the baseline and so on. Tolerances which are null use the configured defaults.
+	 * @param latencyTolerancePercent The largest increase in a latency percentile allowed
+	 * @param throughputTolerancePercent The largest drop in throughput allowed
+	 * @param errorTolerancePercent The largest increase in the error percentage allowed, in percentage points
+	 * @param warmupSeconds Intervals starting this soon after each workload started are ignored
+	 */
+	public BaselineComparison compare(String name, List<WorkloadTypeInstance> workloads, Double latencyTolerancePercent,
+			Double throughputTolerancePercent, Double errorTolerancePercent, Integer warmupSeconds) {
+		Baseline baseline = load(name);
+		double[] tolerances = new double[METRIC_NAMES.length];
+		tolerances[OPS_PER_SECOND] = throughputTolerancePercent != null ? throughputTolerancePercent : this.throughputTolerancePercent;
+		tolerances[ERROR_PERCENT] = errorTolerancePercent != null ? errorTolerancePercent : this.errorTolerancePercent;
+		for (int i = FIRST_PERCENTILE; i < tolerances.length; i++) {
+			tolerances[i] = latencyTolerancePercent != null ? latencyTolerancePercent : this.latencyTolerancePercent;
+		}
+		long warmupMs = 1000L * (warmupSeconds != null ? warmupSeconds : this.warmupSeconds);
+
+		List<BaselineComparison.Run> runs = new ArrayList<>();
+		List<String> problems = new ArrayList<>();
+		if (workloads.size() != baseline.getRuns().size()) {
+			problems.add(String.format("The baseline has %d workload(s) but %d were compared", baseline.getRuns().size(), workloads.size()));
+		}
+		Random random = new Random(BOOTSTRAP_SEED);
+		for (int i = 0; i < Math.min(workloads.size(), baseline.getRuns().size()); i++) {
+			Baseline.Run baselineRun = baseline.getRuns().get(i);
+			Baseline.Run currentRun = captureRun(workloads.get(i));
+			List<Block> baselineBlocks = toBlocks(baselineRun, warmupMs);
+			List<Block> currentBlocks = toBlocks(currentRun, warmupMs);
+			List<BaselineComparison.Metric> metrics = Collections.emptyList();
+			if (getTotalCount(baselineBlocks) == 0 || getTotalCount(currentBlocks) == 0) {
+				problems.add("Workload " + currentRun.getWorkloadId() + " or baseline workload "
+						+ baselineRun.getWorkloadId() + " has no operations to compare");
+			}
+			else {
+				metrics = compareRuns(baselineBlocks, currentBlocks, tolerances, random);
+			}
+			runs.add(new BaselineComparison.Run(baselineRun.getWorkloadId(), currentRun.getWorkloadId(),
+					currentRun.getDescription(), countIntervals(baselineRun, warmupMs), countIntervals(currentRun, warmupMs), metrics));
+		}
+		return new BaselineComparison(name, CONFIDENCE, BOOTSTRAP_SAMPLES, runs,
+				problems.isEmpty() ? null : String.join(", ", problems));
+	}
+
+	private static boolean isAfterWarmup(Baseline.Run run, Baseline.Interval interval, long warmupMs) {
+		return interval.getStartTimeMs() >= run.getStartTime() + warmupMs;
+	}
+
+	private static int countIntervals(Baseline.Run run, long warmupMs) {
+		int count = 0;
+		for (Baseline.Interval interval : run.getIntervals()) {
+			if (isAfterWarmup(run, interval, warmupMs)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	static List<Block> toBlocks(Baseline.Run run, long warmupMs) {
+		List<Baseline.Interval> intervals = new ArrayList<>();
+		for (Baseline.Interval interval : run.getIntervals()) {
+			if (isAfterWarmup(run, interval, warmupMs)) {
+				intervals.add(interval);
+			}
+		}
+		int blockSize = Math.max(1, (intervals.size() + MAX_BLOCKS - 1) / MAX_BLOCKS);
+		List<Block> blocks = new ArrayList<>();
+		LatencyHistogram latencies = new LatencyHistogram();
+		for (int i = 0; i < intervals.size(); i += blockSize) {
+			Block block = new Block();
+			for (int j = i; j < Math.min(i + blockSize, intervals.size()); j++) {
+				block.add(intervals.get(j), latencies);
+			}
+			blocks.add(block);
+		}
+		return blocks;
+	}
+
+	private static long getTotalCount(List<Block> blocks) {
+		long total = 0;
+		for (Block block : blocks) {
+			total += block.totalCount;
+		}
+		return total;
+	}
+
+	/**
+	 * The metrics of the blocks at the passed indexes, in the order of {@link #METRIC_NAMES}
+	 * @param merged Workspace for the merged latency buckets
+	 */
+	private static double[] getMetrics(List<Block> blocks, int[] indexes, long[] merged, double[] metrics) {
+		Arrays.fill(merged, 0);
+		long durationMs = 0;
+		long total = 0;
+		long failed = 0;
+		for (int index : indexes) {
+			Block block = blocks.get(index);
+			durationMs += block.durationMs;
+			total += block.totalCount;
+			failed += block.numFailed;
+			for (int i = 0; i < block.counts.length; i++) {
+				merged[block.firstBucket + i] += block.counts[i];
+			}
+		}
+		metrics[OPS_PER_SECOND] = durationMs == 0 ? 0 : total * 1000.0 / durationMs;
+		metrics[ERROR_PERCENT] = total == 0 ? 0 : failed * 100.0 / total;
+		// Walk the buckets once for all the percentiles, interpolating within each bucket
+		int percentile = 0;
+		long cumulative = 0;
+		for (int bucket = 0; bucket < merged.length && percentile < PERCENTILES.length; bucket++) {
+			long count = merged[bucket];
+			while (count > 0 && percentile < PERCENTILES.length) {
+				double target = Math.max(1, PERCENTILES[percentile] / 100.0 * total);
+				if (cumulative + count < target) {
+					break;
+				}
+				long low = LatencyHistogram.lowestValueAt(bucket);
+				long high = LatencyHistogram.lowestValueAt(bucket + 1);
+				metrics[FIRST_PERCENTILE + percentile] = low + (high - low) * (target - cumulative) / count;
+				percentile++;
+			}
+			cumulative += count;
+		}
+		for (; percentile < PERCENTILES.length; percentile++) {
+			metrics[FIRST_PERCENTILE + percentile] = 0;
+		}
+		return metrics;
+	}
+
+	private static double getChange(int metric, double baseline, double current) {
+		if (metric == ERROR_PERCENT) {
+			return current - baseline;
+		}
+		return baseline == 0 ? 0 : (current - baseline) * 100.0 / baseline;
+	}
+
+	private static int[] resample(int size, Random random) {
+		int[] indexes = new int[size];
+		for (int i = 0; i < size; i++) {
+			indexes[i] = random.nextInt(size);
+		}
+		return indexes;
+	}
+
+	/**
+	 * Compare the blocks of two runs, in the order of {@link #METRIC_NAMES}
+	 * @param tolerances The change in each metric allowed before it is a regression
+	 */
+	static List<BaselineComparison.Metric> compareRuns(List<Block> baselineBlocks, List<Block> currentBlocks,
+			double[] tolerances, Random random) {
+		long[] merged = new long[LatencyHistogram.BUCKET_COUNT];
+		int[] allBaseline = new int[baselineBlocks.size()];
+		for (int i = 0; i < allBaseline.length; i++) {
+			allBaseline[i] = i;
+		}
+		int[] allCurrent = new int[currentBlocks.size()];
+		for (int i = 0; i < allCurrent.length; i++) {
+			allCurrent[i] = i;
+		}
+		double[] baseline = getMetrics(baselineBlocks, allBaseline, merged, new double[METRIC_NAMES.length]);
+		double[] current = getMetrics(currentBlocks, allCurrent, merged, new double[METRIC_NAMES.length]);
+
+		double[][] changes = new double[METRIC_NAMES.length][BOOTSTRAP_SAMPLES];
+		double[] baselineSample = new double[METRIC_NAMES.length];
+		double[] currentSample = new double[METRIC_NAMES.length];
+		for (int sample = 0; sample < BOOTSTRAP_SAMPLES; sample++) {
+			getMetrics(baselineBlocks, resample(baselineBlocks.size(), random), merged, baselineSample);
+			getMetrics(currentBlocks, resample(currentBlocks.size(), random), merged, currentSample);
+			for (int metric = 0; metric < METRIC_NAMES.length; metric++) {
+				changes[metric][sample] = getChange(metric, baselineSample[metric], currentSample[metric]);
+			}
+		}
+
+		List<BaselineComparison.Metric> metrics = new ArrayList<>();
+		int lowIndex = (int)Math.floor(BOOTSTRAP_SAMPLES * (1 - CONFIDENCE) / 2);
+		int highIndex = BOOTSTRAP_SAMPLES - 1 - lowIndex;
+		for (int metric = 0; metric < METRIC_NAMES.length; metric++) {
+			Arrays.sort(changes[metric]);
+			double change = getChange(metric, baseline[metric], current[metric]);
+			double low = changes[metric][lowIndex];
+			double high = changes[metric][highIndex];
+			boolean regression;
+			if (metric == OPS_PER_SECOND) {
+				// Lower throughput is worse
+				regression = change < -tolerances[metric] && high < 0;
+			}
+			else {
+				regression = change > tolerances[metric] && low > 0;
+			}
+			metrics.add(new BaselineComparison.Metric(METRIC_NAMES[metric], baseline[metric], current[metric],
+					change, low, high, tolerances[metric], regression));
+		}
+		return metrics;
+	}
+}
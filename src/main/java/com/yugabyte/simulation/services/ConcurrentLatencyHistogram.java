@@ -0,0 +1,71 @@
+package com.yugabyte.simulation.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link LatencyHistogram} which multiple threads can record into concurrently
+ * without locking. Every update is two atomic adds (the bucket and the running total),
+ * min and max only need a compare-and-set when a new extreme is seen. The total count is
+ * not maintained while recording, it is summed from the buckets when read.
+ * <p>
+ * Reading is not synchronized with recording: {@link #addTo(LatencyHistogram)} and
+ * {@link #reset()} must only be called once writers have moved on, typically by
+ * double buffering behind a {@link WriterReaderPhaser}.
+ */
+public class ConcurrentLatencyHistogram {
+	private final AtomicLongArray counts;
+	private final AtomicLong totalValue = new AtomicLong();
+	private final AtomicLong minValue = new AtomicLong(Long.MAX_VALUE);
+	private final AtomicLong maxValue = new AtomicLong(0);
+
+	public ConcurrentLatencyHistogram() {
+		this.counts = new AtomicLongArray(LatencyHistogram.BUCKET_COUNT);
+	}
+
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		counts.getAndIncrement(LatencyHistogram.bucketIndex(value));
+		totalValue.getAndAdd(value);
+		long current;
+		while (value < (current = minValue.get()) && !minValue.compareAndSet(current, value));
+		while (value > (current = maxValue.get()) && !maxValue.compareAndSet(current, value));
+	}
+
+	public boolean isEmpty() {
+		// Every recorded value lowers the minimum from its initial value
+		return minValue.get() == Long.MAX_VALUE;
+	}
+
+	/**
+	 * Merge the contents of this histogram into the passed one.
+	 */
+	public void addTo(LatencyHistogram target) {
+		if (isEmpty()) {
+			return;
+		}
+		long totalCount = 0;
+		for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+			long count = counts.get(i);
+			if (count != 0) {
+				target.addCountAt(i, count);
+				totalCount += count;
+			}
+		}
+		target.addTotals(totalCount, totalValue.get(), minValue.get(), maxValue.get());
+	}
+
+	public void reset() {
+		if (isEmpty()) {
+			return;
+		}
+		for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+			counts.set(i, 0);
+		}
+		totalValue.set(0);
+		minValue.set(Long.MAX_VALUE);
+		maxValue.set(0);
+	}
+}
@@ -0,0 +1,48 @@
+package com.yugabyte.simulation.services;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.yugabyte.simulation.dao.ConnectionPoolStats;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * Samples the state of the Hikari connection pool for each results interval.
+ */
+@Service
+public class ConnectionPoolMonitor {
+
+	@Autowired(required = false)
+	private DataSource dataSource;
+
+	private HikariPoolMXBean getPool() {
+		if (dataSource == null) {
+			return null;
+		}
+		try {
+			if (dataSource.isWrapperFor(HikariDataSource.class)) {
+				return dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+			}
+		}
+		catch (SQLException e) {
+		}
+		return null;
+	}
+
+	/**
+	 * The current state of the pool, or null if there is no Hikari pool or it has not started.
+	 */
+	public ConnectionPoolStats sample() {
+		HikariPoolMXBean pool = getPool();
+		if (pool == null) {
+			return null;
+		}
+		return new ConnectionPoolStats(pool.getActiveConnections(), pool.getIdleConnections(),
+				pool.getThreadsAwaitingConnection(), pool.getTotalConnections());
+	}
+}
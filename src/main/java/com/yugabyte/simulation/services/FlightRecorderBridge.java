@@ -0,0 +1,32 @@
+package com.yugabyte.simulation.services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The uses of the jdk.jfr API. They are implemented by {@code FlightRecorderSupport}, which
+ * is only compiled when building on Java 11 or later and is loaded by name, so the rest of
+ * the simulator compiles and runs on Java 8 without jdk.jfr. Events and recordings are
+ * passed around as Objects for the same reason.
+ */
+interface FlightRecorderBridge {
+	boolean isAvailable();
+
+	boolean isOperationRecorded();
+
+	Object beginOperation();
+
+	/**
+	 * End the timing of an operation's event.
+	 * @return whether the event should be committed, such as being over the threshold
+	 */
+	boolean endOperation(Object event);
+
+	void commitOperation(Object event, String workloadId, String operation, String status);
+
+	Object startRecording(String name, String settings, long thresholdMs, long maxAgeSeconds);
+
+	void dumpRecording(Object recording, Path path) throws IOException;
+
+	void closeRecording(Object recording);
+}
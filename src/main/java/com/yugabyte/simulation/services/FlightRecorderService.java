@@ -0,0 +1,116 @@
+package com.yugabyte.simulation.services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Starts, dumps and stops a Flight Recorder recording on demand. The recording uses one of
+ * the JDK's settings, default or profile, with the operations of the workloads added as
+ * {@link OperationEvent}s. Recordings are written to the logging directory if logging is 
+ * enabled, otherwise to the temporary directory.
+ * <p>
+ * The jdk.jfr API is only used through {@link FlightRecorderBridge}, so this service still
+ * loads on Java 8 runtimes without Flight Recorder, and builds on Java 8 JDKs.
+ */
+@Service
+public class FlightRecorderService {
+	private static final String RECORDING_NAME = "Workload Simulator";
+	private static final String SUPPORT_CLASS = "com.yugabyte.simulation.services.FlightRecorderSupport";
+	private static final FlightRecorderBridge BRIDGE = loadBridge();
+
+	@Autowired
+	private LoggingFileManager loggingManager;
+
+	// A jdk.jfr.Recording, held as an Object so this class loads without jdk.jfr
+	private Object recording = null;
+
+	private static FlightRecorderBridge loadBridge() {
+		try {
+			Class.forName("jdk.jfr.Event");
+			FlightRecorderBridge bridge = (FlightRecorderBridge)Class.forName(SUPPORT_CLASS).getDeclaredConstructor().newInstance();
+			return bridge.isAvailable() ? bridge : null;
+		}
+		catch (ReflectiveOperationException | LinkageError e) {
+			// No jdk.jfr in this JVM, or the simulator was built on Java 8 without it
+			return null;
+		}
+	}
+
+	/**
+	 * Whether this JVM supports Flight Recorder, which needs Java 11 or 8u262 and later, and
+	 * the simulator was built with it
+	 */
+	public static boolean isAvailable() {
+		return BRIDGE != null;
+	}
+
+	/**
+	 * The jdk.jfr API, or null if it is not available
+	 */
+	static FlightRecorderBridge getBridge() {
+		return BRIDGE;
+	}
+
+	private Path getRecordingPath() {
+		String directory = loggingManager.isDoLogging() ? loggingManager.getLoggingPath() : System.getProperty("java.io.tmpdir");
+		String fileName = "simulation_" + new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date()) + ".jfr";
+		return Paths.get(directory, fileName);
+	}
+
+	/**
+	 * Start a recording.
+	 * @param settings The JDK settings to use, default or profile
+	 * @param thresholdMs Operations taking less than this are not recorded
+	 * @param maxAgeSeconds How much of the recording to keep, or 0 to keep all of it
+	 */
+	public synchronized void start(String settings, long thresholdMs, long maxAgeSeconds) {
+		if (!isAvailable()) {
+			throw new IllegalStateException("Flight Recorder is not available in this JVM");
+		}
+		if (recording != null) {
+			throw new IllegalStateException("A recording is already running, stop it first");
+		}
+		recording = BRIDGE.startRecording(RECORDING_NAME, settings, thresholdMs, maxAgeSeconds);
+		System.out.printf("Started Flight Recorder with %s settings, recording operations over %dms\n", settings, thresholdMs);
+	}
+
+	/**
+	 * Write what has been recorded so far to a file, leaving the recording running.
+	 * @return The path of the file
+	 */
+	public synchronized String dump() {
+		if (recording == null) {
+			throw new IllegalStateException("No recording is running");
+		}
+		Path path = getRecordingPath();
+		try {
+			BRIDGE.dumpRecording(recording, path);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Could not write the recording to " + path + ": " + e.getMessage(), e);
+		}
+		return path.toString();
+	}
+
+	/**
+	 * Stop the recording and write it to a file.
+	 * @return The path of the file
+	 */
+	public synchronized String stop() {
+		String path = dump();
+		BRIDGE.closeRecording(recording);
+		recording = null;
+		System.out.printf("Stopped Flight Recorder, recording written to %s\n", path);
+		return path;
+	}
+
+	public synchronized boolean isRecording() {
+		return recording != null;
+	}
+}
@@ -0,0 +1,79 @@
+package com.yugabyte.simulation.services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+
+/**
+ * Every use of the jdk.jfr API, which Java 8 runtimes before 8u262 do not have. Only
+ * compiled when building on Java 11 or later, see the jfr profile of the pom, and only
+ * reached through {@link FlightRecorderBridge}.
+ */
+final class FlightRecorderSupport implements FlightRecorderBridge {
+	@Override
+	public boolean isAvailable() {
+		return FlightRecorder.isAvailable();
+	}
+
+	@Override
+	public boolean isOperationRecorded() {
+		return OperationEvent.isRecorded();
+	}
+
+	@Override
+	public Object beginOperation() {
+		OperationEvent event = new OperationEvent();
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public boolean endOperation(Object event) {
+		OperationEvent operationEvent = (OperationEvent)event;
+		operationEvent.end();
+		return operationEvent.shouldCommit();
+	}
+
+	@Override
+	public void commitOperation(Object event, String workloadId, String operation, String status) {
+		OperationEvent operationEvent = (OperationEvent)event;
+		operationEvent.workloadId = workloadId;
+		operationEvent.operation = operation;
+		operationEvent.status = status;
+		operationEvent.commit();
+	}
+
+	@Override
+	public Object startRecording(String name, String settings, long thresholdMs, long maxAgeSeconds) {
+		Configuration configuration;
+		try {
+			configuration = Configuration.getConfiguration(settings);
+		}
+		catch (IOException | ParseException e) {
+			throw new IllegalArgumentException("Unknown recording settings " + settings, e);
+		}
+		Recording recording = new Recording(configuration);
+		recording.setName(name);
+		recording.enable(OperationEvent.class).withThreshold(Duration.ofMillis(Math.max(0, thresholdMs)));
+		if (maxAgeSeconds > 0) {
+			recording.setMaxAge(Duration.ofSeconds(maxAgeSeconds));
+		}
+		recording.start();
+		return recording;
+	}
+
+	@Override
+	public void dumpRecording(Object recording, Path path) throws IOException {
+		((Recording)recording).dump(path);
+	}
+
+	@Override
+	public void closeRecording(Object recording) {
+		((Recording)recording).close();
+	}
+}
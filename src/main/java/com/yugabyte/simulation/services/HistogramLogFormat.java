@@ -0,0 +1,199 @@
+package com.yugabyte.simulation.services;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The format of the interval histogram logs (.hlog files), which hold the full latency
+ * histogram of every interval of a workload so percentiles can be recomputed afterwards for
+ * any window, see {@link com.yugabyte.simulation.tools.HistogramLogTool}.
+ * <p>
+ * Each interval is one line: <code>startTimeMs,durationMs,numFailed,histogram</code>. The
+ * histogram is encoded as a version byte, the min, max and total value and then the index
+ * delta and count of each non-empty bucket, all as variable length integers. This is then
+ * deflated and Base64 encoded, typically to a few hundred bytes. Lines starting with '#'
+ * are comments.
+ */
+public class HistogramLogFormat {
+	public static final String FILE_EXTENSION = ".hlog";
+	public static final String HEADER = "#Interval histogram log, latencies in microseconds\n"
+			+ "#Start Time,Duration Ms,Num Failed,Encoded Histogram\n";
+	private static final byte ENCODING_VERSION = 1;
+
+	/**
+	 * An interval read back from a log. The histogram is only decoded when asked for, so
+	 * long logs can be held in memory cheaply.
+	 */
+	public static class Interval {
+		private final long startTimeMs;
+		private final long durationMs;
+		private final long numFailed;
+		private final String encodedLatencies;
+
+		public Interval(long startTimeMs, long durationMs, long numFailed, String encodedLatencies) {
+			this.startTimeMs = startTimeMs;
+			this.durationMs = durationMs;
+			this.numFailed = numFailed;
+			this.encodedLatencies = encodedLatencies;
+		}
+
+		public long getStartTimeMs() {
+			return startTimeMs;
+		}
+
+		public long getDurationMs() {
+			return durationMs;
+		}
+
+		public long getNumFailed() {
+			return numFailed;
+		}
+
+		/**
+		 * Decode the latencies of the interval and add them to the passed histogram.
+		 */
+		public void addLatenciesTo(LatencyHistogram histogram) {
+			decodeInto(Base64.getDecoder().decode(encodedLatencies), histogram);
+		}
+	}
+
+	private HistogramLogFormat() {
+	}
+
+	public static String formatLine(long startTimeMs, long durationMs, long numFailed, LatencyHistogram latencies) {
+		return startTimeMs + "," + durationMs + "," + numFailed + ","
+				+ Base64.getEncoder().encodeToString(encode(latencies)) + "\n";
+	}
+
+	/**
+	 * Parse a line of the log, returning null for comments and blank lines.
+	 */
+	public static Interval parseLine(String line) {
+		line = line.trim();
+		if (line.isEmpty() || line.startsWith("#")) {
+			return null;
+		}
+		String[] fields = line.split(",");
+		if (fields.length != 4) {
+			throw new IllegalArgumentException("Invalid histogram log line: " + line);
+		}
+		return new Interval(Long.parseLong(fields[0]), Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[3]);
+	}
+
+	public static byte[] encode(LatencyHistogram histogram) {
+		int nonEmptyBuckets = 0;
+		for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+			if (histogram.getCountAt(i) != 0) {
+				nonEmptyBuckets++;
+			}
+		}
+		// Worst case of 10 bytes per value
+		ByteBuffer buffer = ByteBuffer.allocate(1 + 10 * (4 + 2 * nonEmptyBuckets));
+		buffer.put(ENCODING_VERSION);
+		putVarLong(buffer, histogram.getMin());
+		putVarLong(buffer, histogram.getMax());
+		putVarLong(buffer, histogram.getTotalValue());
+		putVarLong(buffer, nonEmptyBuckets);
+		int lastIndex = 0;
+		for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+			long count = histogram.getCountAt(i);
+			if (count != 0) {
+				putVarLong(buffer, i - lastIndex);
+				putVarLong(buffer, count);
+				lastIndex = i;
+			}
+		}
+
+		Deflater deflater = new Deflater();
+		try {
+			deflater.setInput(buffer.array(), 0, buffer.position());
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(buffer.position());
+			byte[] chunk = new byte[1024];
+			while (!deflater.finished()) {
+				out.write(chunk, 0, deflater.deflate(chunk));
+			}
+			return out.toByteArray();
+		}
+		finally {
+			deflater.end();
+		}
+	}
+
+	public static LatencyHistogram decode(byte[] data) {
+		LatencyHistogram histogram = new LatencyHistogram();
+		decodeInto(data, histogram);
+		return histogram;
+	}
+
+	/**
+	 * Decode a histogram, adding its contents to the passed one.
+	 */
+	public static void decodeInto(byte[] data, LatencyHistogram histogram) {
+		Inflater inflater = new Inflater();
+		ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+		try {
+			inflater.setInput(data);
+			byte[] chunk = new byte[1024];
+			while (!inflater.finished()) {
+				int length = inflater.inflate(chunk);
+				if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new IllegalArgumentException("Truncated histogram");
+				}
+				out.write(chunk, 0, length);
+			}
+		}
+		catch (DataFormatException e) {
+			throw new IllegalArgumentException("Invalid histogram encoding", e);
+		}
+		finally {
+			inflater.end();
+		}
+
+		ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+		byte version = buffer.get();
+		if (version != ENCODING_VERSION) {
+			throw new IllegalArgumentException("Unsupported histogram encoding version " + version);
+		}
+		long min = getVarLong(buffer);
+		long max = getVarLong(buffer);
+		long totalValue = getVarLong(buffer);
+		long nonEmptyBuckets = getVarLong(buffer);
+		long totalCount = 0;
+		int index = 0;
+		for (long i = 0; i < nonEmptyBuckets; i++) {
+			index += (int)getVarLong(buffer);
+			long count = getVarLong(buffer);
+			histogram.addCountAt(index, count);
+			totalCount += count;
+		}
+		if (totalCount > 0) {
+			// An empty histogram is encoded with a min of 0, which must not be merged
+			histogram.addTotals(totalCount, totalValue, min, max);
+		}
+	}
+
+	private static void putVarLong(ByteBuffer buffer, long value) {
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte)((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte)value);
+	}
+
+	private static long getVarLong(ByteBuffer buffer) {
+		long result = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = buffer.get();
+			result |= (long)(b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new IllegalArgumentException("Invalid variable length integer in histogram");
+	}
+}
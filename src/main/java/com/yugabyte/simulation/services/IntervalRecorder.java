@@ -0,0 +1,320 @@
+package com.yugabyte.simulation.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records the timings of one workload so that any number of worker threads can record
+ * concurrently without locking, while the results collator periodically takes a
+ * consistent snapshot of the interval.
+ * <p>
+ * Recording is spread over a number of stripes, selected by thread id, so threads rarely
+ * touch the same cache lines. Each stripe is double buffered behind its own
+ * {@link WriterReaderPhaser}: writers only pay for a couple of uncontended atomic adds,
+ * and when the collator swaps the buffers it waits for writers still in the old buffer to
+ * finish, so every sample lands in exactly one interval.
+ * <p>
+ * Named phases of an operation (see {@link Timer#timeSubPortion(String)}) are recorded into
+ * their own histograms. The number of distinct phases is bounded, once {@link #MAX_PHASES}
+ * are in use any further names are counted under {@link #OTHER_PHASE}. Failures can similarly
+ * be counted by a key describing the type of error, bounded by {@link #MAX_ERROR_TYPES}.
+ */
+public class IntervalRecorder {
+	private static final int MAX_STRIPES = 32;
+	private static final int STRIPE_COUNT = Math.min(MAX_STRIPES, 
+			Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1);
+	public static final int MAX_PHASES = 16;
+	public static final String OTHER_PHASE = "other";
+	public static final int MAX_ERROR_TYPES = 32;
+	public static final String OTHER_ERROR = "other";
+
+	/**
+	 * Maps names onto a bounded set of indexes. Once all but the last index are in use, any
+	 * further names map onto the last index, which is named after the overflow name.
+	 * Overflowed names are remembered too, up to a limit, so recording them again does not
+	 * lock. Past the limit any name not already known overflows without locking.
+	 */
+	private static class NameRegistry {
+		private static final int MAX_REMEMBERED_NAMES = 1024;
+		private final Map<String, Integer> indexes = new ConcurrentHashMap<>();
+		private final String[] names;
+		private final String overflowName;
+		// The number of indexes in use, the overflow index not included
+		private int used = 0;
+
+		NameRegistry(int size, String overflowName) {
+			this.names = new String[size];
+			this.overflowName = overflowName;
+		}
+
+		int getIndex(String name) {
+			Integer index = indexes.get(name);
+			if (index != null) {
+				return index;
+			}
+			if (indexes.size() >= MAX_REMEMBERED_NAMES) {
+				return names.length - 1;
+			}
+			return register(name);
+		}
+
+		private synchronized int register(String name) {
+			Integer index = indexes.get(name);
+			if (index == null) {
+				if (used < names.length - 1) {
+					index = used++;
+					names[index] = name;
+				}
+				else {
+					// The last slot is reserved for everything which does not fit
+					index = names.length - 1;
+					names[index] = overflowName;
+				}
+				indexes.put(name, index);
+			}
+			return index;
+		}
+
+		String getName(int index) {
+			return names[index];
+		}
+	}
+
+	private static class StripeCounts {
+		final ConcurrentLatencyHistogram latencies = new ConcurrentLatencyHistogram();
+		final ConcurrentLatencyHistogram responseTimes = new ConcurrentLatencyHistogram();
+		final AtomicLong failures = new AtomicLong();
+		final AtomicLong lateStarts = new AtomicLong();
+		// Created on first use, most workloads never time any phases
+		final AtomicReferenceArray<ConcurrentLatencyHistogram> phases = new AtomicReferenceArray<>(MAX_PHASES);
+		final AtomicLongArray errors = new AtomicLongArray(MAX_ERROR_TYPES);
+		// Also created on first use, only operations which get connections from the pool record these
+		final AtomicReference<ConcurrentLatencyHistogram> poolWaits = new AtomicReference<>();
+		final AtomicReference<ConcurrentLatencyHistogram> executionTimes = new AtomicReference<>();
+		// Only recorded if the cost of operations to the client is being measured
+		final AtomicLong costOps = new AtomicLong();
+		final AtomicLong cpuTimeNs = new AtomicLong();
+		final AtomicLong allocatedBytes = new AtomicLong();
+		// Only recorded by operations which report the rows they process
+		final AtomicReference<ConcurrentLatencyHistogram> rowsPerOp = new AtomicReference<>();
+		final AtomicLong bytes = new AtomicLong();
+
+		static ConcurrentLatencyHistogram getOrCreate(AtomicReference<ConcurrentLatencyHistogram> reference) {
+			ConcurrentLatencyHistogram histogram = reference.get();
+			if (histogram == null) {
+				reference.compareAndSet(null, new ConcurrentLatencyHistogram());
+				histogram = reference.get();
+			}
+			return histogram;
+		}
+
+		static void drainHistogram(AtomicReference<ConcurrentLatencyHistogram> reference, LatencyHistogram target) {
+			ConcurrentLatencyHistogram histogram = reference.get();
+			if (histogram != null && !histogram.isEmpty()) {
+				histogram.addTo(target);
+				histogram.reset();
+			}
+		}
+
+		ConcurrentLatencyHistogram getPhase(int index) {
+			ConcurrentLatencyHistogram phase = phases.get(index);
+			if (phase == null) {
+				phases.compareAndSet(index, null, new ConcurrentLatencyHistogram());
+				phase = phases.get(index);
+			}
+			return phase;
+		}
+
+		void drainTo(TimingSnapshot snapshot, NameRegistry phaseNames, NameRegistry errorNames) {
+			for (int i = 0; i < MAX_PHASES; i++) {
+				ConcurrentLatencyHistogram phase = phases.get(i);
+				if (phase != null && !phase.isEmpty()) {
+					phase.addTo(snapshot.getPhase(phaseNames.getName(i)));
+					phase.reset();
+				}
+			}
+			for (int i = 0; i < MAX_ERROR_TYPES; i++) {
+				long count = errors.get(i);
+				if (count != 0) {
+					snapshot.addErrors(errorNames.getName(i), count);
+					errors.set(i, 0);
+				}
+			}
+			drainHistogram(poolWaits, snapshot.getPoolWaits());
+			drainHistogram(executionTimes, snapshot.getExecutionTimes());
+			drainHistogram(rowsPerOp, snapshot.getRowsPerOp());
+			if (bytes.get() != 0) {
+				snapshot.addBytes(bytes.get());
+				bytes.set(0);
+			}
+			latencies.addTo(snapshot.getLatencies());
+			responseTimes.addTo(snapshot.getResponseTimes());
+			snapshot.addFailures(failures.get());
+			snapshot.addLateStarts(lateStarts.get());
+			if (costOps.get() != 0) {
+				snapshot.addClientCost(costOps.get(), cpuTimeNs.get() / 1000, allocatedBytes.get());
+				costOps.set(0);
+				cpuTimeNs.set(0);
+				allocatedBytes.set(0);
+			}
+			latencies.reset();
+			responseTimes.reset();
+			failures.set(0);
+			lateStarts.set(0);
+		}
+	}
+
+	private static class Stripe {
+		final WriterReaderPhaser phaser = new WriterReaderPhaser();
+		volatile StripeCounts active = new StripeCounts();
+		StripeCounts inactive = new StripeCounts();
+	}
+
+	private final Stripe[] stripes;
+	private final int stripeMask;
+	private final NameRegistry phaseNames = new NameRegistry(MAX_PHASES, OTHER_PHASE);
+	private final NameRegistry errorNames = new NameRegistry(MAX_ERROR_TYPES, OTHER_ERROR);
+
+	public IntervalRecorder() {
+		this.stripes = new Stripe[STRIPE_COUNT];
+		for (int i = 0; i < STRIPE_COUNT; i++) {
+			stripes[i] = new Stripe();
+		}
+		this.stripeMask = STRIPE_COUNT - 1;
+	}
+
+	public void record(long timeInUs, ExecutionStatus status) {
+		this.record(timeInUs, -1, false, status);
+	}
+
+	/**
+	 * Record an operation. The response time is the time from when the operation was 
+	 * scheduled to start, pass a negative value for unscheduled operations.
+	 */
+	public void record(long timeInUs, long responseTimeInUs, boolean lateStart, ExecutionStatus status) {
+		this.record(timeInUs, responseTimeInUs, lateStart, -1, status);
+	}
+
+	/**
+	 * Record an operation, along with how long it waited for connections from the pool. The
+	 * rest of the operation's time is recorded as its execution time. Pass a negative wait 
+	 * for operations which did not use the pool.
+	 */
+	public void record(long timeInUs, long responseTimeInUs, boolean lateStart, long poolWaitInUs, ExecutionStatus status) {
+		Stripe stripe = stripes[(int)Thread.currentThread().getId() & stripeMask];
+		long criticalValue = stripe.phaser.writerCriticalSectionEnter();
+		try {
+			StripeCounts counts = stripe.active;
+			counts.latencies.record(timeInUs);
+			if (responseTimeInUs >= 0) {
+				counts.responseTimes.record(responseTimeInUs);
+				if (lateStart) {
+					counts.lateStarts.getAndIncrement();
+				}
+			}
+			if (poolWaitInUs >= 0) {
+				StripeCounts.getOrCreate(counts.poolWaits).record(poolWaitInUs);
+				StripeCounts.getOrCreate(counts.executionTimes).record(Math.max(0, timeInUs - poolWaitInUs));
+			}
+			if (status == ExecutionStatus.ERROR) {
+				counts.failures.getAndIncrement();
+			}
+		}
+		finally {
+			stripe.phaser.writerCriticalSectionExit(criticalValue);
+		}
+	}
+
+	/**
+	 * Record the times of the named phases of a single operation. Only the first
+	 * <code>count</code> entries of the arrays are used.
+	 */
+	public void recordPhases(String[] names, long[] timesInUs, int count) {
+		Stripe stripe = stripes[(int)Thread.currentThread().getId() & stripeMask];
+		long criticalValue = stripe.phaser.writerCriticalSectionEnter();
+		try {
+			StripeCounts counts = stripe.active;
+			for (int i = 0; i < count; i++) {
+				counts.getPhase(phaseNames.getIndex(names[i])).record(timesInUs[i]);
+			}
+		}
+		finally {
+			stripe.phaser.writerCriticalSectionExit(criticalValue);
+		}
+	}
+
+	/**
+	 * Record the rows and bytes processed by an operation.
+	 */
+	public void recordRows(long rows, long bytes) {
+		Stripe stripe = stripes[(int)Thread.currentThread().getId() & stripeMask];
+		long criticalValue = stripe.phaser.writerCriticalSectionEnter();
+		try {
+			StripeCounts counts = stripe.active;
+			StripeCounts.getOrCreate(counts.rowsPerOp).record(rows);
+			if (bytes != 0) {
+				counts.bytes.getAndAdd(bytes);
+			}
+		}
+		finally {
+			stripe.phaser.writerCriticalSectionExit(criticalValue);
+		}
+	}
+
+	/**
+	 * Record the CPU time used and bytes allocated by the thread which ran an operation, 
+	 * while it was running it.
+	 */
+	public void recordClientCost(long cpuTimeNs, long allocatedBytes) {
+		Stripe stripe = stripes[(int)Thread.currentThread().getId() & stripeMask];
+		long criticalValue = stripe.phaser.writerCriticalSectionEnter();
+		try {
+			StripeCounts counts = stripe.active;
+			counts.costOps.getAndIncrement();
+			counts.cpuTimeNs.getAndAdd(cpuTimeNs);
+			counts.allocatedBytes.getAndAdd(allocatedBytes);
+		}
+		finally {
+			stripe.phaser.writerCriticalSectionExit(criticalValue);
+		}
+	}
+
+	/**
+	 * Count a failure against the type of error which caused it. This is in addition to 
+	 * the failure being recorded through {@link #record(long, ExecutionStatus)}.
+	 */
+	public void recordError(String errorType) {
+		Stripe stripe = stripes[(int)Thread.currentThread().getId() & stripeMask];
+		long criticalValue = stripe.phaser.writerCriticalSectionEnter();
+		try {
+			stripe.active.errors.getAndIncrement(errorNames.getIndex(errorType));
+		}
+		finally {
+			stripe.phaser.writerCriticalSectionExit(criticalValue);
+		}
+	}
+
+	/**
+	 * Close the current interval, merging everything recorded in it into the passed 
+	 * snapshot and starting a new interval.
+	 */
+	public synchronized void snapshotInto(TimingSnapshot snapshot) {
+		for (Stripe stripe : stripes) {
+			stripe.phaser.readerLock();
+			try {
+				StripeCounts previous = stripe.active;
+				stripe.active = stripe.inactive;
+				stripe.phaser.flipPhase();
+				previous.drainTo(snapshot, phaseNames, errorNames);
+				stripe.inactive = previous;
+			}
+			finally {
+				stripe.phaser.readerUnlock();
+			}
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package com.yugabyte.simulation.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.yugabyte.simulation.dao.LatencyHeatmapResult;
+
+/**
+ * The latency distribution of each interval of a workload at a coarse resolution, for
+ * showing as a heatmap of time against latency. Unlike the percentiles this shows when
+ * latencies are multi-modal, such as a mix of local and remote reads.
+ * <p>
+ * Each interval's {@link LatencyHistogram} is reduced to log scaled buckets, exact below 8us
+ * and then four per doubling, and only the range of non-empty buckets is kept. Every bucket
+ * of the histogram falls entirely within one of these, so the counts are exact. Rows are
+ * held in a ring buffer, overwriting the oldest once the capacity or maximum age is reached.
+ */
+public class LatencyHeatmap {
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+	public static final int BUCKET_COUNT = bucketIndex(LatencyHistogram.MAX_TRACKABLE_VALUE) + 1;
+	private static final int INITIAL_CAPACITY = 256;
+
+	// The heatmap bucket of each histogram bucket
+	private static final int[] HISTOGRAM_TO_HEATMAP = new int[LatencyHistogram.BUCKET_COUNT];
+	private static final long[] BUCKET_BOUNDS = new long[BUCKET_COUNT + 1];
+	static {
+		for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+			HISTOGRAM_TO_HEATMAP[i] = bucketIndex(LatencyHistogram.lowestValueAt(i));
+		}
+		for (int i = 0; i <= BUCKET_COUNT; i++) {
+			BUCKET_BOUNDS[i] = lowestValueAt(i);
+		}
+	}
+
+	private final int maxCapacity;
+	private final long maxAgeMs;
+	private int capacity;
+	private long[] startTimes;
+	private long[] durations;
+	private int[] firstBuckets;
+	private int[][] counts;
+	private long headSequence = 0;
+	private long tailSequence = 0;
+
+	public LatencyHeatmap(int maxCapacity) {
+		this(maxCapacity, Long.MAX_VALUE);
+	}
+
+	/**
+	 * @param maxAgeMs Rows starting this long before the latest are dropped.
+	 */
+	public LatencyHeatmap(int maxCapacity, long maxAgeMs) {
+		this.maxCapacity = Math.max(1, maxCapacity);
+		this.maxAgeMs = maxAgeMs;
+		this.capacity = Math.min(INITIAL_CAPACITY, this.maxCapacity);
+		this.startTimes = new long[capacity];
+		this.durations = new long[capacity];
+		this.firstBuckets = new int[capacity];
+		this.counts = new int[capacity][];
+	}
+
+	public static int bucketIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return value <= 0 ? 0 : (int)value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+		return shift * SUB_BUCKET_HALF_COUNT + (int)(value >>> shift);
+	}
+
+	public static long lowestValueAt(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+		long subBucket = index - shift * SUB_BUCKET_HALF_COUNT;
+		return subBucket << shift;
+	}
+
+	private int slot(long sequence) {
+		return (int)(sequence % capacity);
+	}
+
+	private void grow() {
+		// Rows may have been dropped for their age, so each is moved to its slot in the
+		// larger buffer
+		int newCapacity = (int)Math.min((long)capacity * 2, maxCapacity);
+		long[] newStartTimes = new long[newCapacity];
+		long[] newDurations = new long[newCapacity];
+		int[] newFirstBuckets = new int[newCapacity];
+		int[][] newCounts = new int[newCapacity][];
+		for (long sequence = headSequence; sequence < tailSequence; sequence++) {
+			int newSlot = (int)(sequence % newCapacity);
+			newStartTimes[newSlot] = startTimes[slot(sequence)];
+			newDurations[newSlot] = durations[slot(sequence)];
+			newFirstBuckets[newSlot] = firstBuckets[slot(sequence)];
+			newCounts[newSlot] = counts[slot(sequence)];
+		}
+		startTimes = newStartTimes;
+		durations = newDurations;
+		firstBuckets = newFirstBuckets;
+		counts = newCounts;
+		capacity = newCapacity;
+	}
+
+	public synchronized void add(long startTimeMs, long durationMs, LatencyHistogram latencies) {
+		int first = BUCKET_COUNT;
+		int last = -1;
+		int[] bucketCounts = null;
+		if (!latencies.isEmpty()) {
+			bucketCounts = new int[BUCKET_COUNT];
+			for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+				long count = latencies.getCountAt(i);
+				if (count != 0) {
+					int bucket = HISTOGRAM_TO_HEATMAP[i];
+					bucketCounts[bucket] = (int)Math.min(Integer.MAX_VALUE, bucketCounts[bucket] + count);
+					first = Math.min(first, bucket);
+					last = bucket;
+				}
+			}
+		}
+		while (headSequence < tailSequence && startTimes[slot(headSequence)] < startTimeMs - maxAgeMs) {
+			counts[slot(headSequence)] = null;
+			headSequence++;
+		}
+		if (tailSequence - headSequence == capacity) {
+			if (capacity < maxCapacity) {
+				grow();
+			}
+			else {
+				headSequence++;
+			}
+		}
+		int slot = slot(tailSequence);
+		startTimes[slot] = startTimeMs;
+		durations[slot] = durationMs;
+		firstBuckets[slot] = last < 0 ? 0 : first;
+		counts[slot] = last < 0 ? new int[0] : Arrays.copyOfRange(bucketCounts, first, last + 1);
+		tailSequence++;
+	}
+
+	/**
+	 * Get the rows starting after <code>fromTime</code> and before <code>toTime</code>. If
+	 * the resolution is greater than that of the rows, rows are merged into buckets of that
+	 * length aligned to the epoch.
+	 */
+	public synchronized LatencyHeatmapResult getResults(String workloadId, long fromTime, long toTime, long resolutionMs) {
+		List<LatencyHeatmapResult.Row> rows = new ArrayList<>();
+		// Binary search for the first row starting after fromTime
+		long start = headSequence;
+		long end = tailSequence;
+		while (start < end) {
+			long mid = (start + end) >>> 1;
+			if (startTimes[slot(mid)] <= fromTime) {
+				start = mid + 1;
+			}
+			else {
+				end = mid;
+			}
+		}
+		int[] merged = null;
+		long mergedStart = -1;
+		long mergedDuration = 0;
+		for (long sequence = start; sequence < tailSequence; sequence++) {
+			int slot = slot(sequence);
+			if (startTimes[slot] >= toTime) {
+				break;
+			}
+			if (resolutionMs <= durations[slot]) {
+				rows.add(new LatencyHeatmapResult.Row(startTimes[slot], durations[slot], firstBuckets[slot], counts[slot]));
+				continue;
+			}
+			long bucketStart = startTimes[slot] - startTimes[slot] % resolutionMs;
+			if (bucketStart != mergedStart) {
+				if (merged != null) {
+					rows.add(toRow(mergedStart, mergedDuration, merged));
+				}
+				merged = new int[BUCKET_COUNT];
+				mergedStart = bucketStart;
+				mergedDuration = 0;
+			}
+			int[] rowCounts = counts[slot];
+			for (int i = 0; i < rowCounts.length; i++) {
+				merged[firstBuckets[slot] + i] += rowCounts[i];
+			}
+			mergedDuration += durations[slot];
+		}
+		if (merged != null) {
+			rows.add(toRow(mergedStart, mergedDuration, merged));
+		}
+		return new LatencyHeatmapResult(workloadId, resolutionMs, BUCKET_BOUNDS, rows);
+	}
+
+	private static LatencyHeatmapResult.Row toRow(long startTimeMs, long durationMs, int[] bucketCounts) {
+		int first = 0;
+		while (first < BUCKET_COUNT && bucketCounts[first] == 0) {
+			first++;
+		}
+		int last = BUCKET_COUNT - 1;
+		while (last >= first && bucketCounts[last] == 0) {
+			last--;
+		}
+		if (last < first) {
+			return new LatencyHeatmapResult.Row(startTimeMs, durationMs, 0, new int[0]);
+		}
+		return new LatencyHeatmapResult.Row(startTimeMs, durationMs, first, Arrays.copyOfRange(bucketCounts, first, last + 1));
+	}
+}
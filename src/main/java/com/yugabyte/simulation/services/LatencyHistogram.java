@@ -0,0 +1,203 @@
+package com.yugabyte.simulation.services;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size log-linear histogram of latencies in microseconds, in the style
+ * of HdrHistogram. Values below 256us are counted exactly; above that each power
+ * of two is split into 128 linear sub-buckets, giving a worst case relative error
+ * of under 1% across the whole trackable range (up to ~19 hours).
+ * <p>
+ * The footprint is constant (~30kB) regardless of the recording rate and no sample
+ * is ever dropped: values above the trackable range are clamped into the top bucket
+ * (but still reported exactly through {@link #getMax()}).
+ * <p>
+ * This class is not thread safe, callers must provide their own synchronization.
+ */
+public class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 8;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+	public static final long MAX_TRACKABLE_VALUE = (1L << 36) - 1;
+	public static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_VALUE) + 1;
+
+	private final long[] counts;
+	private long totalCount;
+	private long totalValue;
+	private long minValue;
+	private long maxValue;
+
+	public LatencyHistogram() {
+		this.counts = new long[BUCKET_COUNT];
+		this.reset();
+	}
+
+	public LatencyHistogram(LatencyHistogram original) {
+		this.counts = Arrays.copyOf(original.counts, BUCKET_COUNT);
+		this.totalCount = original.totalCount;
+		this.totalValue = original.totalValue;
+		this.minValue = original.minValue;
+		this.maxValue = original.maxValue;
+	}
+
+	/**
+	 * Map a value onto the index of the bucket which holds it.
+	 */
+	public static int bucketIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return value <= 0 ? 0 : (int)value;
+		}
+		if (value > MAX_TRACKABLE_VALUE) {
+			value = MAX_TRACKABLE_VALUE;
+		}
+		// Shift the value down so the top bit lands in the upper half of the sub buckets
+		int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+		return shift * SUB_BUCKET_HALF_COUNT + (int)(value >>> shift);
+	}
+
+	/**
+	 * The smallest value which would be counted in the bucket at the passed index
+	 */
+	public static long lowestValueAt(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+		long subBucket = index - shift * SUB_BUCKET_HALF_COUNT;
+		return subBucket << shift;
+	}
+
+	/**
+	 * The largest value which would be counted in the bucket at the passed index
+	 */
+	public static long highestValueAt(int index) {
+		return lowestValueAt(index + 1) - 1;
+	}
+
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		counts[bucketIndex(value)]++;
+		totalCount++;
+		totalValue += value;
+		if (value < minValue) {
+			minValue = value;
+		}
+		if (value > maxValue) {
+			maxValue = value;
+		}
+	}
+
+	/**
+	 * Merge the contents of another histogram into this one.
+	 */
+	public void add(LatencyHistogram other) {
+		if (other.totalCount == 0) {
+			return;
+		}
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] += other.counts[i];
+		}
+		totalCount += other.totalCount;
+		totalValue += other.totalValue;
+		minValue = Math.min(minValue, other.minValue);
+		maxValue = Math.max(maxValue, other.maxValue);
+	}
+
+	// Used by ConcurrentLatencyHistogram to drain its counts into this histogram
+	void addCountAt(int index, long count) {
+		counts[index] += count;
+	}
+
+	void addTotals(long count, long value, long min, long max) {
+		if (count == 0) {
+			return;
+		}
+		totalCount += count;
+		totalValue += value;
+		minValue = Math.min(minValue, min);
+		maxValue = Math.max(maxValue, max);
+	}
+
+	public void reset() {
+		Arrays.fill(counts, 0);
+		totalCount = 0;
+		totalValue = 0;
+		minValue = Long.MAX_VALUE;
+		maxValue = 0;
+	}
+
+	public boolean isEmpty() {
+		return totalCount == 0;
+	}
+
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	public long getTotalValue() {
+		return totalValue;
+	}
+
+	public long getMin() {
+		return totalCount == 0 ? 0 : minValue;
+	}
+
+	public long getMax() {
+		return maxValue;
+	}
+
+	public long getMean() {
+		return totalCount == 0 ? 0 : totalValue / totalCount;
+	}
+
+	/**
+	 * The number of values recorded which are above the passed value. Values in the same
+	 * bucket as the passed value are not counted, so this may undercount by the resolution
+	 * of the histogram.
+	 */
+	public long getCountAbove(long value) {
+		if (value < 0) {
+			return totalCount;
+		}
+		if (value >= maxValue) {
+			return 0;
+		}
+		long count = 0;
+		for (int i = bucketIndex(value) + 1; i < BUCKET_COUNT; i++) {
+			count += counts[i];
+		}
+		return count;
+	}
+
+	public long getCountAt(int index) {
+		return counts[index];
+	}
+
+	/**
+	 * Return the value at the given percentile (0.0 - 100.0). The value returned is the
+	 * highest value equivalent to the bucket the percentile falls in, bounded by the
+	 * actual min and max recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (totalCount == 0) {
+			return 0;
+		}
+		double fraction = Math.min(Math.max(percentile, 0.0), 100.0) / 100.0;
+		long countAtPercentile = Math.max(1, (long)Math.ceil(fraction * totalCount));
+		long runningCount = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			runningCount += counts[i];
+			if (runningCount >= countAtPercentile) {
+				if (runningCount == totalCount) {
+					// Highest populated bucket, which holds the exact maximum
+					return maxValue;
+				}
+				long value = highestValueAt(i);
+				return Math.max(getMin(), Math.min(value, maxValue));
+			}
+		}
+		return maxValue;
+	}
+}
@@ -10,6 +10,7 @@ import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 
 import org.springframework.stereotype.Service;
@@ -17,7 +18,7 @@ import org.springframework.stereotype.Service;
 import com.yugabyte.simulation.workload.AggregationWorkloadType;
 
 @Service
-public class LoggingFileManager {
+public class LoggingFileManager implements LoggingFileManagerMXBean {
 
 	private String loggingPath = null;
 	private Map<String, BufferedWriter> openFiles = new HashMap<String, BufferedWriter>();
@@ -34,18 +35,24 @@ public class LoggingFileManager {
 	private class CreateFileClass implements LoggingAction {
 		private String id;
 		private String heading;
+		private String extension;
 		
-		public CreateFileClass(String id, String heading) {
+		public CreateFileClass(String id, String heading, String extension) {
 			super();
 			this.id = id;
 			this.heading = heading;
+			this.extension = extension;
 		}
 
 		@Override
 		public void execute() {
+			if (openFiles.containsKey(id)) {
+				// Already logging to this file
+				return;
+			}
 			File file = new File(loggingPath);
 			file.mkdirs();
-			String filePath = loggingPath + id + ".csv";
+			String filePath = loggingPath + id + extension;
 			try {
 				BufferedWriter writer = new BufferedWriter(new FileWriter(new File(filePath), true), 1024);
 				writer.write(heading);
@@ -66,7 +73,7 @@ public class LoggingFileManager {
 
 		@Override
 		public void execute() {
-			BufferedWriter writer = openFiles.get(id);
+			BufferedWriter writer = openFiles.remove(id);
 			if (writer != null) {
 				try {
 					writer.close();
@@ -105,6 +112,28 @@ public class LoggingFileManager {
 		}
 	}
 	
+	private class WriteFileClass implements LoggingAction {
+		private String fileName;
+		private String contents;
+		
+		public WriteFileClass(String fileName, String contents) {
+			super();
+			this.fileName = fileName;
+			this.contents = contents;
+		}
+
+		@Override
+		public void execute() {
+			File file = new File(loggingPath);
+			file.mkdirs();
+			try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(loggingPath + fileName)))) {
+				writer.write(contents);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+	
 	private class ShutdownClass implements LoggingAction {
 		@Override
 		public void execute() {
@@ -128,10 +157,19 @@ public class LoggingFileManager {
 		loggingThread.start();
 	}
 	
+	@PostConstruct
+	public void registerMBean() {
+		MBeanRegistry.register(this, MBeanRegistry.getObjectName("LoggingFileManager", "LoggingFileManager"));
+	}
+	
 	public synchronized void createFile(String id, String heading) {
+		createFile(id, heading, ".csv");
+	}
+	
+	public synchronized void createFile(String id, String heading, String extension) {
 		if (loggingPath != null) {
 			try {
-				queue.put(new CreateFileClass(id, heading));
+				queue.put(new CreateFileClass(id, heading, extension));
 			}
 			catch (InterruptedException e) {}
 		}
@@ -151,6 +189,19 @@ public class LoggingFileManager {
 		catch (InterruptedException e) {}
 	}
 	
+	/**
+	 * Write a whole file, such as a summary, into the logging directory. The file 
+	 * is replaced if it exists.
+	 */
+	public synchronized void writeFile(String fileName, String contents) {
+		if (loggingPath != null) {
+			try {
+				queue.put(new WriteFileClass(fileName, contents));
+			}
+			catch (InterruptedException e) {}
+		}
+	}
+	
 	private void closeAllLogs() {
 		for (String id : openFiles.keySet()) {
 			try {
@@ -178,14 +229,34 @@ public class LoggingFileManager {
 		}
 	}
 	
+	@Override
 	public String getLoggingPath() {
 		return this.loggingPath;
 	}
 	
+	@Override
 	public boolean isDoLogging() {
 		return this.loggingPath != null;
 	}
 	
+	@Override
+	public int getQueueDepth() {
+		return queue.size();
+	}
+	
+	@Override
+	public int getQueueCapacity() {
+		return queue.size() + queue.remainingCapacity();
+	}
+	
+	/**
+	 * Only approximate as the files are opened and closed by the logging thread
+	 */
+	@Override
+	public int getOpenFileCount() {
+		return openFiles.size();
+	}
+	
 	@PreDestroy
 	public void shutdown() {
 		try {
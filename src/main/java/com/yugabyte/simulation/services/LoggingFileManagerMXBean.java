@@ -0,0 +1,21 @@
+package com.yugabyte.simulation.services;
+
+/**
+ * The state of the results logging, registered as
+ * com.yugabyte.simulation:type=LoggingFileManager,name="LoggingFileManager"
+ */
+public interface LoggingFileManagerMXBean {
+	boolean isDoLogging();
+
+	String getLoggingPath();
+
+	/**
+	 * The writes waiting for the logging thread. Once the queue is full the threads
+	 * collating results block until there is space.
+	 */
+	int getQueueDepth();
+
+	int getQueueCapacity();
+
+	int getOpenFileCount();
+}
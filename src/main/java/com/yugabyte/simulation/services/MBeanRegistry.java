@@ -0,0 +1,57 @@
+package com.yugabyte.simulation.services;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registers the simulator's MXBeans with the platform MBean server, so runs can be watched
+ * and controlled from jconsole or JMC. Failures are logged rather than thrown, the simulator
+ * works the same without JMX.
+ */
+public final class MBeanRegistry {
+	public static final String DOMAIN = "com.yugabyte.simulation";
+
+	private MBeanRegistry() {
+	}
+
+	public static ObjectName getObjectName(String type, String name) {
+		try {
+			return new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+		}
+		catch (JMException e) {
+			throw new IllegalArgumentException("Invalid MBean name " + name, e);
+		}
+	}
+
+	/**
+	 * Register the bean under the name, replacing any bean already registered with it such
+	 * as one from an earlier application context.
+	 */
+	public static void register(Object bean, ObjectName name) {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+			server.registerMBean(bean, name);
+		}
+		catch (JMException e) {
+			System.out.printf("Could not register MBean %s: %s\n", name, e.getMessage());
+		}
+	}
+
+	public static void unregister(ObjectName name) {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		}
+		catch (JMException e) {
+			System.out.printf("Could not unregister MBean %s: %s\n", name, e.getMessage());
+		}
+	}
+}
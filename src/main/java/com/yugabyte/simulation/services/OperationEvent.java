@@ -0,0 +1,44 @@
+package com.yugabyte.simulation.services;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Flight Recorder event for an operation of a workload, so slow operations can be lined
+ * up against the GC, I/O and lock events of the same thread in JMC. Operations shorter than
+ * the threshold of the recording are not committed, 10ms unless the recording sets another.
+ * <p>
+ * This class is only loaded once Flight Recorder is known to be available.
+ */
+@Name("com.yugabyte.simulation.Operation")
+@Label("Workload Operation")
+@Category("Workload Simulator")
+@Description("An operation of a workload, sampled at the rate set by -DjfrSampleRate")
+@StackTrace(false)
+@Threshold("10 ms")
+final class OperationEvent extends Event {
+	private static final EventType EVENT_TYPE = EventType.getEventType(OperationEvent.class);
+
+	@Label("Workload Id")
+	String workloadId;
+
+	@Label("Operation")
+	String operation;
+
+	@Label("Status")
+	String status;
+
+	/**
+	 * Whether any recording running has this event enabled, checked before creating events
+	 * so nothing is allocated when nothing is being recorded.
+	 */
+	static boolean isRecorded() {
+		return EVENT_TYPE.isEnabled();
+	}
+}
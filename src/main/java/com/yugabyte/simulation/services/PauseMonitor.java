@@ -0,0 +1,131 @@
+package com.yugabyte.simulation.services;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.yugabyte.simulation.dao.ClientPauses;
+
+/**
+ * Detects pauses of this JVM so they can be told apart from database latency. A hiccup
+ * thread repeatedly sleeps for a millisecond and records any time it wakes up later than
+ * that, which catches GC, safepoints and the process not being scheduled. The collectors'
+ * own notifications are also recorded so GC can be identified as the cause.
+ * <p>
+ * The pauses seen since the last call are collected once per results interval with
+ * {@link #nextInterval()}.
+ */
+@Service
+public class PauseMonitor {
+	private static final long HICCUP_SLEEP_NS = 1_000_000;
+	// Oversleeping by less than this is normal scheduling jitter, not a pause
+	private static final long HICCUP_TOLERANCE_NS = 1_000_000;
+
+	@Value("${simulation.client-pause-threshold-ms:50}")
+	private long pauseThresholdMs;
+
+	private final AtomicLong pauseCount = new AtomicLong();
+	private final AtomicLong pauseTotalUs = new AtomicLong();
+	private final AtomicLong pauseMaxUs = new AtomicLong();
+	private final AtomicLong gcCount = new AtomicLong();
+	private final AtomicLong gcTotalUs = new AtomicLong();
+	private final AtomicLong gcMaxUs = new AtomicLong();
+
+	private final List<NotificationEmitter> gcEmitters = new ArrayList<>();
+	private final NotificationListener gcListener = this::handleGcNotification;
+	private volatile boolean running = false;
+	private Thread hiccupThread;
+
+	private void handleGcNotification(Notification notification, Object handback) {
+		if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+			return;
+		}
+		GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData)notification.getUserData());
+		// Concurrent cycles (such as ZGC's or G1's concurrent marking) do not stop the application
+		String name = info.getGcName();
+		if (name.contains("Concurrent") || name.contains("Cycles")) {
+			return;
+		}
+		long durationUs = info.getGcInfo().getDuration() * 1000;
+		gcCount.incrementAndGet();
+		gcTotalUs.addAndGet(durationUs);
+		gcMaxUs.accumulateAndGet(durationUs, Math::max);
+	}
+
+	private void detectHiccups() {
+		while (running) {
+			long start = System.nanoTime();
+			try {
+				Thread.sleep(HICCUP_SLEEP_NS / 1_000_000);
+			}
+			catch (InterruptedException e) {
+				break;
+			}
+			long hiccup = System.nanoTime() - start - HICCUP_SLEEP_NS;
+			if (hiccup > HICCUP_TOLERANCE_NS) {
+				long hiccupUs = hiccup / 1000;
+				pauseCount.incrementAndGet();
+				pauseTotalUs.addAndGet(hiccupUs);
+				pauseMaxUs.accumulateAndGet(hiccupUs, Math::max);
+			}
+		}
+	}
+
+	@PostConstruct
+	public synchronized void start() {
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			if (gc instanceof NotificationEmitter) {
+				NotificationEmitter emitter = (NotificationEmitter)gc;
+				emitter.addNotificationListener(gcListener, null, null);
+				gcEmitters.add(emitter);
+			}
+		}
+		running = true;
+		hiccupThread = new Thread(this::detectHiccups);
+		hiccupThread.setDaemon(true);
+		hiccupThread.setName("Pause monitor");
+		hiccupThread.setPriority(Thread.MAX_PRIORITY);
+		hiccupThread.start();
+	}
+
+	@PreDestroy
+	public synchronized void stop() {
+		running = false;
+		if (hiccupThread != null) {
+			hiccupThread.interrupt();
+		}
+		for (NotificationEmitter emitter : gcEmitters) {
+			try {
+				emitter.removeNotificationListener(gcListener);
+			}
+			catch (ListenerNotFoundException e) {
+			}
+		}
+		gcEmitters.clear();
+	}
+
+	/**
+	 * Return the pauses seen since the previous call, and start collecting the next interval.
+	 */
+	public ClientPauses nextInterval() {
+		long maxUs = pauseMaxUs.getAndSet(0);
+		long gcMax = gcMaxUs.getAndSet(0);
+		return new ClientPauses(pauseCount.getAndSet(0), pauseTotalUs.getAndSet(0), maxUs,
+				gcCount.getAndSet(0), gcTotalUs.getAndSet(0), gcMax,
+				Math.max(maxUs, gcMax) >= pauseThresholdMs * 1000);
+	}
+}
@@ -0,0 +1,191 @@
+package com.yugabyte.simulation.services;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.yugabyte.simulation.dao.ConnectionPoolStats;
+import com.yugabyte.simulation.dao.SaturationStatus;
+import com.yugabyte.simulation.workload.ThroughputWorkloadType.ThroughputWorkloadInstance;
+import com.yugabyte.simulation.workload.WorkloadManager;
+import com.yugabyte.simulation.workload.WorkloadTypeInstance;
+
+/**
+ * Formats the metrics of the workloads in the Prometheus text exposition format, so they
+ * can be scraped and graphed alongside the metrics of the database.
+ * <p>
+ * Counters and histograms are taken from the run totals of each workload, which are merged
+ * from the interval snapshots as they are collated, so scraping adds nothing to the cost of
+ * recording an operation and the values only advance once per results interval. Histogram
+ * buckets are powers of two microseconds, which are boundaries of the buckets of
+ * {@link LatencyHistogram}, so each count is exact to the resolution of the histogram.
+ */
+@Service
+public class PrometheusExporter {
+	public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	// Bucket bounds are 2^4us (16us) to 2^26us (about 67s)
+	private static final int FIRST_BUCKET_POWER = 4;
+	private static final int LAST_BUCKET_POWER = 26;
+
+	@Autowired
+	private WorkloadManager workloadManager;
+
+	@Autowired
+	private ConnectionPoolMonitor poolMonitor;
+
+	private static String escape(String value) {
+		if (value == null) {
+			return "";
+		}
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	private static String labels(WorkloadTypeInstance workload) {
+		return "workload=\"" + escape(workload.getWorkloadId()) + "\",type=\"" + escape(workload.getType().getTypeName()) + "\"";
+	}
+
+	private static void header(StringBuilder sb, String name, String type, String help) {
+		sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+
+	private static void sample(StringBuilder sb, String name, String labels, double value) {
+		sb.append(name);
+		if (labels != null && !labels.isEmpty()) {
+			sb.append('{').append(labels).append('}');
+		}
+		sb.append(' ');
+		if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+			sb.append((long)value);
+		}
+		else {
+			sb.append(value);
+		}
+		sb.append('\n');
+	}
+
+	/**
+	 * Append the cumulative buckets, sum and count of a histogram of microsecond values,
+	 * converted to seconds.
+	 */
+	private static void histogram(StringBuilder sb, String name, String labels, LatencyHistogram histogram) {
+		long cumulative = 0;
+		int index = 0;
+		for (int power = FIRST_BUCKET_POWER; power <= LAST_BUCKET_POWER; power++) {
+			long bound = 1L << power;
+			// Only buckets lying wholly at or below the bound are counted
+			while (index < LatencyHistogram.BUCKET_COUNT && LatencyHistogram.highestValueAt(index) <= bound) {
+				cumulative += histogram.getCountAt(index);
+				index++;
+			}
+			sample(sb, name + "_bucket", labels + ",le=\"" + (bound / 1_000_000.0) + "\"", cumulative);
+		}
+		sample(sb, name + "_bucket", labels + ",le=\"+Inf\"", histogram.getTotalCount());
+		sample(sb, name + "_sum", labels, histogram.getTotalValue() / 1_000_000.0);
+		sample(sb, name + "_count", labels, histogram.getTotalCount());
+	}
+
+	public String scrape() {
+		StringBuilder sb = new StringBuilder();
+		List<WorkloadTypeInstance> workloads = workloadManager.getAllWorkloads();
+		TimingSnapshot[] totals = new TimingSnapshot[workloads.size()];
+		for (int i = 0; i < totals.length; i++) {
+			totals[i] = workloads.get(i).getRunTotals();
+		}
+
+		header(sb, "simulation_workload_running", "gauge", "1 if the workload is running, 0 once it has completed.");
+		for (WorkloadTypeInstance workload : workloads) {
+			sample(sb, "simulation_workload_running", labels(workload), workload.isComplete() || workload.isTerminated() ? 0 : 1);
+		}
+
+		header(sb, "simulation_operations_total", "counter", "Operations completed by the workload.");
+		for (int i = 0; i < totals.length; i++) {
+			String labels = labels(workloads.get(i));
+			long failed = totals[i].getFailureCount();
+			sample(sb, "simulation_operations_total", labels + ",status=\"success\"", totals[i].getLatencies().getTotalCount() - failed);
+			sample(sb, "simulation_operations_total", labels + ",status=\"failure\"", failed);
+		}
+
+		header(sb, "simulation_errors_total", "counter", "Failed operations by the type of error which caused them.");
+		for (int i = 0; i < totals.length; i++) {
+			String labels = labels(workloads.get(i));
+			for (Map.Entry<String, Long> error : totals[i].getErrors().entrySet()) {
+				sample(sb, "simulation_errors_total", labels + ",error=\"" + escape(error.getKey()) + "\"", error.getValue());
+			}
+		}
+
+		header(sb, "simulation_late_starts_total", "counter", "Scheduled operations which started later than intended.");
+		for (int i = 0; i < totals.length; i++) {
+			sample(sb, "simulation_late_starts_total", labels(workloads.get(i)), totals[i].getLateStartCount());
+		}
+
+		header(sb, "simulation_operation_duration_seconds", "histogram", "The time taken by each operation.");
+		for (int i = 0; i < totals.length; i++) {
+			histogram(sb, "simulation_operation_duration_seconds", labels(workloads.get(i)), totals[i].getLatencies());
+		}
+
+		header(sb, "simulation_response_time_seconds", "histogram",
+				"The time of each scheduled operation from when it was intended to start.");
+		for (int i = 0; i < totals.length; i++) {
+			if (!totals[i].getResponseTimes().isEmpty()) {
+				histogram(sb, "simulation_response_time_seconds", labels(workloads.get(i)), totals[i].getResponseTimes());
+			}
+		}
+
+		header(sb, "simulation_rows_total", "counter", "Rows processed by the operations which report them.");
+		for (int i = 0; i < totals.length; i++) {
+			sample(sb, "simulation_rows_total", labels(workloads.get(i)), totals[i].getRowsPerOp().getTotalValue());
+		}
+
+		header(sb, "simulation_bytes_total", "counter", "Bytes processed by the operations which report them.");
+		for (int i = 0; i < totals.length; i++) {
+			sample(sb, "simulation_bytes_total", labels(workloads.get(i)), totals[i].getBytes());
+		}
+
+		header(sb, "simulation_desired_rate", "gauge", "The target operations per second of a throughput workload.");
+		for (WorkloadTypeInstance workload : workloads) {
+			if (workload instanceof ThroughputWorkloadInstance) {
+				sample(sb, "simulation_desired_rate", labels(workload), ((ThroughputWorkloadInstance)workload).getDesiredRate());
+			}
+		}
+
+		header(sb, "simulation_current_rate", "gauge",
+				"The operations per second of a throughput workload as last measured by its thread manager.");
+		for (WorkloadTypeInstance workload : workloads) {
+			if (workload instanceof ThroughputWorkloadInstance) {
+				sample(sb, "simulation_current_rate", labels(workload), ((ThroughputWorkloadInstance)workload).getCurrentRate());
+			}
+		}
+
+		header(sb, "simulation_worker_threads", "gauge", "The worker threads started by a throughput workload.");
+		for (WorkloadTypeInstance workload : workloads) {
+			if (workload instanceof ThroughputWorkloadInstance) {
+				sample(sb, "simulation_worker_threads", labels(workload), ((ThroughputWorkloadInstance)workload).getCurrentThreadCount());
+			}
+		}
+
+		header(sb, "simulation_client_saturated", "gauge",
+				"1 if the simulator rather than the database limited the workload in the last interval.");
+		for (WorkloadTypeInstance workload : workloads) {
+			SaturationStatus saturation = workload.getSaturation();
+			sample(sb, "simulation_client_saturated", labels(workload), saturation != null && saturation.isClientSaturated() ? 1 : 0);
+		}
+
+		header(sb, "simulation_jvm_threads", "gauge", "The live threads of the simulator.");
+		sample(sb, "simulation_jvm_threads", null, ManagementFactory.getThreadMXBean().getThreadCount());
+
+		ConnectionPoolStats pool = poolMonitor.sample();
+		if (pool != null) {
+			header(sb, "simulation_pool_connections", "gauge", "Connections in the pool by state.");
+			sample(sb, "simulation_pool_connections", "state=\"active\"", pool.getActive());
+			sample(sb, "simulation_pool_connections", "state=\"idle\"", pool.getIdle());
+			header(sb, "simulation_pool_pending_threads", "gauge", "Threads waiting for a connection from the pool.");
+			sample(sb, "simulation_pool_pending_threads", null, pool.getPending());
+		}
+		return sb.toString();
+	}
+}
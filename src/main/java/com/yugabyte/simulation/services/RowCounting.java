@@ -0,0 +1,100 @@
+package com.yugabyte.simulation.services;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.Row;
+
+/**
+ * Helpers to report the rows and bytes processed by an operation to its timer, through
+ * {@link Timer#addRows(long, long)}. These must be used within the operation being timed.
+ */
+public final class RowCounting {
+	private RowCounting() {
+	}
+
+	private static class CountingRowCallbackHandler implements RowCallbackHandler {
+		private final RowCallbackHandler handler;
+		private final boolean countBytes;
+		private final Timer timer = TimerService.getCurrentTimer();
+
+		CountingRowCallbackHandler(RowCallbackHandler handler, boolean countBytes) {
+			this.handler = handler;
+			this.countBytes = countBytes;
+			// processRow is never called for an empty result, which must still count as 0 rows
+			timer.addRows(0, 0);
+		}
+
+		@Override
+		public void processRow(ResultSet rs) throws SQLException {
+			if (handler != null) {
+				handler.processRow(rs);
+			}
+			timer.addRows(1, countBytes ? getRowSize(rs) : 0);
+		}
+	}
+
+	/**
+	 * The size of the current row as the bytes of each column's value. For drivers such as
+	 * the YugabyteDB and PostgreSQL ones this is close to the size of the row on the wire.
+	 */
+	private static long getRowSize(ResultSet rs) throws SQLException {
+		long size = 0;
+		int columns = rs.getMetaData().getColumnCount();
+		for (int i = 1; i <= columns; i++) {
+			try {
+				byte[] value = rs.getBytes(i);
+				if (value != null) {
+					size += value.length;
+				}
+			}
+			catch (SQLException e) {
+				// The driver cannot return this type as bytes, leave it out
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Wrap a handler so each row it processes is counted. The handler may be null if the
+	 * rows are only being counted. The handler must be created within the operation.
+	 */
+	public static RowCallbackHandler counting(RowCallbackHandler handler) {
+		return new CountingRowCallbackHandler(handler, false);
+	}
+
+	/**
+	 * Wrap a handler so each row it processes is counted along with its size. Reading the
+	 * size copies every column within the timed operation, so this costs more than 
+	 * {@link #counting(RowCallbackHandler)} and should only be used when the bytes are needed.
+	 */
+	public static RowCallbackHandler countingWithBytes(RowCallbackHandler handler) {
+		return new CountingRowCallbackHandler(handler, true);
+	}
+
+	/**
+	 * Pass each row of a CQL result set to the action, fetching further pages as needed, and
+	 * count the rows and the size of the responses they came in.
+	 * @return the number of rows
+	 */
+	public static long forEachRow(com.datastax.oss.driver.api.core.cql.ResultSet rs, Consumer<Row> action) {
+		long rows = 0;
+		for (Row row : rs) {
+			if (action != null) {
+				action.accept(row);
+			}
+			rows++;
+		}
+		long bytes = 0;
+		for (ExecutionInfo info : rs.getExecutionInfos()) {
+			// Negative if the size is not known
+			bytes += Math.max(0, info.getResponseSizeInBytes());
+		}
+		TimerService.getCurrentTimer().addRows(rows, bytes);
+		return rows;
+	}
+}
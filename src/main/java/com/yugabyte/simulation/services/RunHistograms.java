@@ -0,0 +1,77 @@
+package com.yugabyte.simulation.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.yugabyte.simulation.dao.Baseline;
+
+/**
+ * The full latency histogram of each interval of a workload's run, encoded as in the
+ * interval histogram logs, so the run can be saved as a baseline however long ago it started.
+ * <p>
+ * At most {@value #MAX_INTERVALS} intervals are held. Once that many have been added, each
+ * pair of neighbouring intervals is merged into one, so a long run is held at a coarser
+ * resolution rather than losing its start. The histograms are merged, not their
+ * percentiles, so nothing is lost but the time resolution.
+ */
+public class RunHistograms {
+	static final int MAX_INTERVALS = 1024;
+
+	private final List<Baseline.Interval> intervals = new ArrayList<>();
+	// Each entry holds this many intervals, doubling each time the entries are merged
+	private int intervalsPerEntry = 1;
+	// The intervals of the entry being filled
+	private final LatencyHistogram pendingLatencies = new LatencyHistogram();
+	private int pendingCount = 0;
+	private long pendingStartTimeMs;
+	private long pendingDurationMs;
+	private long pendingFailed;
+
+	public synchronized void add(long startTimeMs, long durationMs, long numFailed, LatencyHistogram latencies) {
+		if (pendingCount == 0) {
+			pendingStartTimeMs = startTimeMs;
+			pendingDurationMs = 0;
+			pendingFailed = 0;
+			pendingLatencies.reset();
+		}
+		pendingLatencies.add(latencies);
+		pendingDurationMs += durationMs;
+		pendingFailed += numFailed;
+		if (++pendingCount < intervalsPerEntry) {
+			return;
+		}
+		intervals.add(getPending());
+		pendingCount = 0;
+		if (intervals.size() == MAX_INTERVALS) {
+			List<Baseline.Interval> merged = new ArrayList<>(MAX_INTERVALS / 2);
+			for (int i = 0; i < intervals.size(); i += 2) {
+				merged.add(merge(intervals.get(i), intervals.get(i + 1)));
+			}
+			intervals.clear();
+			intervals.addAll(merged);
+			intervalsPerEntry *= 2;
+		}
+	}
+
+	private Baseline.Interval getPending() {
+		return new Baseline.Interval(pendingStartTimeMs, pendingDurationMs, pendingFailed, HistogramLogFormat.encode(pendingLatencies));
+	}
+
+	private static Baseline.Interval merge(Baseline.Interval first, Baseline.Interval second) {
+		LatencyHistogram latencies = HistogramLogFormat.decode(first.getEncodedLatencies());
+		HistogramLogFormat.decodeInto(second.getEncodedLatencies(), latencies);
+		return new Baseline.Interval(first.getStartTimeMs(), first.getDurationMs() + second.getDurationMs(),
+				first.getNumFailed() + second.getNumFailed(), HistogramLogFormat.encode(latencies));
+	}
+
+	/**
+	 * The intervals of the run, the last of which may hold fewer intervals than the others
+	 */
+	public synchronized List<Baseline.Interval> getIntervals() {
+		List<Baseline.Interval> result = new ArrayList<>(intervals);
+		if (pendingCount > 0) {
+			result.add(getPending());
+		}
+		return result;
+	}
+}
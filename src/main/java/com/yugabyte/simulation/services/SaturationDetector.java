@@ -0,0 +1,127 @@
+package com.yugabyte.simulation.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.yugabyte.simulation.dao.ClientPauses;
+import com.yugabyte.simulation.dao.ConnectionPoolStats;
+import com.yugabyte.simulation.dao.DistributionSummary;
+import com.yugabyte.simulation.dao.SaturationStatus;
+import com.yugabyte.simulation.dao.SaturationStatus.Reason;
+import com.yugabyte.simulation.dao.SaturationStatus.Status;
+import com.yugabyte.simulation.dao.TimerResult;
+
+/**
+ * Assesses each interval of a workload for signs that the simulator, rather than the
+ * database, is limiting it. A busy client CPU and JVM pauses hold up operations whatever the
+ * workload, so they always count. Running out of worker threads and operations starting late
+ * are only a problem if the workload is also short of its target rate, as a workload meeting
+ * its target may legitimately use every thread it is allowed. Threads waiting for the pool
+ * count if this workload's operations spent a noticeable share of their time waiting for a
+ * connection, or it is short of its target, as the pool is shared by every JDBC workload and
+ * a moment's wait in a single sample is normal.
+ */
+public class SaturationDetector {
+	public enum Event {
+		NONE,
+		/** The client has just become saturated */
+		SATURATED,
+		/** The workload has just started falling short of its target without the client being saturated */
+		BELOW_TARGET,
+		/** The workload is meeting its target with capacity to spare again */
+		RECOVERED
+	}
+
+	// Falling short of the target rate by more than this is a shortfall
+	private static final double SHORTFALL_PERCENT = 10.0;
+	private static final double CLIENT_CPU_PERCENT = 90.0;
+	private static final double LATE_START_PERCENT = 5.0;
+	// Of the total time of the workload's operations
+	private static final double POOL_WAIT_PERCENT = 10.0;
+	// Throughput workloads ramp up their threads over this long, so shortfalls are expected
+	private static final long WARMUP_MS = 15_000;
+
+	private final long runStartTime;
+	private SaturationStatus status = null;
+	private int saturatedIntervals = 0;
+	private int intervals = 0;
+
+	public SaturationDetector(long runStartTime) {
+		this.runStartTime = runStartTime;
+	}
+
+	/**
+	 * Assess an interval of the workload.
+	 * @param targetRate the operations per second the workload is aiming for, 0 if it has no target
+	 * @param atThreadLimit whether the workload is using every worker thread it is allowed
+	 * @param clientCpuLoad the CPU used by this process over the interval as a fraction of the
+	 * machine, negative if not known
+	 */
+	public synchronized Event evaluate(TimerResult result, double targetRate, boolean atThreadLimit, double clientCpuLoad) {
+		long ops = result.getNumSucceeded() + result.getNumFailed();
+		double achievedRate = result.getDurationMs() <= 0 ? 0 : ops * 1000.0 / result.getDurationMs();
+		double shortfallPercent = 0;
+		if (targetRate > 0 && result.getStartTimeMs() - runStartTime >= WARMUP_MS) {
+			shortfallPercent = Math.max(0, 100.0 * (targetRate - achievedRate) / targetRate);
+		}
+		boolean shortfall = shortfallPercent > SHORTFALL_PERCENT;
+		double clientCpuPercent = clientCpuLoad < 0 ? -1 : clientCpuLoad * 100.0;
+		double lateStartPercent = ops == 0 ? 0 : 100.0 * result.getNumLateStarts() / ops;
+		ConnectionPoolStats pool = result.getConnectionPool();
+		int poolPending = pool == null ? 0 : pool.getPending();
+		DistributionSummary poolWait = result.getPoolWait();
+		double poolWaitPercent = 0;
+		if (poolWait != null && ops > 0 && result.getAvgUs() > 0) {
+			poolWaitPercent = 100.0 * poolWait.getAvg() * poolWait.getCount() / ((double)result.getAvgUs() * ops);
+		}
+		ClientPauses pauses = result.getClientPauses();
+
+		List<Reason> reasons = new ArrayList<>();
+		if (shortfall && atThreadLimit) {
+			reasons.add(Reason.THREAD_CAP);
+		}
+		// Only operations which got a connection from the pool have a pool wait
+		if (poolPending > 0 && poolWait != null && (shortfall || poolWaitPercent > POOL_WAIT_PERCENT)) {
+			reasons.add(Reason.POOL_EXHAUSTED);
+		}
+		if (clientCpuPercent > CLIENT_CPU_PERCENT) {
+			reasons.add(Reason.CLIENT_CPU);
+		}
+		if (pauses != null && pauses.isPaused()) {
+			reasons.add(Reason.CLIENT_PAUSED);
+		}
+		if (shortfall && lateStartPercent > LATE_START_PERCENT) {
+			reasons.add(Reason.LATE_STARTS);
+		}
+
+		Status newStatus = !reasons.isEmpty() ? Status.CLIENT_SATURATED : shortfall ? Status.BELOW_TARGET : Status.OK;
+		Status oldStatus = status == null ? Status.OK : status.getStatus();
+		intervals++;
+		if (newStatus == Status.CLIENT_SATURATED) {
+			saturatedIntervals++;
+		}
+		status = new SaturationStatus(newStatus, Collections.unmodifiableList(reasons), result.getStartTimeMs(),
+				targetRate, achievedRate, shortfallPercent, poolPending, poolWaitPercent, clientCpuPercent,
+				lateStartPercent, saturatedIntervals, intervals);
+
+		if (newStatus == oldStatus) {
+			return Event.NONE;
+		}
+		switch (newStatus) {
+		case CLIENT_SATURATED:
+			return Event.SATURATED;
+		case BELOW_TARGET:
+			return Event.BELOW_TARGET;
+		default:
+			return Event.RECOVERED;
+		}
+	}
+
+	/**
+	 * The assessment of the last interval, or null if none has been assessed
+	 */
+	public synchronized SaturationStatus getStatus() {
+		return status;
+	}
+}
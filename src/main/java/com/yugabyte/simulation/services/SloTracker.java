@@ -0,0 +1,137 @@
+package com.yugabyte.simulation.services;
+
+import com.yugabyte.simulation.dao.SloDefinition;
+import com.yugabyte.simulation.dao.SloStatus;
+
+/**
+ * Evaluates a {@link SloDefinition} against each interval of a workload. Operations slower
+ * than the latency threshold and failed operations are counted as bad, and the burn rate is
+ * the ratio of bad operations over the window to the ratio the objective allows. Only counts
+ * are kept per interval, so the window costs a few longs per interval.
+ */
+public class SloTracker {
+	public enum Event {
+		NONE,
+		/** The objective has just been breached */
+		BREACHED,
+		/** The objective is still breached a window after the action was last taken */
+		STILL_BREACHED,
+		/** The objective is being met again */
+		RECOVERED
+	}
+
+	private final SloDefinition definition;
+	private final long thresholdUs;
+	private final long windowMs;
+	// Ring of the counts of each interval in the window
+	private final long[] totals;
+	private final long[] slow;
+	private final long[] failed;
+	private int next = 0;
+	private int filled = 0;
+	private long windowTotal = 0;
+	private long windowSlow = 0;
+	private long windowFailed = 0;
+	private long runTotal = 0;
+	private long runSlow = 0;
+	private long runFailed = 0;
+	private double latencyBurnRate = 0;
+	private double errorBurnRate = 0;
+	private boolean breached = false;
+	private int breachCount = 0;
+	private long lastBreachTime = 0;
+	private long lastActionTime = 0;
+	private int actionCount = 0;
+
+	public SloTracker(SloDefinition definition, long intervalMs) {
+		this.definition = definition;
+		this.thresholdUs = (long)(definition.getLatencyThresholdMs() * 1000);
+		this.windowMs = Math.max(1, definition.getWindowSeconds()) * 1000L;
+		int windowIntervals = (int)Math.max(1, (windowMs + intervalMs - 1) / intervalMs);
+		this.totals = new long[windowIntervals];
+		this.slow = new long[windowIntervals];
+		this.failed = new long[windowIntervals];
+	}
+
+	public SloDefinition getDefinition() {
+		return definition;
+	}
+
+	private double latencyBurnRate(long total, long slowCount) {
+		if (!definition.hasLatencyObjective() || total == 0) {
+			return 0;
+		}
+		return ((double)slowCount / total) / (1.0 - definition.getPercentile() / 100.0);
+	}
+
+	private double errorBurnRate(long total, long failedCount) {
+		if (!definition.hasErrorObjective() || total == 0) {
+			return 0;
+		}
+		return ((double)failedCount / total) / definition.getMaxErrorRatio();
+	}
+
+	/**
+	 * Add an interval to the window and evaluate the objective over it. The objective is not
+	 * evaluated until the window is full, so short bursts at startup do not count as breaches.
+	 * Latencies are judged by the response times where the workload has a schedule, so the
+	 * time operations spent waiting behind a stall counts against the objective.
+	 */
+	public synchronized Event evaluate(TimingSnapshot interval, long startTimeMs) {
+		LatencyHistogram latencies = interval.getResponseTimes().isEmpty() ? interval.getLatencies() : interval.getResponseTimes();
+		long total = latencies.getTotalCount();
+		long slowCount = definition.hasLatencyObjective() ? latencies.getCountAbove(thresholdUs) : 0;
+		long failedCount = interval.getFailureCount();
+
+		windowTotal += total - totals[next];
+		windowSlow += slowCount - slow[next];
+		windowFailed += failedCount - failed[next];
+		totals[next] = total;
+		slow[next] = slowCount;
+		failed[next] = failedCount;
+		next = (next + 1) % totals.length;
+		filled = Math.min(filled + 1, totals.length);
+		runTotal += total;
+		runSlow += slowCount;
+		runFailed += failedCount;
+
+		latencyBurnRate = latencyBurnRate(windowTotal, windowSlow);
+		errorBurnRate = errorBurnRate(windowTotal, windowFailed);
+		if (filled < totals.length) {
+			return Event.NONE;
+		}
+		boolean nowBreached = Math.max(latencyBurnRate, errorBurnRate) > 1.0;
+		if (nowBreached && !breached) {
+			breached = true;
+			breachCount++;
+			lastBreachTime = startTimeMs;
+			lastActionTime = startTimeMs;
+			actionCount++;
+			return Event.BREACHED;
+		}
+		if (nowBreached && definition.getAction() == SloDefinition.Action.REDUCE_RATE
+				&& startTimeMs - lastActionTime >= windowMs) {
+			// Give each reduction a full window to take effect before reducing again
+			lastBreachTime = startTimeMs;
+			lastActionTime = startTimeMs;
+			actionCount++;
+			return Event.STILL_BREACHED;
+		}
+		if (!nowBreached && breached) {
+			breached = false;
+			return Event.RECOVERED;
+		}
+		return Event.NONE;
+	}
+
+	public synchronized double getBurnRate() {
+		return Math.max(latencyBurnRate, errorBurnRate);
+	}
+
+	public synchronized SloStatus getStatus() {
+		double budgetConsumed = Math.max(latencyBurnRate(runTotal, runSlow), errorBurnRate(runTotal, runFailed));
+		return new SloStatus(definition.getName(), definition.toString(), definition.getAction().toString(),
+				getBurnRate(), latencyBurnRate, errorBurnRate, budgetConsumed, breached, breachCount,
+				lastBreachTime, actionCount);
+	}
+}
@@ -0,0 +1,156 @@
+package com.yugabyte.simulation.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.yugabyte.simulation.dao.SlowOperation;
+import com.yugabyte.simulation.dao.SlowOperationsResult;
+
+/**
+ * Keeps the slowest operations of a workload in each interval and over the whole run. The
+ * operations of the current interval are held in a min-heap of a fixed size. Once it is
+ * full, the latency of its fastest entry is published as a threshold which operations check
+ * without locking, so only operations slower than the slowest kept so far lock or allocate
+ * anything. In an interval of n operations that is about size * ln(n / size) of them.
+ * <p>
+ * Intervals are taken when the results are collated, so an operation finishing while its
+ * interval is being collated may be kept with the next interval.
+ */
+public class SlowOperationReservoir {
+	private static final Comparator<SlowOperation> SLOWEST_FIRST = Comparator.comparingLong(SlowOperation::getLatencyUs).reversed();
+	// Older intervals are only kept in the slow operations log
+	private static final int MAX_INTERVALS = 300;
+
+	private final int size;
+	private final SlowOperation[] interval;
+	private int intervalCount = 0;
+	private final SlowOperation[] run;
+	private int runCount = 0;
+	private final ArrayDeque<SlowOperationsResult.Interval> intervals = new ArrayDeque<>();
+	// Operations must be slower than this to be kept in the current interval
+	private volatile long thresholdUs;
+
+	public SlowOperationReservoir(int size) {
+		this.size = Math.max(0, size);
+		this.interval = new SlowOperation[this.size];
+		this.run = new SlowOperation[this.size];
+		this.thresholdUs = this.size == 0 ? Long.MAX_VALUE : -1;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Whether an operation this slow would be kept, checked before the operation's details
+	 * are gathered so faster operations cost a single volatile read.
+	 */
+	public boolean isCandidate(long latencyUs) {
+		return latencyUs > thresholdUs;
+	}
+
+	/**
+	 * Add to a min-heap of operations ordered by latency, replacing the fastest if it is full.
+	 * @return the new number of operations in the heap
+	 */
+	private static int offer(SlowOperation[] heap, int count, SlowOperation operation) {
+		if (count < heap.length) {
+			int child = count;
+			heap[child] = operation;
+			while (child > 0) {
+				int parent = (child - 1) / 2;
+				if (heap[parent].getLatencyUs() <= heap[child].getLatencyUs()) {
+					break;
+				}
+				swap(heap, parent, child);
+				child = parent;
+			}
+			return count + 1;
+		}
+		if (count == 0 || operation.getLatencyUs() <= heap[0].getLatencyUs()) {
+			return count;
+		}
+		heap[0] = operation;
+		int parent = 0;
+		while (true) {
+			int child = 2 * parent + 1;
+			if (child >= count) {
+				break;
+			}
+			if (child + 1 < count && heap[child + 1].getLatencyUs() < heap[child].getLatencyUs()) {
+				child++;
+			}
+			if (heap[parent].getLatencyUs() <= heap[child].getLatencyUs()) {
+				break;
+			}
+			swap(heap, parent, child);
+			parent = child;
+		}
+		return count;
+	}
+
+	private static void swap(SlowOperation[] heap, int i, int j) {
+		SlowOperation temp = heap[i];
+		heap[i] = heap[j];
+		heap[j] = temp;
+	}
+
+	private static List<SlowOperation> sorted(SlowOperation[] heap, int count) {
+		SlowOperation[] operations = Arrays.copyOf(heap, count);
+		Arrays.sort(operations, SLOWEST_FIRST);
+		return Arrays.asList(operations);
+	}
+
+	/**
+	 * Keep an operation in the current interval if it is one of the slowest so far.
+	 */
+	public synchronized void add(SlowOperation operation) {
+		if (!isCandidate(operation.getLatencyUs())) {
+			// Another thread raised the threshold since this was checked
+			return;
+		}
+		intervalCount = offer(interval, intervalCount, operation);
+		if (intervalCount == size) {
+			thresholdUs = interval[0].getLatencyUs();
+		}
+	}
+
+	/**
+	 * End the current interval, merging its operations into those of the run.
+	 * @return the slowest operations of the interval, slowest first
+	 */
+	public synchronized List<SlowOperation> nextInterval(long intervalStartTime) {
+		if (intervalCount == 0) {
+			return new ArrayList<>();
+		}
+		List<SlowOperation> operations = sorted(interval, intervalCount);
+		for (SlowOperation operation : operations) {
+			runCount = offer(run, runCount, operation);
+		}
+		Arrays.fill(interval, null);
+		intervalCount = 0;
+		thresholdUs = -1;
+		intervals.addLast(new SlowOperationsResult.Interval(intervalStartTime, operations));
+		while (intervals.size() > MAX_INTERVALS) {
+			intervals.removeFirst();
+		}
+		return operations;
+	}
+
+	/**
+	 * The slowest operations of the run and of the retained intervals starting at or after
+	 * the passed time.
+	 */
+	public synchronized SlowOperationsResult getResult(String workloadId, long fromTime) {
+		List<SlowOperationsResult.Interval> recent = new ArrayList<>();
+		for (SlowOperationsResult.Interval retained : intervals) {
+			if (retained.getStartTime() >= fromTime) {
+				recent.add(retained);
+			}
+		}
+		return new SlowOperationsResult(workloadId, size, sorted(run, runCount), recent);
+	}
+}
@@ -1,7 +1,51 @@
 package com.yugabyte.simulation.services;
 
+import java.sql.Connection;
+
 public interface Timer {
 	public Timer start();
+	/**
+	 * Start timing an operation which was scheduled to start at the passed time (from 
+	 * System.nanoTime()). As well as the service time, the response time from the intended
+	 * start is recorded, so delays in issuing the operation are not hidden.
+	 */
+	public Timer start(long intendedStartTimeNs);
+	/**
+	 * Mark the end of a named phase of the operation being timed. The phase is timed from 
+	 * the previous mark, or from the start if this is the first mark. Phases are reported
+	 * per interval when the operation ends.
+	 */
 	public Timer timeSubPortion(String description);
+	/**
+	 * Set the type of operation being timed, as returned from 
+	 * {@link com.yugabyte.simulation.workload.WorkloadTypeInstance#registerOperation(String)}. 
+	 * The operation is recorded against that type as well as the workload as a whole.
+	 */
+	public Timer setOperation(int operationOrdinal);
+	/**
+	 * Add time the operation spent waiting for a database connection from the pool. If any
+	 * is added, the latency of the operation is also recorded split into the pool wait and
+	 * the remainder, its execution.
+	 */
+	public Timer addPoolWait(long waitNs);
+	/**
+	 * The database connection the operation is using. If per worker stats are being collected
+	 * the host it is connected to is reported as the last host of the worker.
+	 */
+	public Timer setConnection(Connection connection);
+	/**
+	 * Count rows and bytes processed by the operation, such as the rows returned by a query.
+	 * This can be called any number of times in an operation, the counts are added together.
+	 * Pass 0 bytes if the size is not known. See {@link RowCounting} for helpers.
+	 */
+	public Timer addRows(long rows, long bytes);
+	/**
+	 * Describe what the operation is doing, so it can be reproduced if it is one of the
+	 * slowest operations of its interval. The key's toString() is only called if the operation
+	 * is kept, so passing the key object costs nothing. Calling this again replaces the context.
+	 * @param statement a short name for the statement or query run, such as its constant name
+	 * @param key the key or other parameter the operation used, may be null
+	 */
+	public Timer setContext(String statement, Object key);
 	public long end(ExecutionStatus status, int workloadOrdinal);
 }
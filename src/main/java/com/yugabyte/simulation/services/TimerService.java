@@ -1,99 +1,422 @@
 package com.yugabyte.simulation.services;
 
-import java.util.ArrayList;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.yugabyte.simulation.dao.ClientPauses;
+import com.yugabyte.simulation.dao.ConnectionPoolStats;
+import com.yugabyte.simulation.dao.SlowOperation;
 import com.yugabyte.simulation.dao.TimerResult;
 import com.yugabyte.simulation.workload.WorkloadTypeInstance;
 
 @Service
-public class TimerService {
+public class TimerService implements TimerServiceMXBean {
 	
 	@Autowired
 	private LoggingFileManager loggingManager;
 	
+	@Autowired
+	private PauseMonitor pauseMonitor;
+	
+	@Autowired
+	private ConnectionPoolMonitor poolMonitor;
+	
+	@Value("${simulation.results-interval-ms:1000}")
+	private int resultsIntervalMs;
+	private static final int MIN_RESULTS_INTERVAL_MS = 100;
+	@Value("${simulation.results-retention-minutes:60}")
+	private int resultsRetentionMinutes;
+	
+	@Value("${simulation.worker-stats:false}")
+	private boolean workerStatsEnabled;
+	
+	@Value("${simulation.client-cost:false}")
+	private boolean clientCostEnabled;
+	private boolean allocationsSupported;
+	private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+	
+	@Value("${simulation.slow-operations:10}")
+	private int slowOperationCount;
+	
+	@Value("${simulation.jfr-events:false}")
+	private boolean jfrEventsEnabled;
+	@Value("${simulation.jfr-sample-rate:1.0}")
+	private double jfrSampleRate;
+	// Only set if Flight Recorder events are enabled and available
+	private FlightRecorderBridge flightRecorder;
+	
+	private static final java.lang.management.OperatingSystemMXBean OS_MX_BEAN = ManagementFactory.getOperatingSystemMXBean();
+	// The CPU used by this process over the last interval as a fraction of the machine
+	private volatile double clientCpuLoad = -1;
+	
+	private volatile long lastCollationTimeMs = 0;
+	private volatile long maxCollationTimeMs = 0;
+	
+	// Operations starting within this long of their scheduled time are not counted as late
+	private static final long LATE_START_TOLERANCE_NS = 1_000_000;
+	// Any further phases marked in a single operation are ignored
+	private static final int MAX_PHASES_PER_OPERATION = 16;
+	
+	private static final ThreadLocal<TimerImpl> currentTimer = new ThreadLocal<>();
+	
+	private static class NoOpTimer implements Timer {
+		@Override
+		public Timer start() {
+			return this;
+		}
+		@Override
+		public Timer start(long intendedStartTimeNs) {
+			return this;
+		}
+		@Override
+		public Timer timeSubPortion(String description) {
+			return this;
+		}
+		@Override
+		public Timer setOperation(int operationOrdinal) {
+			return this;
+		}
+		@Override
+		public Timer addPoolWait(long waitNs) {
+			return this;
+		}
+		@Override
+		public Timer setConnection(Connection connection) {
+			return this;
+		}
+		@Override
+		public Timer addRows(long rows, long bytes) {
+			return this;
+		}
+		@Override
+		public Timer setContext(String statement, Object key) {
+			return this;
+		}
+		@Override
+		public long end(ExecutionStatus status, int workloadOrdinal) {
+			return 0;
+		}
+	}
+	private static final Timer NO_OP_TIMER = new NoOpTimer();
+	
 	private class TimerImpl implements Timer {
-		private final List<SubPartTime> subPartsTimes = new ArrayList<>();
+		// Phases are held in fixed arrays so marking a phase does not allocate
+		private final String[] phaseNames = new String[MAX_PHASES_PER_OPERATION];
+		private final long[] phaseTimes = new long[MAX_PHASES_PER_OPERATION];
+		private int phaseCount;
+		private long lastPhaseTime;
+		private boolean running;
+		private int operationOrdinal;
+		// Negative if no connection has been obtained in this operation
+		private long poolWaitTime;
+		// Only used if per worker stats are enabled, created on the first operation
+		private WorkerStats workerStats;
+		private int workerStatsOrdinal;
+		// The thread's CPU time and allocations when the operation started, if measured
+		private long startCpuTime;
+		private long startAllocatedBytes;
+		// Negative if the operation has not reported any rows
+		private long rowCount;
+		private long byteCount;
+		// Only created if a Flight Recorder recording is running and this operation is sampled.
+		// An OperationEvent, held as an Object so this class loads on JVMs without jdk.jfr
+		private Object event;
+		// Only kept to describe the operation if it is one of the slowest
+		private String contextStatement;
+		private Object contextKey;
+		private String connectionUrl;
 		
 		public TimerImpl() {
 		}
 		private long startTime;
+		private long intendedStartTime;
+		private boolean scheduled;
+		
+		private void begin() {
+			// The timer's own bookkeeping is done before the start time is taken, and in end()
+			// after the time is taken, so it is not counted in the latency of the operation
+			this.phaseCount = 0;
+			this.operationOrdinal = NO_OPERATION;
+			this.poolWaitTime = -1;
+			this.rowCount = -1;
+			this.byteCount = 0;
+			this.contextStatement = null;
+			this.contextKey = null;
+			this.connectionUrl = null;
+			if (currentTimer.get() != this) {
+				currentTimer.set(this);
+			}
+			event = null;
+			if (jfrEventsEnabled && flightRecorder.isOperationRecorded() 
+					&& (jfrSampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < jfrSampleRate)) {
+				event = flightRecorder.beginOperation();
+			}
+			if (clientCostEnabled) {
+				startAllocatedBytes = getCurrentThreadAllocatedBytes();
+				startCpuTime = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+			}
+			this.startTime = System.nanoTime();
+			this.lastPhaseTime = startTime;
+			if (workerStats != null) {
+				workerStats.start(startTime);
+			}
+			this.running = true;
+		}
 		
 		@Override
 		public Timer start() {
-			this.startTime = System.nanoTime();
+			this.begin();
+			this.scheduled = false;
+			return this;
+		}
+
+		@Override
+		public Timer start(long intendedStartTimeNs) {
+			this.begin();
+			this.intendedStartTime = intendedStartTimeNs;
+			this.scheduled = true;
 			return this;
 		}
 
 		@Override
 		public Timer timeSubPortion(String description) {
-			this.subPartsTimes.add(new SubPartTime(description,
-					System.nanoTime() - startTime));
+			if (running && phaseCount < MAX_PHASES_PER_OPERATION) {
+				long now = System.nanoTime();
+				phaseNames[phaseCount] = description;
+				phaseTimes[phaseCount] = (now - lastPhaseTime)/1000;
+				phaseCount++;
+				lastPhaseTime = now;
+			}
 			return this;
 		}
 		
+		@Override
+		public Timer setOperation(int operationOrdinal) {
+			this.operationOrdinal = operationOrdinal;
+			return this;
+		}
+		
+		@Override
+		public Timer addPoolWait(long waitNs) {
+			if (running) {
+				poolWaitTime = Math.max(poolWaitTime, 0) + waitNs;
+			}
+			return this;
+		}
+		
+		@Override
+		public Timer setConnection(Connection connection) {
+			if (running && (workerStats != null || slowOperationCount > 0)) {
+				try {
+					connectionUrl = connection.getMetaData().getURL();
+					if (workerStats != null) {
+						workerStats.setHost(WorkerStats.getHost(connectionUrl));
+					}
+				}
+				catch (SQLException e) {
+				}
+			}
+			return this;
+		}
+		
+		@Override
+		public Timer setContext(String statement, Object key) {
+			if (running) {
+				contextStatement = statement;
+				contextKey = key;
+			}
+			return this;
+		}
+		
+		@Override
+		public Timer addRows(long rows, long bytes) {
+			if (running) {
+				rowCount = Math.max(rowCount, 0) + rows;
+				byteCount += bytes;
+			}
+			return this;
+		}
+		
+		private void commitEvent(int workloadOrdinal, ExecutionStatus status) {
+			if (flightRecorder.endOperation(event)) {
+				String workloadId = accumulator.resultsReverseOrdinals.get(workloadOrdinal);
+				flightRecorder.commitOperation(event, workloadId, getOperationName(workloadId), status.name());
+			}
+			event = null;
+		}
+		
+		private String getOperationName(String workloadId) {
+			if (operationOrdinal == NO_OPERATION) {
+				return null;
+			}
+			String operation = accumulator.resultsReverseOrdinals.get(operationOrdinal);
+			// Operations are timed under the name workloadId/operation
+			return operation == null || workloadId == null ? operation : operation.substring(workloadId.length() + 1);
+		}
+		
+		private void recordSlowOperation(long now, long time, int workloadOrdinal, ExecutionStatus status) {
+			SlowOperationReservoir[] reservoirs = accumulator.slowOperations;
+			SlowOperationReservoir reservoir = workloadOrdinal < reservoirs.length ? reservoirs[workloadOrdinal] : null;
+			if (reservoir == null || !reservoir.isCandidate(time/1000)) {
+				return;
+			}
+			String workloadId = accumulator.resultsReverseOrdinals.get(workloadOrdinal);
+			long responseTime = scheduled ? Math.max(time, now - intendedStartTime)/1000 : -1;
+			reservoir.add(new SlowOperation(System.currentTimeMillis() - time/1_000_000, time/1000, responseTime,
+					status.name(), getOperationName(workloadId), contextStatement,
+					contextKey == null ? null : contextKey.toString(),
+					connectionUrl == null ? null : WorkerStats.getHost(connectionUrl), Thread.currentThread().getName()));
+		}
+		
+		private void recordWorkerStats(long now, int workloadOrdinal, ExecutionStatus status) {
+			if (workerStats == null || workerStatsOrdinal != workloadOrdinal) {
+				WorkloadTypeInstance workload = accumulator.getWorkload(workloadOrdinal);
+				if (workload == null) {
+					return;
+				}
+				workerStats = new WorkerStats(Thread.currentThread().getName());
+				workerStatsOrdinal = workloadOrdinal;
+				workload.registerWorker(workerStats);
+			}
+			else if (workerStats.isRemoved()) {
+				WorkloadTypeInstance workload = accumulator.getWorkload(workloadOrdinal);
+				if (workload != null) {
+					workerStats.setRemoved(false);
+					workload.registerWorker(workerStats);
+				}
+			}
+			workerStats.record(startTime, now, status);
+		}
+		
 		@Override
 		public long end(ExecutionStatus status, int workloadOrdinal) {
-			long time = System.nanoTime() - startTime;
-			TimerService.this.submitResult(time/1000, workloadOrdinal, status);
+			long now = System.nanoTime();
+			long time = now - startTime;
+			if (clientCostEnabled) {
+				// Sampled in the reverse order to begin() so neither includes the other
+				long cpuTime = THREAD_MX_BEAN.getCurrentThreadCpuTime() - startCpuTime;
+				long allocatedBytes = getCurrentThreadAllocatedBytes() - startAllocatedBytes;
+				accumulator.submitClientCost(workloadOrdinal, operationOrdinal, cpuTime, allocatedBytes);
+			}
+			running = false;
+			if (event != null) {
+				commitEvent(workloadOrdinal, status);
+			}
+			if (workerStatsEnabled) {
+				recordWorkerStats(now, workloadOrdinal, status);
+			}
+			if (slowOperationCount > 0) {
+				recordSlowOperation(now, time, workloadOrdinal, status);
+			}
+			if (phaseCount > 0) {
+				accumulator.submitPhases(workloadOrdinal, phaseNames, phaseTimes, phaseCount);
+			}
+			if (rowCount >= 0) {
+				accumulator.submitRows(workloadOrdinal, operationOrdinal, rowCount, byteCount);
+			}
+			// Integer division would turn the -1 of an operation which took no connection into 0
+			long poolWaitInUs = poolWaitTime < 0 ? -1 : poolWaitTime/1000;
+			if (scheduled) {
+				long responseTime = Math.max(time, now - intendedStartTime);
+				boolean late = startTime - intendedStartTime > LATE_START_TOLERANCE_NS;
+				accumulator.submitResult(time/1000, responseTime/1000, late, poolWaitInUs, workloadOrdinal, operationOrdinal, status);
+			}
+			else {
+				accumulator.submitResult(time/1000, -1, false, poolWaitInUs, workloadOrdinal, operationOrdinal, status);
+			}
 			return time;
 		}
 	}
 
-	private final int AGGREGATE_ORDINAL = 0;
+	private static final int NO_OPERATION = -1;
 	
 //	private final Map<String, List<TimerResult>> timingResults;
-	private static final int MAX_RESULTS_PER_SECOND = 250000;
+	// How long results are retained for
 	private static final int MAX_RESULTS_SECONDS = 86400;
-	private class TimingInstancePerSecond {
-		long[] currentSuccesses;
-		long[] currentFailures;
-		int currentSuccessesCount;
-		int currentFailuresCount;
+	/**
+	 * A workload whose results are the merged results of other workloads, or of some of
+	 * their operations. Merging is done when intervals are collated, so aggregates cost
+	 * nothing when recording and their percentiles are those of the merged distributions.
+	 */
+	private static class Aggregate {
+		final WorkloadTypeInstance workload;
+		final Predicate<WorkloadTypeInstance> workloads;
+		// Null to include the whole of each workload
+		final Predicate<String> operations;
+		final TimingSnapshot snapshot = new TimingSnapshot();
+		
+		Aggregate(WorkloadTypeInstance workload, Predicate<WorkloadTypeInstance> workloads, Predicate<String> operations) {
+			this.workload = workload;
+			this.workloads = workloads;
+			this.operations = operations;
+		}
 		
-		public TimingInstancePerSecond() {
-			currentSuccesses = new long[MAX_RESULTS_PER_SECOND];
-			currentFailures = new long[MAX_RESULTS_PER_SECOND];
-			currentSuccessesCount = 0;
-			currentFailuresCount = 0;
+		boolean includesWorkload(WorkloadTypeInstance member) {
+			return operations == null && workloads.test(member);
+		}
+		
+		boolean includesOperation(WorkloadTypeInstance member, String operation) {
+			return operations != null && workloads.test(member) && operations.test(operation);
 		}
 	}
 	
 	private class ResultsAccumulator {
-		boolean use1stResult = true;
 		final Map<String, Integer> resultsOrdinals;
 		final Map<Integer, String> resultsReverseOrdinals;
 		final Map<String, WorkloadTypeInstance> workloadMap;
-		final List<TimingInstancePerSecond>[] timings;
-//		long[][] currentSuccesses;
-//		long[][] currentFailures;
-//		int[] successCount;
-//		int[] failureCount;
+		// Indexed by workload ordinal. Copied on write so the recording path never locks.
+		volatile IntervalRecorder[] recorders;
+		// Indexed by workload ordinal, the reservoirs belong to the workloads. Also copied on write.
+		volatile SlowOperationReservoir[] slowOperations;
+		final TimingSnapshot snapshot;
+		// Operation ordinals of each workload, keyed by workload id then operation name
+		final Map<String, Map<String, Integer>> operations;
+		// Workloads whose results CSV has been created. This is deferred to the first results
+		// so operations registered after the workload was created have their columns.
+		final Set<String> csvLogs;
+		// Workloads whose errors CSV has been created, this is only done once they report errors
+		final Set<String> errorLogs;
+		// Workloads whose phases CSV has been created, this is only done once they report phases
+		final Set<String> phaseLogs;
+		// Workloads whose interval histogram log has been created
+		final Set<String> histogramLogs;
+		// Workloads whose slow operations log has been created, this is only done once they have some
+		final Set<String> slowLogs;
+		// Keyed by the workload id of the aggregate
+		final Map<String, Aggregate> aggregates;
 		
-		@SuppressWarnings("unchecked")
 		public ResultsAccumulator() {
-			timings = new ArrayList[2];
-			timings[0] = new ArrayList<TimingInstancePerSecond>();
-			timings[1] = new ArrayList<TimingInstancePerSecond>();
+			recorders = new IntervalRecorder[0];
+			slowOperations = new SlowOperationReservoir[0];
+			snapshot = new TimingSnapshot();
 			resultsOrdinals = new ConcurrentHashMap<>();
 			resultsReverseOrdinals = new ConcurrentHashMap<>();
 			workloadMap = new ConcurrentHashMap<String, WorkloadTypeInstance>();
-
-//			getResultIndexForName(AGGREGATE_METRIC_NAME);
-			
-//			currentSuccesses = new long[2][];
-//			currentSuccesses[0] = new long[MAX_RESULTS_PER_SECOND];
-//			currentSuccesses[1] = new long[MAX_RESULTS_PER_SECOND];
-//			currentFailures = new long[2][];
-//			currentFailures[0] = new long[MAX_RESULTS_PER_SECOND];
-//			currentFailures[1] = new long[MAX_RESULTS_PER_SECOND];
-//			successCount = new int[] {0, 0};
-//			failureCount = new int[] {0, 0};
+			operations = new ConcurrentHashMap<>();
+			csvLogs = ConcurrentHashMap.newKeySet();
+			errorLogs = ConcurrentHashMap.newKeySet();
+			phaseLogs = ConcurrentHashMap.newKeySet();
+			histogramLogs = ConcurrentHashMap.newKeySet();
+			slowLogs = ConcurrentHashMap.newKeySet();
+			aggregates = new ConcurrentHashMap<>();
 		}
 
 		public int getNextAvailableResultIndex() {
@@ -102,121 +425,253 @@ public class TimerService {
 			return i;
 		}
 		
-		public int getResultIndexForName(String name) {
+		public synchronized int getResultIndexForName(String name) {
 			Integer value = resultsOrdinals.get(name);
 			if (value != null) {
 				return value;
 			}
 			else {
 				int result = getNextAvailableResultIndex();
+				IntervalRecorder[] newRecorders = Arrays.copyOf(recorders, Math.max(recorders.length, result+1));
+				newRecorders[result] = new IntervalRecorder();
+				recorders = newRecorders;
 				resultsOrdinals.put(name, result);
 				resultsReverseOrdinals.put(result, name);
-				if (result >= timings[0].size()) {
-					timings[0].add(new TimingInstancePerSecond());
-					timings[1].add(new TimingInstancePerSecond());
-				}
-				else {
-					timings[0].set(result, new TimingInstancePerSecond());
-					timings[1].set(result, new TimingInstancePerSecond());
-				}
 				return result;
 			}
 		}
 		
-		int getCurrentIndex() {
-			return use1stResult ? 0 : 1;
-		}
+		void submitResult(long timeInUs, int workloadOrdinal, ExecutionStatus status) {
+			this.submitResult(timeInUs, -1, false, -1, workloadOrdinal, NO_OPERATION, status);
+ 		}
 		
-		void swapIndex() {
-			this.use1stResult = !use1stResult;
-//			successCount[newIndex] = 0;
-//			failureCount[newIndex] = 0;
-		}
+		void submitResult(long timeInUs, long responseTimeInUs, boolean lateStart, long poolWaitInUs, 
+				int workloadOrdinal, int operationOrdinal, ExecutionStatus status) {
+			IntervalRecorder[] recorders = this.recorders;
+			recorders[workloadOrdinal].record(timeInUs, responseTimeInUs, lateStart, poolWaitInUs, status);
+			if (operationOrdinal != NO_OPERATION) {
+				recorders[operationOrdinal].record(timeInUs, responseTimeInUs, lateStart, poolWaitInUs, status);
+			}
+ 		}
 		
-		void submitResult(long timeInUs, int workloadOrdinal, ExecutionStatus status) {
-			int index = this.getCurrentIndex();
-			int count;
-			TimingInstancePerSecond timings = this.timings[index].get(workloadOrdinal);
-
-			synchronized(timings) {
-				switch (status) {
-				case SUCCESS:
-					count = timings.currentSuccessesCount; 
-					if (count < MAX_RESULTS_PER_SECOND) {
-						timings.currentSuccesses[count] = timeInUs;
-						timings.currentSuccessesCount++;
-					}
-					break;
-				case ERROR:
-					count = timings.currentFailuresCount; 
-					if (count < MAX_RESULTS_PER_SECOND) {
-						timings.currentFailures[count] = timeInUs;
-						timings.currentFailuresCount++;
-					}
-					break;
-				}
+		void submitClientCost(int workloadOrdinal, int operationOrdinal, long cpuTimeNs, long allocatedBytes) {
+			IntervalRecorder[] recorders = this.recorders;
+			recorders[workloadOrdinal].recordClientCost(cpuTimeNs, allocatedBytes);
+			if (operationOrdinal != NO_OPERATION) {
+				recorders[operationOrdinal].recordClientCost(cpuTimeNs, allocatedBytes);
 			}
-			if (workloadOrdinal != AGGREGATE_ORDINAL) {
-				// We need to redo this with the aggregate results
-				submitResult(timeInUs, 0, status);
+		}
+		
+		void submitRows(int workloadOrdinal, int operationOrdinal, long rows, long bytes) {
+			IntervalRecorder[] recorders = this.recorders;
+			recorders[workloadOrdinal].recordRows(rows, bytes);
+			if (operationOrdinal != NO_OPERATION) {
+				recorders[operationOrdinal].recordRows(rows, bytes);
 			}
- 		}
+		}
+		
+		void submitPhases(int workloadOrdinal, String[] names, long[] timesInUs, int count) {
+			// Phases are specific to a workload so are not added to the aggregate
+			this.recorders[workloadOrdinal].recordPhases(names, timesInUs, count);
+		}
+		
+		void submitError(int workloadOrdinal, String errorType) {
+			this.recorders[workloadOrdinal].recordError(errorType);
+		}
 		
 		void submitResult(long timeInUs, String workloadId, ExecutionStatus status) {
 			Integer index = this.resultsOrdinals.get(workloadId);
 			this.submitResult(timeInUs, index == null? 0 : index, status);
 		}
 
+		WorkloadTypeInstance getWorkload(int workloadOrdinal) {
+			String workloadId = resultsReverseOrdinals.get(workloadOrdinal);
+			return workloadId == null ? null : workloadMap.get(workloadId);
+		}
+		
 		public synchronized int addTimingWokload(WorkloadTypeInstance workload) {
 			int index = getResultIndexForName(workload.getWorkloadId());
 			workloadMap.put(workload.getWorkloadId(), workload);
-			loggingManager.createFile(workload.getWorkloadId(), workload.getCsvHeader());
+			setSlowOperations(index, workload.getSlowOperationReservoir());
 			return index;
 		}
+		
+		private synchronized void setSlowOperations(int ordinal, SlowOperationReservoir reservoir) {
+			SlowOperationReservoir[] newReservoirs = Arrays.copyOf(slowOperations, Math.max(slowOperations.length, ordinal+1));
+			newReservoirs[ordinal] = reservoir;
+			slowOperations = newReservoirs;
+		}
+		
+		public synchronized void addAggregate(WorkloadTypeInstance workload, Predicate<WorkloadTypeInstance> workloads, 
+				Predicate<String> operations) {
+			aggregates.put(workload.getWorkloadId(), new Aggregate(workload, workloads, operations));
+		}
+		
+		public synchronized int addOperation(WorkloadTypeInstance workload, String name) {
+			Map<String, Integer> workloadOperations = operations.get(workload.getWorkloadId());
+			if (workloadOperations == null) {
+				workloadOperations = Collections.synchronizedMap(new LinkedHashMap<>());
+				operations.put(workload.getWorkloadId(), workloadOperations);
+			}
+			Integer ordinal = workloadOperations.get(name);
+			if (ordinal == null) {
+				ordinal = getResultIndexForName(workload.getWorkloadId() + "/" + name);
+				workloadOperations.put(name, ordinal);
+			}
+			return ordinal;
+		}
 
 		public synchronized void removeTimingWorkload(WorkloadTypeInstance workload) {
-			workloadMap.remove(workload.getWorkloadId());
-			loggingManager.closeFile(workload.getWorkloadId());
+			if (workloadMap.remove(workload.getWorkloadId()) != null) {
+				workload.timingComplete();
+			}
+			if (csvLogs.remove(workload.getWorkloadId())) {
+				loggingManager.closeFile(workload.getWorkloadId());
+			}
+			if (phaseLogs.remove(workload.getWorkloadId())) {
+				loggingManager.closeFile(getPhasesLogId(workload.getWorkloadId()));
+			}
+			if (errorLogs.remove(workload.getWorkloadId())) {
+				loggingManager.closeFile(getErrorsLogId(workload.getWorkloadId()));
+			}
+			if (histogramLogs.remove(workload.getWorkloadId())) {
+				loggingManager.closeFile(getHistogramLogId(workload.getWorkloadId()));
+			}
+			if (slowLogs.remove(workload.getWorkloadId())) {
+				loggingManager.closeFile(getSlowLogId(workload.getWorkloadId()));
+			}
+			aggregates.remove(workload.getWorkloadId());
 			int ordinal = resultsOrdinals.remove(workload.getWorkloadId());
+			setSlowOperations(ordinal, null);
 			resultsReverseOrdinals.remove(ordinal);
+			Map<String, Integer> workloadOperations = operations.remove(workload.getWorkloadId());
+			if (workloadOperations != null) {
+				for (String name : workloadOperations.keySet()) {
+					int operationOrdinal = resultsOrdinals.remove(workload.getWorkloadId() + "/" + name);
+					resultsReverseOrdinals.remove(operationOrdinal);
+				}
+			}
+		}
+
+		private void publishIntervalResults(WorkloadTypeInstance workload, TimingSnapshot snapshot, 
+				Map<String, TimerResult> operationResults, long startTime, long now, long sampleStartTime, 
+				long durationMs, ClientPauses pauses, ConnectionPoolStats poolStats) {
+			String workloadId = workload.getWorkloadId();
+			snapshot.addPauses(pauses);
+			if (poolStats != null) {
+				snapshot.addPoolStats(poolStats);
+			}
+			TimerResult result = new TimerResult(snapshot, sampleStartTime, durationMs, operationResults);
+			
+			if (result.getNumFailed() + result.getNumSucceeded() > 0) {
+				System.out.printf("%,dms: %s: %s", 
+						now - startTime,
+						workloadId,
+						result.toString());
+			}
+			
+			TimerResult newResult = workload.submitTimingResult(result, snapshot);
+			if (csvLogs.add(workloadId)) {
+				loggingManager.createFile(workloadId, workload.getResultsCsvHeader());
+			}
+			loggingManager.writeLine(workloadId, workload.formatResultToCsv(newResult));
+			if (loggingManager.isDoLogging()) {
+				String histogramLogId = getHistogramLogId(workloadId);
+				if (histogramLogs.add(workloadId)) {
+					loggingManager.createFile(histogramLogId, HistogramLogFormat.HEADER, HistogramLogFormat.FILE_EXTENSION);
+				}
+				loggingManager.writeLine(histogramLogId, HistogramLogFormat.formatLine(
+						sampleStartTime, durationMs, snapshot.getFailureCount(), snapshot.getLatencies()));
+			}
+			if (!result.getPhases().isEmpty()) {
+				String phasesLogId = getPhasesLogId(workloadId);
+				if (phaseLogs.add(workloadId)) {
+					loggingManager.createFile(phasesLogId, TimerResult.PHASES_CSV_HEADER);
+				}
+				loggingManager.writeLine(phasesLogId, result.phasesToCsv());
+			}
+			if (!result.getErrors().isEmpty()) {
+				String errorsLogId = getErrorsLogId(workloadId);
+				if (errorLogs.add(workloadId)) {
+					loggingManager.createFile(errorsLogId, TimerResult.ERRORS_CSV_HEADER);
+				}
+				loggingManager.writeLine(errorsLogId, result.errorsToCsv());
+			}
+			List<SlowOperation> slowest = workload.getSlowOperationReservoir().nextInterval(sampleStartTime);
+			if (!slowest.isEmpty()) {
+				String slowLogId = getSlowLogId(workloadId);
+				if (slowLogs.add(workloadId)) {
+					loggingManager.createFile(slowLogId, SlowOperation.CSV_HEADER);
+				}
+				StringBuilder lines = new StringBuilder();
+				for (SlowOperation operation : slowest) {
+					lines.append(operation.toCsv(sampleStartTime));
+				}
+				loggingManager.writeLine(slowLogId, lines.toString());
+			}
+			if (workload.isTerminated()) {
+				removeTimingWorkload(workload);
+			}
 		}
 
-		public synchronized void accumulateIntervalResults(long startTime, long sampleStartTime) {
-			// Need to swap the results over.
+		public synchronized void accumulateIntervalResults(long startTime, long sampleStartTime, long durationMs) {
 			long now = System.currentTimeMillis();
-			int indexToAccumulate = getCurrentIndex();
-			swapIndex();
+			IntervalRecorder[] recorders = this.recorders;
+			// Pauses of this JVM affect every workload equally
+			ClientPauses pauses = pauseMonitor.nextInterval();
+			ConnectionPoolStats poolStats = poolMonitor.sample();
+			clientCpuLoad = sampleClientCpuLoad();
+			if (pauses.isPaused()) {
+				System.out.printf("%,dms: Client JVM paused for up to %,dus (%,dus in GC), latencies in this interval include the pause\n",
+						now - startTime, Math.max(pauses.getMaxUs(), pauses.getGcMaxUs()), pauses.getGcTotalUs());
+			}
 			
-			for (String workloadId : this.resultsOrdinals.keySet()) {
+			Collection<Aggregate> aggregates = this.aggregates.values();
+			for (Aggregate aggregate : aggregates) {
+				aggregate.snapshot.reset();
+			}
+			for (WorkloadTypeInstance workload : this.workloadMap.values()) {
+				String workloadId = workload.getWorkloadId();
+				if (this.aggregates.containsKey(workloadId)) {
+					continue;
+				}
 				int index = this.resultsOrdinals.get(workloadId);
-				TimingInstancePerSecond timingsToAnalyze = timings[indexToAccumulate].get(index);
-				TimerResult result = new TimerResult(
-						timingsToAnalyze.currentSuccesses,
-						timingsToAnalyze.currentSuccessesCount,
-						timingsToAnalyze.currentFailures,
-						timingsToAnalyze.currentFailuresCount,
-						sampleStartTime
-				);
-				
-				timingsToAnalyze.currentFailuresCount = 0;
-				timingsToAnalyze.currentSuccessesCount = 0;
-				
-				if (result.getNumFailed() + result.getNumSucceeded() > 0) {
-					System.out.printf("%,dms: %s: %s", 
-							now - startTime,
-							workloadId,
-							result.toString());
+				Map<String, TimerResult> operationResults = Collections.emptyMap();
+				Map<String, Integer> workloadOperations = operations.get(workloadId);
+				if (workloadOperations != null) {
+					operationResults = new LinkedHashMap<>();
+					synchronized (workloadOperations) {
+						for (Map.Entry<String, Integer> operation : workloadOperations.entrySet()) {
+							snapshot.reset();
+							recorders[operation.getValue()].snapshotInto(snapshot);
+							for (Aggregate aggregate : aggregates) {
+								if (aggregate.includesOperation(workload, operation.getKey())) {
+									aggregate.snapshot.add(snapshot, false);
+								}
+							}
+							operationResults.put(operation.getKey(), new TimerResult(snapshot, sampleStartTime, durationMs));
+						}
+					}
 				}
-				
-				WorkloadTypeInstance workload = workloadMap.get(workloadId);
-				if (workload != null) {
-					TimerResult newResult = workload.submitTimingResult(result, MAX_RESULTS_SECONDS);
-					loggingManager.writeLine(workload.getWorkloadId(), workload.formatToCsv(newResult));
+				snapshot.reset();
+				recorders[index].snapshotInto(snapshot);
+				for (Aggregate aggregate : aggregates) {
+					if (aggregate.includesWorkload(workload)) {
+						// Phases are specific to a workload so are not added to the aggregate
+						aggregate.snapshot.add(snapshot, false);
+					}
 				}
-				if (workload.isTerminated()) {
-					removeTimingWorkload(workload);
+				publishIntervalResults(workload, snapshot, operationResults, startTime, now, sampleStartTime, durationMs, pauses, poolStats);
+			}
+			// Aggregates are published once all their members have been merged into them
+			for (Aggregate aggregate : aggregates) {
+				Integer index = this.resultsOrdinals.get(aggregate.workload.getWorkloadId());
+				if (index != null) {
+					// Anything recorded against the aggregate directly
+					recorders[index].snapshotInto(aggregate.snapshot);
+					publishIntervalResults(aggregate.workload, aggregate.snapshot, Collections.emptyMap(), 
+							startTime, now, sampleStartTime, durationMs, pauses, poolStats);
 				}
-
 			}
 		
 //			for (TimerType thisType : accumulators.keySet()) {
@@ -263,20 +718,36 @@ public class TimerService {
 //	private Map<Long, Long> threadStartTimes = new ConcurrentHashMap<Long, Long>();
 //	private WorkloadDesc activeWorkload = null;
 	
+	/**
+	 * Closes an interval every resultsIntervalMs. Intervals are aligned to multiples of the 
+	 * interval since the epoch and each sleep is to the next boundary rather than for a fixed 
+	 * time, so intervals do not drift and results from different processes cover the same
+	 * periods.
+	 */
 	private class ResultsCollator implements Runnable {
 		private long startTime;
 		@Override
 		public void run() {
 			this.startTime = System.currentTimeMillis();
+			long intervalStart = startTime - startTime % resultsIntervalMs;
 			while (true) {
-				long sampleStartTime = System.currentTimeMillis();
+				long intervalEnd = intervalStart + resultsIntervalMs;
+				long now;
 				try {
-					Thread.sleep(1000);
+					while ((now = System.currentTimeMillis()) < intervalEnd) {
+						Thread.sleep(intervalEnd - now);
+					}
 				}
 				catch (InterruptedException ie) {
 					break;
 				}
-				accumulator.accumulateIntervalResults(startTime, sampleStartTime);
+				// If we were held up past further boundaries the interval is extended to the 
+				// latest one, its duration will reflect this.
+				intervalEnd = now - now % resultsIntervalMs;
+				accumulator.accumulateIntervalResults(startTime, intervalStart, intervalEnd - intervalStart);
+				lastCollationTimeMs = System.currentTimeMillis() - now;
+				maxCollationTimeMs = Math.max(maxCollationTimeMs, lastCollationTimeMs);
+				intervalStart = intervalEnd;
 			}
 		}
 	}
@@ -291,7 +762,25 @@ public class TimerService {
 //		this.accumulators.put(TimerType.WORKLOAD1, new ResultsAccumulator());
 
 		this.accumulator = new ResultsAccumulator();
-		
+	}
+	
+	@PostConstruct
+	public void startCollator() {
+		if (resultsIntervalMs < MIN_RESULTS_INTERVAL_MS) {
+			System.out.printf("Results interval of %dms is too small, using %dms\n", resultsIntervalMs, MIN_RESULTS_INTERVAL_MS);
+			resultsIntervalMs = MIN_RESULTS_INTERVAL_MS;
+		}
+		if (clientCostEnabled) {
+			enableClientCost();
+		}
+		if (jfrEventsEnabled) {
+			flightRecorder = FlightRecorderService.getBridge();
+			jfrEventsEnabled = flightRecorder != null;
+			if (!jfrEventsEnabled) {
+				System.out.printf("Flight Recorder is not available, operation events will not be emitted\n");
+			}
+		}
+		MBeanRegistry.register(this, MBeanRegistry.getObjectName("TimerService", "TimerService"));
 		Thread collator = new Thread(new ResultsCollator());
 		collator.setDaemon(true);
 		collator.setName("Results collator");
@@ -310,10 +799,142 @@ public class TimerService {
 //		}
 //		return this;
 //	}
+	private void enableClientCost() {
+		if (!THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()) {
+			System.out.println("Per thread CPU time is not supported by this JVM, the client cost of operations will not be measured");
+			clientCostEnabled = false;
+			return;
+		}
+		THREAD_MX_BEAN.setThreadCpuTimeEnabled(true);
+		if (THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)THREAD_MX_BEAN;
+			if (threads.isThreadAllocatedMemorySupported()) {
+				threads.setThreadAllocatedMemoryEnabled(true);
+				allocationsSupported = true;
+			}
+		}
+		if (!allocationsSupported) {
+			System.out.println("Per thread allocations are not supported by this JVM, only the CPU time of operations will be measured");
+		}
+	}
+	
+	private long getCurrentThreadAllocatedBytes() {
+		if (!allocationsSupported) {
+			return 0;
+		}
+		return ((com.sun.management.ThreadMXBean)THREAD_MX_BEAN).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+	
+	/**
+	 * The CPU used by this process since the last call, as a fraction of all the CPUs of the
+	 * machine, or -1 if the JVM cannot measure it. This must only be called by the collator.
+	 */
+	private static double sampleClientCpuLoad() {
+		if (OS_MX_BEAN instanceof com.sun.management.OperatingSystemMXBean) {
+			return ((com.sun.management.OperatingSystemMXBean)OS_MX_BEAN).getProcessCpuLoad();
+		}
+		return -1;
+	}
+	
+	/**
+	 * The CPU used by the simulator over the last interval as a fraction of all the CPUs of
+	 * the machine, or negative if it cannot be measured
+	 */
+	public double getClientCpuLoad() {
+		return clientCpuLoad;
+	}
+	
+	/**
+	 * Whether each worker thread's operations are also counted separately, see {@link WorkerStats}
+	 */
+	@Override
+	public boolean isWorkerStatsEnabled() {
+		return workerStatsEnabled;
+	}
+	
+	@Override
+	public boolean isClientCostEnabled() {
+		return clientCostEnabled;
+	}
+	
+	@Override
+	public int getResultsIntervalMs() {
+		return resultsIntervalMs;
+	}
+	
+	@Override
+	public int getRecorderCount() {
+		return accumulator.resultsOrdinals.size();
+	}
+	
+	@Override
+	public int getTimedWorkloadCount() {
+		return accumulator.workloadMap.size();
+	}
+	
+	@Override
+	public long getLastCollationTimeMs() {
+		return lastCollationTimeMs;
+	}
+	
+	@Override
+	public long getMaxCollationTimeMs() {
+		return maxCollationTimeMs;
+	}
+	
+	/**
+	 * The number of the slowest operations kept for each workload per interval and for the
+	 * run, 0 if they are not being kept
+	 */
+	public int getSlowOperationCount() {
+		return Math.max(0, slowOperationCount);
+	}
+	
+	/**
+	 * The most intervals of results to keep for each workload
+	 */
+	public int getMaxResults() {
+		return (int)(MAX_RESULTS_SECONDS * 1000L / Math.max(resultsIntervalMs, MIN_RESULTS_INTERVAL_MS));
+	}
+	
+	/**
+	 * How long to keep each workload's results at the results interval, older results are
+	 * only kept in the rollups
+	 */
+	public long getResultsRetentionMs() {
+		return Math.max(1, resultsRetentionMinutes) * 60_000L;
+	}
+	
 	public Timer getTimer() {
 		return new TimerImpl();
 	}
 	
+	/**
+	 * Get the timer of the operation currently running on this thread, so code within
+	 * the operation can mark its phases without having the timer passed to it. If no
+	 * operation is being timed a timer which ignores all calls is returned.
+	 */
+	public static Timer getCurrentTimer() {
+		TimerImpl timer = currentTimer.get();
+		return timer != null && timer.running ? timer : NO_OP_TIMER;
+	}
+	
+	private static String getPhasesLogId(String workloadId) {
+		return workloadId + "_phases";
+	}
+	
+	private static String getErrorsLogId(String workloadId) {
+		return workloadId + "_errors";
+	}
+	
+	private static String getSlowLogId(String workloadId) {
+		return workloadId + "_slow";
+	}
+	
+	private static String getHistogramLogId(String workloadId) {
+		return workloadId + "_hlog";
+	}
+	
 //	public Map<TimerType, List<TimerResult>> getResults(long fromTime) {
 //		TimerType thisType = TimerType.WORKLOAD2;
 //		List<TimerResult> results = timingResults.get(thisType);
@@ -363,10 +984,32 @@ public class TimerService {
 		accumulator.submitResult(timeInUs, workloadId, status);
 	}
 	
+	/**
+	 * Count a failed operation of the workload against the type of error which caused it.
+	 */
+	public void submitError(int workloadOrdinal, String errorType) {
+		accumulator.submitError(workloadOrdinal, errorType);
+	}
+	
 	public int startTimingWorkload(WorkloadTypeInstance workload) {
 		return accumulator.addTimingWokload(workload);
 	}
 	
+	/**
+	 * Make a workload which is being timed an aggregate of other workloads. Its results each
+	 * interval are the merged results of the workloads matching <code>workloads</code>, 
+	 * other than aggregates, or if <code>operations</code> is not null of just their 
+	 * operations whose names match it.
+	 */
+	public void registerAggregate(WorkloadTypeInstance aggregate, Predicate<WorkloadTypeInstance> workloads, 
+			Predicate<String> operations) {
+		accumulator.addAggregate(aggregate, workloads, operations);
+	}
+	
+	public int registerOperation(WorkloadTypeInstance workload, String name) {
+		return accumulator.addOperation(workload, name);
+	}
+	
 	public void stopTimingWorkload(WorkloadTypeInstance workload) {
 		accumulator.removeTimingWorkload(workload);
 	}
@@ -0,0 +1,28 @@
+package com.yugabyte.simulation.services;
+
+/**
+ * The state of the collation of results, registered as
+ * com.yugabyte.simulation:type=TimerService,name="TimerService"
+ */
+public interface TimerServiceMXBean {
+	int getResultsIntervalMs();
+
+	/**
+	 * The number of workloads and operations with their own recorders
+	 */
+	int getRecorderCount();
+
+	int getTimedWorkloadCount();
+
+	/**
+	 * How long collating the last interval took. If this nears the results interval the
+	 * collator is falling behind.
+	 */
+	long getLastCollationTimeMs();
+
+	long getMaxCollationTimeMs();
+
+	boolean isWorkerStatsEnabled();
+
+	boolean isClientCostEnabled();
+}
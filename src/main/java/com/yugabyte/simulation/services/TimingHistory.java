@@ -0,0 +1,444 @@
+package com.yugabyte.simulation.services;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.yugabyte.simulation.dao.ClientCost;
+import com.yugabyte.simulation.dao.ClientPauses;
+import com.yugabyte.simulation.dao.ConnectionPoolStats;
+import com.yugabyte.simulation.dao.DistributionSummary;
+import com.yugabyte.simulation.dao.TimerResult;
+
+/**
+ * The history of a workload's interval results, held as a ring buffer of columns with
+ * one primitive array per metric rather than a list of objects. Appending is O(1), once the
+ * history is full or the oldest interval is older than the maximum age it is overwritten,
+ * and looking up a time range is a binary search over the start time column.
+ * <p>
+ * Only the columns every result has are allocated up front. The optional groups of columns,
+ * such as the connection pool or the client cost, are allocated when a result first has
+ * them, so a workload pays only for the metrics it records.
+ * <p>
+ * Results are only kept as objects when the columns cannot represent them: those with
+ * phases, operations or errors, and subclasses augmented by their workload type which has not
+ * supplied {@link ExtraColumns} for them. Everything else is recreated from the columns when
+ * read.
+ * <p>
+ * Ranges are returned as views over the buffer rather than copies. An entry which is
+ * overwritten while a view is being read (the view has fallen more than the capacity
+ * behind) reads as null.
+ */
+public class TimingHistory {
+	/**
+	 * Holds the fields a workload type adds to its results in columns of their own, so those
+	 * results need not be kept as objects. Doubles can be held as their raw long bits.
+	 */
+	public interface ExtraColumns {
+		int getCount();
+
+		/**
+		 * Write the added fields of a result into values, which has getCount() entries.
+		 * @return false if the result is not of the type these columns hold
+		 */
+		boolean put(TimerResult result, long[] values);
+
+		/**
+		 * Recreate a result from the columns of the base class and the values written by put.
+		 * Values is reused, so must not be retained.
+		 */
+		TimerResult get(TimerResult base, long[] values);
+	}
+
+	private static final int INITIAL_CAPACITY = 256;
+
+	private static final int START_TIME = 0;
+	private static final int DURATION = 1;
+	private static final int SUCCEEDED = 2;
+	private static final int FAILED = 3;
+	private static final int MIN = 4;
+	private static final int AVG = 5;
+	private static final int MAX = 6;
+	private static final int P50 = 7;
+	private static final int P90 = 8;
+	private static final int P99 = 9;
+	private static final int P999 = 10;
+	private static final int LATE_STARTS = 11;
+	// Distribution summaries take SUMMARY_COLUMNS columns from their first, a count of 0
+	// means there was none
+	private static final int RESPONSE_TIME = 12;
+	private static final int SUMMARY_COLUMNS = 8;
+	// Client pauses, flags of 0 means they were not recorded
+	private static final int PAUSE_FLAGS = 20;
+	private static final int PAUSE_COUNT = 21;
+	private static final int PAUSE_TOTAL = 22;
+	private static final int PAUSE_MAX = 23;
+	private static final int GC_COUNT = 24;
+	private static final int GC_TOTAL = 25;
+	private static final int GC_MAX = 26;
+	private static final int POOL_WAIT = 27;
+	private static final int EXECUTION = POOL_WAIT + SUMMARY_COLUMNS;
+	// Connection pool, a total of -1 means it was not recorded
+	private static final int POOL_ACTIVE = EXECUTION + SUMMARY_COLUMNS;
+	private static final int POOL_IDLE = POOL_ACTIVE + 1;
+	private static final int POOL_PENDING = POOL_ACTIVE + 2;
+	private static final int POOL_TOTAL = POOL_ACTIVE + 3;
+	// Client cost, a count of 0 means it was not measured
+	private static final int COST_OPS = POOL_ACTIVE + 4;
+	private static final int COST_CPU = COST_OPS + 1;
+	private static final int COST_ALLOCATED = COST_OPS + 2;
+	private static final int ROWS_PER_OP = COST_OPS + 3;
+	private static final int ROWS = ROWS_PER_OP + SUMMARY_COLUMNS;
+	private static final int BYTES = ROWS + 1;
+	private static final int NUM_COLUMNS = BYTES + 1;
+	// The first column and number of columns of each optional group
+	private static final int[][] OPTIONAL_GROUPS = {
+		{ RESPONSE_TIME, SUMMARY_COLUMNS },
+		{ PAUSE_FLAGS, GC_MAX - PAUSE_FLAGS + 1 },
+		{ POOL_WAIT, 2 * SUMMARY_COLUMNS },
+		{ POOL_ACTIVE, POOL_TOTAL - POOL_ACTIVE + 1 },
+		{ COST_OPS, COST_ALLOCATED - COST_OPS + 1 },
+		{ ROWS_PER_OP, NUM_COLUMNS - ROWS_PER_OP },
+	};
+	private static final int REQUIRED_COLUMNS = RESPONSE_TIME;
+
+	private static final long PAUSES_RECORDED = 1;
+	private static final long PAUSED = 2;
+
+	private final int maxCapacity;
+	private final long maxAgeMs;
+	private int capacity;
+	// Columns of optional groups are null until a result has them
+	private final long[][] columns = new long[NUM_COLUMNS][];
+	private final ExtraColumns extra;
+	private final long[][] extraColumns;
+	// Whether each entry's extra columns were written, as the base class has none
+	private boolean[] hasExtra;
+	// Passed to the extra columns on each add and get, both of which are synchronized
+	private final long[] extraValues;
+	// Sparse, only populated for results which cannot be recreated from the columns
+	private TimerResult[] details;
+	// Sequence numbers of the oldest entry held and of the next entry to be written
+	private long headSequence = 0;
+	private long tailSequence = 0;
+
+	/**
+	 * @param maxCapacity The number of results to retain. Storage grows as needed up to this.
+	 */
+	public TimingHistory(int maxCapacity) {
+		this(maxCapacity, Long.MAX_VALUE, null);
+	}
+
+	/**
+	 * @param maxCapacity The most results to retain. Storage grows as needed up to this.
+	 * @param maxAgeMs Results starting this long before the latest are dropped.
+	 * @param extra Columns for the fields the workload type adds to its results, or null if none.
+	 */
+	public TimingHistory(int maxCapacity, long maxAgeMs, ExtraColumns extra) {
+		this.maxCapacity = Math.max(1, maxCapacity);
+		this.maxAgeMs = maxAgeMs;
+		this.capacity = Math.min(INITIAL_CAPACITY, this.maxCapacity);
+		for (int i = 0; i < REQUIRED_COLUMNS; i++) {
+			columns[i] = new long[capacity];
+		}
+		this.extra = extra;
+		int extraCount = extra == null ? 0 : extra.getCount();
+		this.extraColumns = new long[extraCount][];
+		for (int i = 0; i < extraCount; i++) {
+			extraColumns[i] = new long[capacity];
+		}
+		this.extraValues = new long[extraCount];
+		this.hasExtra = new boolean[capacity];
+		this.details = new TimerResult[capacity];
+	}
+
+	private void grow() {
+		// Entries may have been dropped for their age, so each is moved to its slot in the
+		// larger buffer
+		int newCapacity = (int)Math.min((long)capacity * 2, maxCapacity);
+		for (int i = 0; i < NUM_COLUMNS; i++) {
+			if (columns[i] != null) {
+				columns[i] = relayout(columns[i], newCapacity);
+			}
+		}
+		for (int i = 0; i < extraColumns.length; i++) {
+			extraColumns[i] = relayout(extraColumns[i], newCapacity);
+		}
+		boolean[] newHasExtra = new boolean[newCapacity];
+		TimerResult[] newDetails = new TimerResult[newCapacity];
+		for (long sequence = headSequence; sequence < tailSequence; sequence++) {
+			newHasExtra[(int)(sequence % newCapacity)] = hasExtra[slot(sequence)];
+			newDetails[(int)(sequence % newCapacity)] = details[slot(sequence)];
+		}
+		hasExtra = newHasExtra;
+		details = newDetails;
+		capacity = newCapacity;
+	}
+
+	private long[] relayout(long[] column, int newCapacity) {
+		long[] newColumn = new long[newCapacity];
+		for (long sequence = headSequence; sequence < tailSequence; sequence++) {
+			newColumn[(int)(sequence % newCapacity)] = column[slot(sequence)];
+		}
+		return newColumn;
+	}
+
+	private int slot(long sequence) {
+		return (int)(sequence % capacity);
+	}
+
+	/**
+	 * Allocate the optional group of columns holding the passed column, marking the entries
+	 * already held as not having them.
+	 */
+	private long[] allocate(int column) {
+		for (int[] group : OPTIONAL_GROUPS) {
+			if (column >= group[0] && column < group[0] + group[1]) {
+				for (int i = group[0]; i < group[0] + group[1]; i++) {
+					columns[i] = new long[capacity];
+				}
+			}
+		}
+		if (column == POOL_TOTAL) {
+			Arrays.fill(columns[POOL_TOTAL], -1);
+		}
+		return columns[column];
+	}
+
+	/**
+	 * The column to write a value to, allocating it if need be.
+	 */
+	private long[] column(int column) {
+		long[] values = columns[column];
+		return values != null ? values : allocate(column);
+	}
+
+	/**
+	 * Write the added fields of a subclass result into the extra columns.
+	 * @return false if there are none for it, so it must be kept as an object
+	 */
+	private boolean putExtra(int slot, TimerResult result) {
+		hasExtra[slot] = false;
+		if (result.getClass() == TimerResult.class) {
+			return true;
+		}
+		if (extra == null || !extra.put(result, extraValues)) {
+			return false;
+		}
+		for (int i = 0; i < extraColumns.length; i++) {
+			extraColumns[i][slot] = extraValues[i];
+		}
+		hasExtra[slot] = true;
+		return true;
+	}
+
+	private boolean needsDetail(int slot, TimerResult result) {
+		return !result.getPhases().isEmpty() || !result.getOperations().isEmpty() || !result.getErrors().isEmpty()
+				|| !putExtra(slot, result);
+	}
+
+	private void putSummary(int firstColumn, int slot, DistributionSummary summary) {
+		if (summary == null) {
+			if (columns[firstColumn] != null) {
+				columns[firstColumn][slot] = 0;
+			}
+		}
+		else {
+			column(firstColumn)[slot] = summary.getCount();
+			columns[firstColumn + 1][slot] = summary.getMin();
+			columns[firstColumn + 2][slot] = summary.getAvg();
+			columns[firstColumn + 3][slot] = summary.getMax();
+			columns[firstColumn + 4][slot] = summary.getP50();
+			columns[firstColumn + 5][slot] = summary.getP90();
+			columns[firstColumn + 6][slot] = summary.getP99();
+			columns[firstColumn + 7][slot] = summary.getP999();
+		}
+	}
+
+	private DistributionSummary getSummary(int firstColumn, int slot) {
+		if (columns[firstColumn] == null || columns[firstColumn][slot] == 0) {
+			return null;
+		}
+		return new DistributionSummary(columns[firstColumn][slot], columns[firstColumn + 1][slot],
+				columns[firstColumn + 2][slot], columns[firstColumn + 3][slot], columns[firstColumn + 4][slot],
+				columns[firstColumn + 5][slot], columns[firstColumn + 6][slot], columns[firstColumn + 7][slot]);
+	}
+
+	public synchronized void add(TimerResult result) {
+		while (headSequence < tailSequence && columns[START_TIME][slot(headSequence)] < result.getStartTimeMs() - maxAgeMs) {
+			details[slot(headSequence)] = null;
+			headSequence++;
+		}
+		if (tailSequence - headSequence == capacity) {
+			if (capacity < maxCapacity) {
+				grow();
+			}
+			else {
+				headSequence++;
+			}
+		}
+		int slot = slot(tailSequence);
+		columns[START_TIME][slot] = result.getStartTimeMs();
+		columns[DURATION][slot] = result.getDurationMs();
+		columns[SUCCEEDED][slot] = result.getNumSucceeded();
+		columns[FAILED][slot] = result.getNumFailed();
+		columns[MIN][slot] = result.getMinUs();
+		columns[AVG][slot] = result.getAvgUs();
+		columns[MAX][slot] = result.getMaxUs();
+		columns[P50][slot] = result.getP50Us();
+		columns[P90][slot] = result.getP90Us();
+		columns[P99][slot] = result.getP99Us();
+		columns[P999][slot] = result.getP999Us();
+		columns[LATE_STARTS][slot] = result.getNumLateStarts();
+		putSummary(RESPONSE_TIME, slot, result.getResponseTime());
+		putSummary(POOL_WAIT, slot, result.getPoolWait());
+		putSummary(EXECUTION, slot, result.getExecution());
+		putSummary(ROWS_PER_OP, slot, result.getRowsPerOp());
+		if (result.getRows() != 0 || result.getBytes() != 0) {
+			column(ROWS)[slot] = result.getRows();
+			columns[BYTES][slot] = result.getBytes();
+		}
+		else if (columns[ROWS] != null) {
+			columns[ROWS][slot] = 0;
+			columns[BYTES][slot] = 0;
+		}
+		ConnectionPoolStats pool = result.getConnectionPool();
+		if (pool == null) {
+			if (columns[POOL_TOTAL] != null) {
+				columns[POOL_TOTAL][slot] = -1;
+			}
+		}
+		else {
+			column(POOL_TOTAL)[slot] = pool.getTotal();
+			columns[POOL_ACTIVE][slot] = pool.getActive();
+			columns[POOL_IDLE][slot] = pool.getIdle();
+			columns[POOL_PENDING][slot] = pool.getPending();
+		}
+		ClientCost cost = result.getClientCost();
+		if (cost == null) {
+			if (columns[COST_OPS] != null) {
+				columns[COST_OPS][slot] = 0;
+			}
+		}
+		else {
+			column(COST_OPS)[slot] = cost.getOps();
+			columns[COST_CPU][slot] = cost.getCpuTimeUs();
+			columns[COST_ALLOCATED][slot] = cost.getAllocatedBytes();
+		}
+		ClientPauses pauses = result.getClientPauses();
+		if (pauses == null) {
+			if (columns[PAUSE_FLAGS] != null) {
+				columns[PAUSE_FLAGS][slot] = 0;
+			}
+		}
+		else {
+			column(PAUSE_FLAGS)[slot] = PAUSES_RECORDED | (pauses.isPaused() ? PAUSED : 0);
+			columns[PAUSE_COUNT][slot] = pauses.getCount();
+			columns[PAUSE_TOTAL][slot] = pauses.getTotalUs();
+			columns[PAUSE_MAX][slot] = pauses.getMaxUs();
+			columns[GC_COUNT][slot] = pauses.getGcCount();
+			columns[GC_TOTAL][slot] = pauses.getGcTotalUs();
+			columns[GC_MAX][slot] = pauses.getGcMaxUs();
+		}
+		details[slot] = needsDetail(slot, result) ? result : null;
+		tailSequence++;
+	}
+
+	private synchronized TimerResult get(long sequence) {
+		if (sequence < headSequence || sequence >= tailSequence) {
+			return null;
+		}
+		int slot = slot(sequence);
+		if (details[slot] != null) {
+			return details[slot];
+		}
+		ClientPauses pauses = null;
+		long pauseFlags = columns[PAUSE_FLAGS] == null ? 0 : columns[PAUSE_FLAGS][slot];
+		if (pauseFlags != 0) {
+			pauses = new ClientPauses(columns[PAUSE_COUNT][slot], columns[PAUSE_TOTAL][slot], columns[PAUSE_MAX][slot],
+					columns[GC_COUNT][slot], columns[GC_TOTAL][slot], columns[GC_MAX][slot], (pauseFlags & PAUSED) != 0);
+		}
+		ConnectionPoolStats pool = null;
+		if (columns[POOL_TOTAL] != null && columns[POOL_TOTAL][slot] >= 0) {
+			pool = new ConnectionPoolStats((int)columns[POOL_ACTIVE][slot], (int)columns[POOL_IDLE][slot],
+					(int)columns[POOL_PENDING][slot], (int)columns[POOL_TOTAL][slot]);
+		}
+		ClientCost cost = null;
+		if (columns[COST_OPS] != null && columns[COST_OPS][slot] != 0) {
+			cost = new ClientCost(columns[COST_OPS][slot], columns[COST_CPU][slot], columns[COST_ALLOCATED][slot]);
+		}
+		TimerResult result = new TimerResult(columns[START_TIME][slot], columns[DURATION][slot],
+				columns[SUCCEEDED][slot], columns[FAILED][slot],
+				columns[MIN][slot], columns[AVG][slot], columns[MAX][slot],
+				columns[P50][slot], columns[P90][slot], columns[P99][slot], columns[P999][slot],
+				getSummary(RESPONSE_TIME, slot), columns[LATE_STARTS][slot], pauses,
+				getSummary(POOL_WAIT, slot), getSummary(EXECUTION, slot), pool, cost,
+				getSummary(ROWS_PER_OP, slot), columns[ROWS] == null ? 0 : columns[ROWS][slot],
+				columns[BYTES] == null ? 0 : columns[BYTES][slot]);
+		if (!hasExtra[slot]) {
+			return result;
+		}
+		for (int i = 0; i < extraColumns.length; i++) {
+			extraValues[i] = extraColumns[i][slot];
+		}
+		return extra.get(result, extraValues);
+	}
+
+	public synchronized int size() {
+		return (int)(tailSequence - headSequence);
+	}
+
+	/**
+	 * A view of all the results held.
+	 */
+	public synchronized List<TimerResult> getAll() {
+		return new View(headSequence, tailSequence);
+	}
+
+	/**
+	 * A view of the results whose start time is after the passed time.
+	 */
+	public synchronized List<TimerResult> getResultsAfter(long fromTime) {
+		// Binary search for the first entry starting after fromTime
+		long start = headSequence;
+		long end = tailSequence;
+		long[] startTimes = columns[START_TIME];
+		while (start < end) {
+			long mid = (start + end) >>> 1;
+			if (startTimes[slot(mid)] <= fromTime) {
+				start = mid + 1;
+			}
+			else {
+				end = mid;
+			}
+		}
+		if (start == tailSequence) {
+			return Collections.emptyList();
+		}
+		return new View(start, tailSequence);
+	}
+
+	private class View extends AbstractList<TimerResult> {
+		private final long startSequence;
+		private final int size;
+
+		View(long startSequence, long endSequence) {
+			this.startSequence = startSequence;
+			this.size = (int)(endSequence - startSequence);
+		}
+
+		@Override
+		public TimerResult get(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+			}
+			return TimingHistory.this.get(startSequence + index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package com.yugabyte.simulation.services;
+
+import com.yugabyte.simulation.dao.TimerResult;
+
+/**
+ * Rolls a workload's interval results up into coarser buckets, such as 10 seconds or a
+ * minute, for viewing long running workloads. The intervals' histograms are merged, so the
+ * percentiles of each bucket are those of all the operations in it rather than an average
+ * of the intervals' percentiles.
+ * <p>
+ * Buckets are aligned to multiples of the resolution since the epoch, and each bucket is
+ * published to the history as soon as an interval reaches its end.
+ */
+public class TimingRollup {
+	private final long resolutionMs;
+	private final TimingHistory history;
+	private final TimingSnapshot current = new TimingSnapshot();
+	private long currentBucketStart = -1;
+	private long currentDurationMs = 0;
+
+	public TimingRollup(long resolutionMs, int maxResults) {
+		this.resolutionMs = resolutionMs;
+		this.history = new TimingHistory(maxResults);
+	}
+
+	/**
+	 * Add the timings of an interval to the bucket its start time falls in.
+	 */
+	public synchronized void add(TimingSnapshot interval, long startTimeMs, long durationMs) {
+		long bucketStart = startTimeMs - startTimeMs % resolutionMs;
+		if (bucketStart != currentBucketStart) {
+			this.flush();
+			currentBucketStart = bucketStart;
+		}
+		current.add(interval);
+		currentDurationMs += durationMs;
+		if (startTimeMs + durationMs >= bucketStart + resolutionMs) {
+			this.flush();
+		}
+	}
+
+	/**
+	 * Publish the current bucket, even if it is not complete.
+	 */
+	public synchronized void flush() {
+		if (currentDurationMs > 0) {
+			// The duration is the time covered, which is less than the resolution if the
+			// workload started or ended part way through the bucket
+			history.add(new TimerResult(current, currentBucketStart, currentDurationMs));
+		}
+		current.reset();
+		currentDurationMs = 0;
+	}
+
+	public long getResolutionMs() {
+		return resolutionMs;
+	}
+
+	public TimingHistory getHistory() {
+		return history;
+	}
+}
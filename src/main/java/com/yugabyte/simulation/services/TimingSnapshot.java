@@ -0,0 +1,257 @@
+package com.yugabyte.simulation.services;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.yugabyte.simulation.dao.ClientCost;
+import com.yugabyte.simulation.dao.ClientPauses;
+import com.yugabyte.simulation.dao.ConnectionPoolStats;
+
+/**
+ * The timings recorded for one workload over one interval, as drained from an
+ * {@link IntervalRecorder}. Snapshots can be merged to build up longer periods.
+ */
+public class TimingSnapshot {
+	private final LatencyHistogram latencies = new LatencyHistogram();
+	private final LatencyHistogram responseTimes = new LatencyHistogram();
+	private final LatencyHistogram poolWaits = new LatencyHistogram();
+	private final LatencyHistogram executionTimes = new LatencyHistogram();
+	private final LatencyHistogram rowsPerOp = new LatencyHistogram();
+	private long bytes = 0;
+	private long failureCount = 0;
+	private long lateStartCount = 0;
+	// Keyed by phase name, in the order the phases were first seen. Entries are kept 
+	// when reset so the histograms can be reused.
+	private final Map<String, LatencyHistogram> phases = new LinkedHashMap<>();
+	// Failure counts keyed by error type, only holds the types seen in this period
+	private final Map<String, Long> errors = new LinkedHashMap<>();
+	// Pauses of this JVM, only present on the snapshots of workloads
+	private boolean hasPauses = false;
+	private long pauseCount = 0;
+	private long pauseTotalUs = 0;
+	private long pauseMaxUs = 0;
+	private long gcCount = 0;
+	private long gcTotalUs = 0;
+	private long gcMaxUs = 0;
+	private boolean paused = false;
+	// The connection pool, only present on the snapshots of workloads
+	private boolean hasPoolStats = false;
+	private int poolActive = 0;
+	private int poolIdle = 0;
+	private int poolPending = 0;
+	private int poolTotal = 0;
+	// The cost of the operations to the client, only recorded if enabled
+	private long costOps = 0;
+	private long cpuTimeUs = 0;
+	private long allocatedBytes = 0;
+
+	public LatencyHistogram getLatencies() {
+		return latencies;
+	}
+
+	/**
+	 * Response times of scheduled operations, measured from when the operation 
+	 * was intended to start rather than when it actually started.
+	 */
+	public LatencyHistogram getResponseTimes() {
+		return responseTimes;
+	}
+
+	/**
+	 * Time spent by operations waiting for connections from the pool.
+	 */
+	public LatencyHistogram getPoolWaits() {
+		return poolWaits;
+	}
+
+	/**
+	 * The time of the operations which waited for connections, less that wait.
+	 */
+	public LatencyHistogram getExecutionTimes() {
+		return executionTimes;
+	}
+
+	/**
+	 * The number of rows processed by each operation which reported rows. The total value
+	 * of the histogram is the total number of rows.
+	 */
+	public LatencyHistogram getRowsPerOp() {
+		return rowsPerOp;
+	}
+
+	/**
+	 * The bytes processed by the operations which reported them.
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	void addBytes(long bytes) {
+		this.bytes += bytes;
+	}
+
+	public long getFailureCount() {
+		return failureCount;
+	}
+
+	/**
+	 * The number of scheduled operations which started later than intended.
+	 */
+	public long getLateStartCount() {
+		return lateStartCount;
+	}
+
+	/**
+	 * The histograms of the named phases of the operations, some of which may be empty.
+	 */
+	public Map<String, LatencyHistogram> getPhases() {
+		return phases;
+	}
+
+	LatencyHistogram getPhase(String name) {
+		LatencyHistogram phase = phases.get(name);
+		if (phase == null) {
+			phase = new LatencyHistogram();
+			phases.put(name, phase);
+		}
+		return phase;
+	}
+
+	public Map<String, Long> getErrors() {
+		return errors;
+	}
+
+	void addErrors(String errorType, long count) {
+		errors.merge(errorType, count, Long::sum);
+	}
+
+	void addFailures(long count) {
+		this.failureCount += count;
+	}
+
+	void addLateStarts(long count) {
+		this.lateStartCount += count;
+	}
+
+	/**
+	 * The pauses of this JVM over the period, or null if they were not recorded.
+	 */
+	public ClientPauses getPauses() {
+		if (!hasPauses) {
+			return null;
+		}
+		return new ClientPauses(pauseCount, pauseTotalUs, pauseMaxUs, gcCount, gcTotalUs, gcMaxUs, paused);
+	}
+
+	public void addPauses(ClientPauses pauses) {
+		this.hasPauses = true;
+		this.pauseCount += pauses.getCount();
+		this.pauseTotalUs += pauses.getTotalUs();
+		this.pauseMaxUs = Math.max(this.pauseMaxUs, pauses.getMaxUs());
+		this.gcCount += pauses.getGcCount();
+		this.gcTotalUs += pauses.getGcTotalUs();
+		this.gcMaxUs = Math.max(this.gcMaxUs, pauses.getGcMaxUs());
+		this.paused |= pauses.isPaused();
+	}
+
+	/**
+	 * The state of the connection pool, or null if it was not recorded. When snapshots 
+	 * are merged this holds the peak values.
+	 */
+	public ConnectionPoolStats getPoolStats() {
+		if (!hasPoolStats) {
+			return null;
+		}
+		return new ConnectionPoolStats(poolActive, poolIdle, poolPending, poolTotal);
+	}
+
+	public void addPoolStats(ConnectionPoolStats poolStats) {
+		this.hasPoolStats = true;
+		this.poolActive = Math.max(this.poolActive, poolStats.getActive());
+		this.poolIdle = Math.max(this.poolIdle, poolStats.getIdle());
+		this.poolPending = Math.max(this.poolPending, poolStats.getPending());
+		this.poolTotal = Math.max(this.poolTotal, poolStats.getTotal());
+	}
+
+	/**
+	 * The CPU time and allocations of the operations in the period, or null if they were
+	 * not measured.
+	 */
+	public ClientCost getClientCost() {
+		if (costOps == 0) {
+			return null;
+		}
+		return new ClientCost(costOps, cpuTimeUs, allocatedBytes);
+	}
+
+	void addClientCost(long ops, long cpuTimeUs, long allocatedBytes) {
+		this.costOps += ops;
+		this.cpuTimeUs += cpuTimeUs;
+		this.allocatedBytes += allocatedBytes;
+	}
+
+	public void add(TimingSnapshot other) {
+		this.add(other, true);
+	}
+
+	/**
+	 * Merge another snapshot into this one, optionally leaving out its phases, which are
+	 * specific to their workload.
+	 */
+	public void add(TimingSnapshot other, boolean includePhases) {
+		this.latencies.add(other.latencies);
+		this.responseTimes.add(other.responseTimes);
+		this.poolWaits.add(other.poolWaits);
+		this.executionTimes.add(other.executionTimes);
+		this.rowsPerOp.add(other.rowsPerOp);
+		this.bytes += other.bytes;
+		this.failureCount += other.failureCount;
+		this.lateStartCount += other.lateStartCount;
+		if (includePhases) {
+			for (Map.Entry<String, LatencyHistogram> phase : other.phases.entrySet()) {
+				this.getPhase(phase.getKey()).add(phase.getValue());
+			}
+		}
+		for (Map.Entry<String, Long> error : other.errors.entrySet()) {
+			this.addErrors(error.getKey(), error.getValue());
+		}
+		if (other.hasPauses) {
+			this.addPauses(other.getPauses());
+		}
+		if (other.hasPoolStats) {
+			this.addPoolStats(other.getPoolStats());
+		}
+		this.addClientCost(other.costOps, other.cpuTimeUs, other.allocatedBytes);
+	}
+
+	public void reset() {
+		this.latencies.reset();
+		this.responseTimes.reset();
+		this.poolWaits.reset();
+		this.executionTimes.reset();
+		this.rowsPerOp.reset();
+		this.bytes = 0;
+		this.failureCount = 0;
+		this.lateStartCount = 0;
+		for (LatencyHistogram phase : phases.values()) {
+			phase.reset();
+		}
+		this.errors.clear();
+		this.hasPauses = false;
+		this.pauseCount = 0;
+		this.pauseTotalUs = 0;
+		this.pauseMaxUs = 0;
+		this.gcCount = 0;
+		this.gcTotalUs = 0;
+		this.gcMaxUs = 0;
+		this.paused = false;
+		this.hasPoolStats = false;
+		this.poolActive = 0;
+		this.poolIdle = 0;
+		this.poolPending = 0;
+		this.poolTotal = 0;
+		this.costOps = 0;
+		this.cpuTimeUs = 0;
+		this.allocatedBytes = 0;
+	}
+}
@@ -0,0 +1,115 @@
+package com.yugabyte.simulation.services;
+
+import com.yugabyte.simulation.dao.WorkerSummary;
+
+/**
+ * Counts and latencies of the operations of a single worker thread, to find workers which
+ * are much slower than the rest, for example because their connection is to a slow node, or
+ * which are stuck. Latencies are held in the coarse buckets of {@link LatencyHeatmap}, four
+ * per doubling, so each worker costs about 1kB however many operations it performs.
+ * <p>
+ * Only the worker records into this, the lock is only contended when the stats are read.
+ */
+public class WorkerStats {
+	private final String threadName;
+	private final long[] buckets = new long[LatencyHeatmap.BUCKET_COUNT];
+	private long count = 0;
+	private long failures = 0;
+	private long totalUs = 0;
+	private long maxUs = 0;
+	private long firstStartNs = 0;
+	private long lastEndNs = 0;
+	private String lastHost = null;
+	// The start of the operation in progress, or 0 if the worker is between operations
+	private volatile long currentStartNs = 0;
+	// Set when the workload drops the worker as idle, so it registers again if it resumes
+	private volatile boolean removed = false;
+
+	public WorkerStats(String threadName) {
+		this.threadName = threadName;
+	}
+
+	/**
+	 * The host and port from a JDBC URL such as jdbc:yugabytedb://host:5433/yugabyte
+	 */
+	static String getHost(String url) {
+		if (url == null) {
+			return null;
+		}
+		int start = url.indexOf("//");
+		if (start < 0) {
+			return url;
+		}
+		start += 2;
+		int end = start;
+		while (end < url.length() && url.charAt(end) != '/' && url.charAt(end) != '?') {
+			end++;
+		}
+		return url.substring(start, end);
+	}
+
+	void start(long startNs) {
+		this.currentStartNs = startNs;
+	}
+
+	synchronized void setHost(String host) {
+		this.lastHost = host;
+	}
+
+	synchronized void record(long startNs, long endNs, ExecutionStatus status) {
+		long timeUs = (endNs - startNs) / 1000;
+		currentStartNs = 0;
+		if (count == 0) {
+			firstStartNs = startNs;
+		}
+		buckets[LatencyHeatmap.bucketIndex(timeUs)]++;
+		count++;
+		totalUs += timeUs;
+		maxUs = Math.max(maxUs, timeUs);
+		lastEndNs = endNs;
+		if (status != ExecutionStatus.SUCCESS) {
+			failures++;
+		}
+	}
+
+	/**
+	 * Whether the worker has been between operations for at least the passed time, such as
+	 * a thread which has been retired or the timer of a step which has finished.
+	 */
+	public synchronized boolean isIdleFor(long nowNs, long idleNs) {
+		return currentStartNs == 0 && count > 0 && nowNs - lastEndNs >= idleNs;
+	}
+
+	public void setRemoved(boolean removed) {
+		this.removed = removed;
+	}
+
+	boolean isRemoved() {
+		return removed;
+	}
+
+	private long valueAtPercentile(double percentile) {
+		long countAtPercentile = Math.max(1, (long)Math.ceil(percentile / 100.0 * count));
+		long runningCount = 0;
+		for (int i = 0; i < buckets.length; i++) {
+			runningCount += buckets[i];
+			if (runningCount >= countAtPercentile) {
+				return Math.min(maxUs, LatencyHeatmap.lowestValueAt(i + 1) - 1);
+			}
+		}
+		return maxUs;
+	}
+
+	public synchronized WorkerSummary getSummary() {
+		long now = System.nanoTime();
+		long startNs = currentStartNs;
+		long inFlightMs = startNs == 0 ? 0 : (now - startNs) / 1_000_000;
+		long idleMs = startNs != 0 || count == 0 ? 0 : (now - lastEndNs) / 1_000_000;
+		double opsPerSecond = count == 0 ? 0 : count * 1e9 / Math.max(1, now - firstStartNs);
+		return new WorkerSummary(threadName, count, failures, opsPerSecond,
+				count == 0 ? 0 : totalUs / count,
+				count == 0 ? 0 : valueAtPercentile(50),
+				count == 0 ? 0 : valueAtPercentile(99),
+				maxUs, lastHost, inFlightMs, idleMs);
+	}
+}
@@ -0,0 +1,79 @@
+package com.yugabyte.simulation.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A phaser which lets any number of writers enter and leave critical sections without
+ * blocking (a single atomic increment each way), while a reader can flip the phase and
+ * then wait until every writer which entered in the previous phase has left. This is the
+ * writer/reader phaser described by Gil Tene for double buffered interval recording:
+ * <pre>
+ * Writer:                                 Reader:
+ *   long t = phaser.writerCriticalSectionEnter();   phaser.readerLock();
+ *   active.record(...);                      swap active and inactive;
+ *   phaser.writerCriticalSectionExit(t);     phaser.flipPhase();
+ *                                            // inactive is now stable, read it
+ *                                            phaser.readerUnlock();
+ * </pre>
+ */
+public class WriterReaderPhaser {
+	private final AtomicLong startEpoch = new AtomicLong(0);
+	private final AtomicLong evenEndEpoch = new AtomicLong(0);
+	private final AtomicLong oddEndEpoch = new AtomicLong(Long.MIN_VALUE);
+	private final ReentrantLock readerLock = new ReentrantLock();
+
+	public long writerCriticalSectionEnter() {
+		return startEpoch.getAndIncrement();
+	}
+
+	public void writerCriticalSectionExit(long criticalValueAtEnter) {
+		if (criticalValueAtEnter < 0) {
+			oddEndEpoch.getAndIncrement();
+		}
+		else {
+			evenEndEpoch.getAndIncrement();
+		}
+	}
+
+	public void readerLock() {
+		readerLock.lock();
+	}
+
+	public void readerUnlock() {
+		readerLock.unlock();
+	}
+
+	/**
+	 * Flip the phase and wait for all writers in the previous phase to exit their
+	 * critical sections. Must be called with the reader lock held.
+	 */
+	public void flipPhase() {
+		if (!readerLock.isHeldByCurrentThread()) {
+			throw new IllegalStateException("flipPhase() can only be called while holding the reader lock");
+		}
+		boolean nextPhaseIsEven = startEpoch.get() < 0;
+		long initialStartValue = nextPhaseIsEven ? 0 : Long.MIN_VALUE;
+		if (nextPhaseIsEven) {
+			evenEndEpoch.set(initialStartValue);
+		}
+		else {
+			oddEndEpoch.set(initialStartValue);
+		}
+		long startValueAtFlip = startEpoch.getAndSet(initialStartValue);
+
+		AtomicLong endEpoch = nextPhaseIsEven ? oddEndEpoch : evenEndEpoch;
+		int spins = 0;
+		while (endEpoch.get() != startValueAtFlip) {
+			// Writers only hold the critical section for a few instructions, so spin briefly
+			// before backing off.
+			if (++spins < 100) {
+				Thread.yield();
+			}
+			else {
+				LockSupport.parkNanos(10_000);
+			}
+		}
+	}
+}
@@ -0,0 +1,220 @@
+package com.yugabyte.simulation.tools;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.yugabyte.simulation.services.HistogramLogFormat;
+import com.yugabyte.simulation.services.LatencyHistogram;
+
+/**
+ * Offline analysis of the interval histogram logs (.hlog files) written for each workload.
+ * Intervals from one or more logs are merged, optionally restricted to a time range and
+ * grouped into windows, and the percentiles of each window printed as a table or CSV.
+ * <p>
+ * Usage: <code>HistogramLogTool [options] file.hlog [file.hlog ...]</code>
+ * <ul>
+ * <li><code>--from time</code>, <code>--to time</code>: only include intervals starting in this range.
+ * Times are either epoch milliseconds or <code>+seconds</code> relative to the first interval.</li>
+ * <li><code>--window seconds</code>: merge intervals into windows of this size. By default each
+ * interval is a row, with intervals of the same start time in different files merged.</li>
+ * <li><code>--summary</code>: only print the total over the whole range.</li>
+ * <li><code>--csv</code>: print CSV rather than a table.</li>
+ * </ul>
+ */
+public class HistogramLogTool {
+	private static final String CSV_HEADER = "Start Time,Duration Ms,Total Ops,Ops/Sec,Failed,Min Us,Avg Us,"
+			+ "P50 Us,P90 Us,P99 Us,P99.9 Us,P99.99 Us,Max Us\n";
+
+	private final List<String> files = new ArrayList<>();
+	private String from = null;
+	private String to = null;
+	private long windowMs = 0;
+	private boolean summaryOnly = false;
+	private boolean csv = false;
+
+	private static class Window {
+		private final long startTimeMs;
+		private final List<HistogramLogFormat.Interval> intervals = new ArrayList<>();
+		private long endTimeMs;
+
+		public Window(long startTimeMs) {
+			this.startTimeMs = startTimeMs;
+			this.endTimeMs = startTimeMs;
+		}
+
+		public void add(HistogramLogFormat.Interval interval) {
+			intervals.add(interval);
+			endTimeMs = Math.max(endTimeMs, interval.getStartTimeMs() + interval.getDurationMs());
+		}
+	}
+
+	private static void usage(String message) {
+		if (message != null) {
+			System.err.println(message);
+		}
+		System.err.println("Usage: HistogramLogTool [--from time] [--to time] [--window seconds] [--summary] [--csv] file.hlog [file.hlog ...]");
+		System.err.println("    times are epoch milliseconds, or +seconds relative to the first interval");
+		System.exit(1);
+	}
+
+	private void parseArgs(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if (arg.startsWith("--") && !"--summary".equals(arg) && !"--csv".equals(arg) && i == args.length - 1) {
+				usage("Missing value for " + arg);
+			}
+			switch (arg) {
+			case "--from":
+				from = args[++i];
+				break;
+			case "--to":
+				to = args[++i];
+				break;
+			case "--window":
+				windowMs = (long)(Double.parseDouble(args[++i]) * 1000);
+				if (windowMs <= 0) {
+					usage("Window must be positive");
+				}
+				break;
+			case "--summary":
+				summaryOnly = true;
+				break;
+			case "--csv":
+				csv = true;
+				break;
+			default:
+				if (arg.startsWith("--")) {
+					usage("Unknown option " + arg);
+				}
+				files.add(arg);
+			}
+		}
+		if (files.isEmpty()) {
+			usage("No histogram logs specified");
+		}
+	}
+
+	private static long parseTime(String time, long firstStartTime) {
+		if (time.startsWith("+")) {
+			return firstStartTime + (long)(Double.parseDouble(time.substring(1)) * 1000);
+		}
+		return Long.parseLong(time);
+	}
+
+	private List<HistogramLogFormat.Interval> readIntervals() throws IOException {
+		List<HistogramLogFormat.Interval> intervals = new ArrayList<>();
+		for (String file : files) {
+			try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					HistogramLogFormat.Interval interval = HistogramLogFormat.parseLine(line);
+					if (interval != null) {
+						intervals.add(interval);
+					}
+				}
+			}
+		}
+		return intervals;
+	}
+
+	private void printHeader() {
+		if (csv) {
+			System.out.print(CSV_HEADER);
+		}
+		else {
+			System.out.printf("%-24s %8s %12s %10s %8s %8s %8s %8s %8s %8s %8s %9s %10s\n",
+					"Start Time", "Secs", "Ops", "Ops/s", "Failed", "Min", "Avg", "P50", "P90", "P99", "P99.9", "P99.99", "Max");
+		}
+	}
+
+	private void printRow(String label, long durationMs, long failed, LatencyHistogram histogram) {
+		long ops = histogram.getTotalCount();
+		double opsPerSec = durationMs <= 0 ? 0 : ops * 1000.0 / durationMs;
+		if (csv) {
+			System.out.printf("%s,%d,%d,%.1f,%d,%d,%d,%d,%d,%d,%d,%d,%d\n",
+					label, durationMs, ops, opsPerSec, failed, histogram.getMin(), histogram.getMean(),
+					histogram.getValueAtPercentile(50.0), histogram.getValueAtPercentile(90.0),
+					histogram.getValueAtPercentile(99.0), histogram.getValueAtPercentile(99.9),
+					histogram.getValueAtPercentile(99.99), histogram.getMax());
+		}
+		else {
+			System.out.printf("%-24s %8.1f %12d %10.1f %8d %8d %8d %8d %8d %8d %8d %9d %10d\n",
+					label, durationMs / 1000.0, ops, opsPerSec, failed, histogram.getMin(), histogram.getMean(),
+					histogram.getValueAtPercentile(50.0), histogram.getValueAtPercentile(90.0),
+					histogram.getValueAtPercentile(99.0), histogram.getValueAtPercentile(99.9),
+					histogram.getValueAtPercentile(99.99), histogram.getMax());
+		}
+	}
+
+	private String formatTime(long timeMs) {
+		if (csv) {
+			return Long.toString(timeMs);
+		}
+		return new Timestamp(timeMs).toString();
+	}
+
+	public void run(String[] args) throws IOException {
+		parseArgs(args);
+		List<HistogramLogFormat.Interval> intervals = readIntervals();
+		if (intervals.isEmpty()) {
+			System.err.println("No intervals found");
+			return;
+		}
+		long firstStartTime = Long.MAX_VALUE;
+		for (HistogramLogFormat.Interval interval : intervals) {
+			firstStartTime = Math.min(firstStartTime, interval.getStartTimeMs());
+		}
+		long fromTime = from == null ? Long.MIN_VALUE : parseTime(from, firstStartTime);
+		long toTime = to == null ? Long.MAX_VALUE : parseTime(to, firstStartTime);
+
+		// Group the intervals into windows, only decoding each window's histograms when printing it
+		Map<Long, Window> windows = new TreeMap<>();
+		for (HistogramLogFormat.Interval interval : intervals) {
+			long start = interval.getStartTimeMs();
+			if (start < fromTime || start >= toTime) {
+				continue;
+			}
+			long windowStart = windowMs > 0 ? start - Math.floorMod(start - firstStartTime, windowMs) : start;
+			windows.computeIfAbsent(windowStart, Window::new).add(interval);
+		}
+		if (windows.isEmpty()) {
+			System.err.println("No intervals in the selected time range");
+			return;
+		}
+
+		LatencyHistogram windowHistogram = new LatencyHistogram();
+		LatencyHistogram totalHistogram = new LatencyHistogram();
+		long totalFailed = 0;
+		long rangeStart = Long.MAX_VALUE;
+		long rangeEnd = Long.MIN_VALUE;
+		printHeader();
+		for (Window window : windows.values()) {
+			windowHistogram.reset();
+			long failed = 0;
+			for (HistogramLogFormat.Interval interval : window.intervals) {
+				interval.addLatenciesTo(windowHistogram);
+				failed += interval.getNumFailed();
+			}
+			totalHistogram.add(windowHistogram);
+			totalFailed += failed;
+			rangeStart = Math.min(rangeStart, window.startTimeMs);
+			rangeEnd = Math.max(rangeEnd, window.endTimeMs);
+			if (!summaryOnly) {
+				printRow(formatTime(window.startTimeMs), window.endTimeMs - window.startTimeMs, failed, windowHistogram);
+			}
+		}
+		if (summaryOnly || !csv) {
+			printRow(csv ? formatTime(rangeStart) : "Total", rangeEnd - rangeStart, totalFailed, totalHistogram);
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		new HistogramLogTool().run(args);
+	}
+}
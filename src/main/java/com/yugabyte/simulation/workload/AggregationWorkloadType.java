@@ -1,18 +1,29 @@
 package com.yugabyte.simulation.workload;
 
+import java.util.function.Predicate;
+
 import com.yugabyte.simulation.dao.ParamValue;
 import com.yugabyte.simulation.dao.TimerResult;
 import com.yugabyte.simulation.dao.WorkloadDesc;
 import com.yugabyte.simulation.exception.MultipleAggregationWorkloadException;
 import com.yugabyte.simulation.services.ServiceManager;
 
+/**
+ * A workload whose results are the merged results of other workloads. The aggregation
+ * counter covers every workload, other aggregates can be created covering a subset of the
+ * workloads or of their operations, for example all the writes. Aggregates are merged when
+ * the results are collated so cost nothing while the workloads are running.
+ */
 public final class AggregationWorkloadType extends WorkloadType {
 
 	public static final String AGGREGATION_WORKLOAD_NAME = "Aggregation Counter";
-	public static final String csvHeader = "Start Time,Min Time Us,Average Time Us,Max Time Us,Num Succeeded,Num Failed\n";
-	private static final String csvFormat = "%d,%d,%d,%d,%d,%d\n";
+	public static final String csvHeader = TimerResult.CSV_HEADER + "\n";
 	
 	private static final AggregationWorkloadInstanceType instance = null; 
+	private final String name;
+	private final Predicate<WorkloadTypeInstance> workloads;
+	private final Predicate<String> operations;
+	
 	private final class AggregationWorkloadInstanceType extends WorkloadTypeInstance {
 
 		public AggregationWorkloadInstanceType(ServiceManager serviceManager) {
@@ -21,11 +32,12 @@ public final class AggregationWorkloadType extends WorkloadType {
 				serviceManager.getTimerService().stopTimingWorkload(this);
 				throw new MultipleAggregationWorkloadException();
 			}
+			serviceManager.getTimerService().registerAggregate(this, workloads, operations);
 		}
 
 		@Override
 		protected String createWorkloadId() {
-			return "Aggregation Counter";
+			return name;
 		}
 		
 		@Override
@@ -40,8 +52,7 @@ public final class AggregationWorkloadType extends WorkloadType {
 		
 		@Override
 		public String formatToCsv(TimerResult result) {
-			return String.format(csvFormat, result.getStartTimeMs(), result.getMinUs(), result.getAvgUs(),
-					result.getMaxUs(), result.getNumSucceeded(), result.getNumFailed());
+			return result.toCsv() + "\n";
 		}
 		
 		@Override
@@ -50,6 +61,24 @@ public final class AggregationWorkloadType extends WorkloadType {
 		}
 	}
 	
+	/**
+	 * The aggregation counter, covering every workload
+	 */
+	public AggregationWorkloadType() {
+		this(AGGREGATION_WORKLOAD_NAME, workload -> true, null);
+	}
+	
+	/**
+	 * An aggregate of the workloads matching <code>workloads</code>. If <code>operations</code>
+	 * is not null only the operations of those workloads whose names match it are included.
+	 * @param name The id of the aggregate workload, which must be unique.
+	 */
+	public AggregationWorkloadType(String name, Predicate<WorkloadTypeInstance> workloads, Predicate<String> operations) {
+		this.name = name;
+		this.workloads = workloads;
+		this.operations = operations;
+	}
+	
 	@Override
 	public String getTypeName() {
 		return AGGREGATION_WORKLOAD_NAME;
@@ -7,6 +7,7 @@ import com.yugabyte.simulation.dao.WorkloadResult;
 import com.yugabyte.simulation.services.ExecutionStatus;
 import com.yugabyte.simulation.services.ServiceManager;
 import com.yugabyte.simulation.services.Timer;
+import com.yugabyte.simulation.services.TimingHistory;
 
 public class FixedStepsWorkloadType extends WorkloadType {
 	private final String[] steps;
@@ -19,8 +20,8 @@ public class FixedStepsWorkloadType extends WorkloadType {
 	public static class FixedStepsWorkloadResult extends WorkloadResult {
 		private final int currentStepNumber;
 		private final WorkloadStep[] steps;
-		public FixedStepsWorkloadResult(long fromTime, FixedStepWorkloadInstance instance) {
-			super(fromTime, instance);
+		public FixedStepsWorkloadResult(long fromTime, long resolutionMs, FixedStepWorkloadInstance instance) {
+			super(fromTime, resolutionMs, instance);
 			this.currentStepNumber = instance.currentStepNumber;
 			this.steps = instance.workloadSteps;
 		}
@@ -35,6 +36,27 @@ public class FixedStepsWorkloadType extends WorkloadType {
 	}
 	
 	public static class FixedStepsTimerResult extends TimerResult {
+		static final TimingHistory.ExtraColumns COLUMNS = new TimingHistory.ExtraColumns() {
+			@Override
+			public int getCount() {
+				return 1;
+			}
+			
+			@Override
+			public boolean put(TimerResult result, long[] values) {
+				if (result.getClass() != FixedStepsTimerResult.class) {
+					return false;
+				}
+				values[0] = ((FixedStepsTimerResult)result).currentStepNumber;
+				return true;
+			}
+			
+			@Override
+			public TimerResult get(TimerResult base, long[] values) {
+				return new FixedStepsTimerResult(base, (int)values[0]);
+			}
+		};
+		
 		private final int currentStepNumber;
 		public FixedStepsTimerResult(TimerResult orig, int currentStepNumber) {
 			super(orig);
@@ -77,13 +99,12 @@ public class FixedStepsWorkloadType extends WorkloadType {
 			return FixedStepsWorkloadType.this;
 		}
 		
-		private static final String csvHeader = "Start Time,Min Time Us,Average Time Us,Max Time Us,Num Succeeded,Num Failed,Current Step\n";
-		private static final String csvFormat = "%d,%d,%d,%d,%d,%d,%d\n";
+		private static final String csvHeader = TimerResult.CSV_HEADER + ",Current Step\n";
+		private static final String csvFormat = ",%d\n";
 		
 		@Override
 		public String formatToCsv(TimerResult result) {
-			return String.format(csvFormat, result.getStartTimeMs(), result.getMinUs(), result.getAvgUs(),
-					result.getMaxUs(), result.getNumSucceeded(), result.getNumFailed(), 
+			return result.toCsv() + String.format(csvFormat,
 					((FixedStepsTimerResult)result).getCurrentStepNumber());
 		}
 		
@@ -146,6 +167,7 @@ public class FixedStepsWorkloadType extends WorkloadType {
 					catch (Exception e) {
 						this.setTerminatedByException(e);
 						currentStep.complete(timer.end(ExecutionStatus.ERROR, this.getWorkloadOrdinal()));
+						this.recordError(e);
 						throw e;
 					}
 				}
@@ -157,13 +179,18 @@ public class FixedStepsWorkloadType extends WorkloadType {
 		
 		// We need to provide the current step number in the workload result
 		@Override
-		public WorkloadResult getWorkloadResult(long afterTime) {
-			return new FixedStepsWorkloadResult(afterTime, this);
+		public WorkloadResult getWorkloadResult(long afterTime, long resolutionMs) {
+			return new FixedStepsWorkloadResult(afterTime, resolutionMs, this);
 		}
 		@Override
 		protected TimerResult doAugmentTimingResult(TimerResult result) {
 			return new FixedStepsTimerResult(result, currentStepNumber);
 		}
+		
+		@Override
+		protected TimingHistory.ExtraColumns getExtraTimingColumns() {
+			return FixedStepsTimerResult.COLUMNS;
+		}
 	}
 
 	public FixedStepsWorkloadType(Step ... steps) {
@@ -13,6 +13,7 @@ import com.yugabyte.simulation.services.ExecutionStatus;
 import com.yugabyte.simulation.services.ServiceManager;
 import com.yugabyte.simulation.services.Timer;
 import com.yugabyte.simulation.services.TimerService;
+import com.yugabyte.simulation.services.TimingHistory;
 
 /**
  * Run a workload with a fixed target. For example, to seed a database with 
@@ -94,6 +95,31 @@ public class FixedTargetWorkloadType extends WorkloadType {
 	}
 	
 	public static class FixedTargetTimerResult extends TimerResult {
+		static final TimingHistory.ExtraColumns COLUMNS = new TimingHistory.ExtraColumns() {
+			@Override
+			public int getCount() {
+				return 4;
+			}
+			
+			@Override
+			public boolean put(TimerResult result, long[] values) {
+				if (result.getClass() != FixedTargetTimerResult.class) {
+					return false;
+				}
+				FixedTargetTimerResult fixedResult = (FixedTargetTimerResult)result;
+				values[0] = Double.doubleToRawLongBits(fixedResult.percentageComplete);
+				values[1] = fixedResult.timeRemainingInMs;
+				values[2] = fixedResult.completed;
+				values[3] = fixedResult.target;
+				return true;
+			}
+			
+			@Override
+			public TimerResult get(TimerResult base, long[] values) {
+				return new FixedTargetTimerResult(base, Double.longBitsToDouble(values[0]), values[1], values[2], values[3]);
+			}
+		};
+		
 		private final double percentageComplete;
 		private final long timeRemainingInMs;
 		private final long completed;
@@ -168,14 +194,13 @@ public class FixedTargetWorkloadType extends WorkloadType {
 			}
 		}
 		
-		private static final String csvHeader = "Start Time,Min Time Us,Average Time Us,Max Time Us,Num Succeeded,Num Failed,Percentage Complete,Time Remaining Ms,Completed,Target\n";
-		private static final String csvFormat = "%d,%d,%d,%d,%d,%d,%f,%d,%d,%d\n";
+		private static final String csvHeader = TimerResult.CSV_HEADER + ",Percentage Complete,Time Remaining Ms,Completed,Target\n";
+		private static final String csvFormat = ",%f,%d,%d,%d\n";
 
 		@Override
 		public String formatToCsv(TimerResult result) {
 			FixedTargetTimerResult fixedResult = (FixedTargetTimerResult)result;
-			return String.format(csvFormat, fixedResult.getStartTimeMs(), fixedResult.getMinUs(), fixedResult.getAvgUs(),
-					fixedResult.getMaxUs(), fixedResult.getNumSucceeded(), fixedResult.getNumFailed(),
+			return fixedResult.toCsv() + String.format(csvFormat,
 					fixedResult.getPercentageComplete(), fixedResult.getTimeRemainingInMs(),
 					fixedResult.getCompleted(), fixedResult.getTarget());
 		}
@@ -226,6 +251,11 @@ public class FixedTargetWorkloadType extends WorkloadType {
 		protected TimerResult doAugmentTimingResult(TimerResult result) {
 			return new FixedTargetTimerResult(result, getPercentComplete(), getTimeRemainingEstimateInMs(), completedCounter.get(), target);
 		}
+		
+		@Override
+		protected TimingHistory.ExtraColumns getExtraTimingColumns() {
+			return FixedTargetTimerResult.COLUMNS;
+		}
 	}
 	
 	@Override
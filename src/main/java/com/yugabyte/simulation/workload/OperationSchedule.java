@@ -0,0 +1,50 @@
+package com.yugabyte.simulation.workload;
+
+/**
+ * The times a worker thread of a throughput workload intends to start its operations. The
+ * operations are issued on a fixed schedule rather than a fixed gap after the previous one
+ * finishes, so if an operation runs long the following ones start late and are charged with
+ * the time they spent waiting (coordinated omission).
+ * <p>
+ * However far behind the thread falls, the schedule is kept: the backlog is what a stall
+ * costs the operations queued behind it. When the delay changes only the spacing of the
+ * following operations changes, any lag is carried forward. With no delay there is no
+ * schedule and the operations run back to back.
+ */
+class OperationSchedule {
+	private int delayMs;
+	private long intendedStartTime;
+
+	/**
+	 * @param now The current time from System.nanoTime()
+	 */
+	OperationSchedule(int delayMs, long now) {
+		this.delayMs = delayMs;
+		this.intendedStartTime = now;
+	}
+
+	boolean isScheduled() {
+		return delayMs > 0;
+	}
+
+	/**
+	 * The time from System.nanoTime() the next operation should start at.
+	 */
+	long getIntendedStartTime() {
+		return intendedStartTime;
+	}
+
+	/**
+	 * Move on to the operation after the one which has just finished.
+	 * @param newDelayMs The delay between operations now in force
+	 * @param now The current time from System.nanoTime()
+	 */
+	void next(int newDelayMs, long now) {
+		if (newDelayMs <= 0 || delayMs <= 0) {
+			// Running back to back, or a schedule is starting from here
+			intendedStartTime = now;
+		}
+		delayMs = newDelayMs;
+		intendedStartTime += Math.max(0, delayMs) * 1000000L;
+	}
+}
@@ -13,6 +13,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.yugabyte.simulation.dao.ParamValue;
+import com.yugabyte.simulation.dao.DistributionSummary;
 import com.yugabyte.simulation.dao.TimerResult;
 import com.yugabyte.simulation.dao.WorkloadDesc;
 import com.yugabyte.simulation.services.ExecutionStatus;
@@ -45,7 +46,7 @@ public class ThroughputWorkloadType extends WorkloadType {
 		private static final double AIMING_TOLERANCE = 1.07;
 		private final AtomicInteger threadDelay;
 		private final int maxThreads;
-		private int currentThreads = 0;
+		private volatile int currentThreads = 0;
 		private final TimerService timerService;
 		private final AtomicLong idleTimeCounter;
 		private final AtomicInteger transactionCounter;
@@ -99,6 +100,10 @@ public class ThroughputWorkloadType extends WorkloadType {
 		public int getCurrentThreadCount() {
 			return this.currentThreads;
 		}
+		
+		public boolean isAtThreadLimit() {
+			return this.currentThreads >= this.maxThreads;
+		}
 		private int getNeededThreads(int avgDelay) {
 			return Math.max(1, Math.min(this.maxThreads, this.desiredRate * avgDelay/ 1000));
 		}
@@ -269,19 +274,25 @@ public class ThroughputWorkloadType extends WorkloadType {
 				long lastError = 0;
 				int skippedErrors = 0;
 				sleep(ThreadLocalRandom.current().nextInt(threadDelay.get()));
+				OperationSchedule schedule = new OperationSchedule(threadDelay.get(), System.nanoTime());
 				while (!terminate.get()) {
-					timer.start();
-					long timeInNs;
+					if (schedule.isScheduled()) {
+						timer.start(schedule.getIntendedStartTime());
+					}
+					else {
+						timer.start();
+					}
 					try {
 						task.run(customData, threadData);
-						timeInNs = timer.end(ExecutionStatus.SUCCESS,this.workloadOrdinal);
+						timer.end(ExecutionStatus.SUCCESS,this.workloadOrdinal);
 					}
 					catch (Exception e) {
-						timeInNs = timer.end(ExecutionStatus.ERROR, this.workloadOrdinal);
+						timer.end(ExecutionStatus.ERROR, this.workloadOrdinal);
 						instance.handleException(e);
 					}
 					this.transactionCounter.incrementAndGet();
-					int idleTime = threadDelay.get() - (int)(timeInNs / 1000000);
+					schedule.next(threadDelay.get(), System.nanoTime());
+					int idleTime = (int)((schedule.getIntendedStartTime() - System.nanoTime()) / 1000000);
 					if (idleTime > 0) {
 						this.idleTimeCounter.addAndGet(idleTime);
 						sleep(idleTime);
@@ -366,13 +377,18 @@ public class ThroughputWorkloadType extends WorkloadType {
 			}
 		}
 		
-		private static final String csvHeader = "Start Time,Min Time Us,Average Time Us,Max Time Us,Num Succeeded,Num Failed\n";
-		private static final String csvFormat = "%d,%d,%d,%d,%d,%d\n";
+		private static final String csvHeader = TimerResult.CSV_HEADER 
+				+ ",Response Avg Time Us,Response P99 Time Us,Response P99.9 Time Us,Response Max Time Us,Num Late Starts\n";
 		
 		@Override
 		public String formatToCsv(TimerResult result) {
-			return String.format(csvFormat, result.getStartTimeMs(), result.getMinUs(), result.getAvgUs(),
-					result.getMaxUs(), result.getNumSucceeded(), result.getNumFailed());
+			DistributionSummary responseTime = result.getResponseTime();
+			if (responseTime == null) {
+				return result.toCsv() + String.format(",0,0,0,0,%d\n", result.getNumLateStarts());
+			}
+			return result.toCsv() + String.format(",%d,%d,%d,%d,%d\n",
+					responseTime.getAvg(), responseTime.getP99(), responseTime.getP999(), 
+					responseTime.getMax(), result.getNumLateStarts());
 		}
 		
 		@Override
@@ -394,12 +410,37 @@ public class ThroughputWorkloadType extends WorkloadType {
 		}
 		
 		public int getDesiredRate() {
-			return this.threadManager.getDesiredRate();
+			return this.threadManager == null ? 0 : this.threadManager.getDesiredRate();
+		}
+		
+		public int getCurrentThreadCount() {
+			return this.threadManager == null ? 0 : this.threadManager.getCurrentThreadCount();
 		}
 		
 		public void setDesiredRate(int desiredRate) {
 			this.threadManager.setDesiredRate(desiredRate);
 		}
+		
+		@Override
+		protected boolean reduceRate(int percent) {
+			if (this.threadManager == null) {
+				return false;
+			}
+			int newRate = Math.max(1, (int)((long)getDesiredRate() * (100 - percent) / 100));
+			System.out.printf("*** Reducing the rate of %s from %,d to %,d\n", getWorkloadId(), getDesiredRate(), newRate);
+			setDesiredRate(newRate);
+			return true;
+		}
+		
+		@Override
+		protected double getTargetRate() {
+			return getDesiredRate();
+		}
+		
+		@Override
+		protected boolean isAtThreadLimit() {
+			return this.threadManager != null && this.threadManager.isAtThreadLimit();
+		}
 	}
 	
 	@Override
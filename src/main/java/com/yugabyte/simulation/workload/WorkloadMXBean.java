@@ -0,0 +1,57 @@
+package com.yugabyte.simulation.workload;
+
+/**
+ * A workload, registered as com.yugabyte.simulation:type=Workload,name="&lt;workload id&gt;"
+ * while it is being timed. The metrics are those of the last interval collated.
+ */
+public interface WorkloadMXBean {
+	String getWorkloadId();
+
+	String getType();
+
+	String getDescription();
+
+	String getStatus();
+
+	long getStartTime();
+
+	/**
+	 * The target operations per second, or 0 if the workload does not have a target rate
+	 */
+	int getDesiredRate();
+
+	void setDesiredRate(int desiredRate);
+
+	/**
+	 * The operations per second measured by the thread manager of a throughput workload
+	 */
+	double getCurrentRate();
+
+	int getThreadCount();
+
+	double getOpsPerSecond();
+
+	/**
+	 * The proportion of the operations which failed, from 0 to 1
+	 */
+	double getErrorRate();
+
+	long getAvgUs();
+
+	long getP50Us();
+
+	long getP90Us();
+
+	long getP99Us();
+
+	long getP999Us();
+
+	long getMaxUs();
+
+	/**
+	 * OK, CLIENT_SATURATED or BELOW_TARGET, see {@link com.yugabyte.simulation.dao.SaturationStatus}
+	 */
+	String getSaturation();
+
+	void terminate();
+}
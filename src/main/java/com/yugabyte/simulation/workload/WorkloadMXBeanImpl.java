@@ -0,0 +1,150 @@
+package com.yugabyte.simulation.workload;
+
+import java.util.List;
+
+import com.yugabyte.simulation.dao.SaturationStatus;
+import com.yugabyte.simulation.dao.TimerResult;
+import com.yugabyte.simulation.workload.ThroughputWorkloadType.ThroughputWorkloadInstance;
+
+class WorkloadMXBeanImpl implements WorkloadMXBean {
+	private final WorkloadTypeInstance workload;
+	private final WorkloadManager workloadManager;
+
+	WorkloadMXBeanImpl(WorkloadTypeInstance workload, WorkloadManager workloadManager) {
+		this.workload = workload;
+		this.workloadManager = workloadManager;
+	}
+
+	private TimerResult getLastResult() {
+		List<TimerResult> results = workload.getTimingResults();
+		return results.isEmpty() ? null : results.get(results.size() - 1);
+	}
+
+	private ThroughputWorkloadInstance getThroughputWorkload() {
+		return workload instanceof ThroughputWorkloadInstance ? (ThroughputWorkloadInstance)workload : null;
+	}
+
+	@Override
+	public String getWorkloadId() {
+		return workload.getWorkloadId();
+	}
+
+	@Override
+	public String getType() {
+		return workload.getType().getTypeName();
+	}
+
+	@Override
+	public String getDescription() {
+		return workload.getDescription();
+	}
+
+	@Override
+	public String getStatus() {
+		return String.valueOf(workload.getStatus());
+	}
+
+	@Override
+	public long getStartTime() {
+		return workload.getStartTime();
+	}
+
+	@Override
+	public int getDesiredRate() {
+		ThroughputWorkloadInstance throughput = getThroughputWorkload();
+		return throughput == null ? 0 : throughput.getDesiredRate();
+	}
+
+	@Override
+	public void setDesiredRate(int desiredRate) {
+		ThroughputWorkloadInstance throughput = getThroughputWorkload();
+		if (throughput == null) {
+			throw new IllegalArgumentException("Workload " + workload.getWorkloadId() + " does not have a target rate");
+		}
+		if (desiredRate <= 0) {
+			throw new IllegalArgumentException("The rate must be positive, not " + desiredRate);
+		}
+		System.out.printf("*** Changing the rate of %s from %,d to %,d\n", workload.getWorkloadId(), throughput.getDesiredRate(), desiredRate);
+		throughput.setDesiredRate(desiredRate);
+	}
+
+	@Override
+	public double getCurrentRate() {
+		ThroughputWorkloadInstance throughput = getThroughputWorkload();
+		return throughput == null ? 0 : throughput.getCurrentRate();
+	}
+
+	@Override
+	public int getThreadCount() {
+		ThroughputWorkloadInstance throughput = getThroughputWorkload();
+		return throughput == null ? 0 : throughput.getCurrentThreadCount();
+	}
+
+	@Override
+	public double getOpsPerSecond() {
+		TimerResult result = getLastResult();
+		if (result == null || result.getDurationMs() == 0) {
+			return 0;
+		}
+		return (result.getNumSucceeded() + result.getNumFailed()) * 1000.0 / result.getDurationMs();
+	}
+
+	@Override
+	public double getErrorRate() {
+		TimerResult result = getLastResult();
+		if (result == null || result.getNumSucceeded() + result.getNumFailed() == 0) {
+			return 0;
+		}
+		return (double)result.getNumFailed() / (result.getNumSucceeded() + result.getNumFailed());
+	}
+
+	@Override
+	public long getAvgUs() {
+		TimerResult result = getLastResult();
+		return result == null ? 0 : result.getAvgUs();
+	}
+
+	@Override
+	public long getP50Us() {
+		TimerResult result = getLastResult();
+		return result == null ? 0 : result.getP50Us();
+	}
+
+	@Override
+	public long getP90Us() {
+		TimerResult result = getLastResult();
+		return result == null ? 0 : result.getP90Us();
+	}
+
+	@Override
+	public long getP99Us() {
+		TimerResult result = getLastResult();
+		return result == null ? 0 : result.getP99Us();
+	}
+
+	@Override
+	public long getP999Us() {
+		TimerResult result = getLastResult();
+		return result == null ? 0 : result.getP999Us();
+	}
+
+	@Override
+	public long getMaxUs() {
+		TimerResult result = getLastResult();
+		return result == null ? 0 : result.getMaxUs();
+	}
+
+	@Override
+	public String getSaturation() {
+		SaturationStatus saturation = workload.getSaturation();
+		return saturation == null ? SaturationStatus.Status.OK.toString() : saturation.getStatus().toString();
+	}
+
+	@Override
+	public void terminate() {
+		if (workloadManager.getWorkloadById(workload.getWorkloadId()) == null) {
+			throw new IllegalArgumentException("Workload " + workload.getWorkloadId() + " is not running");
+		}
+		workloadManager.terminateWorkload(workload.getWorkloadId());
+	}
+}
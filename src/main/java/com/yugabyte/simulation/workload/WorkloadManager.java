@@ -58,6 +58,16 @@ public class WorkloadManager {
 		return completedWorkloads;
 	}
 	
+	/**
+	 * A copy of the active workloads followed by the completed ones.
+	 */
+	public synchronized List<WorkloadTypeInstance> getAllWorkloads() {
+		this.updateStatus();
+		List<WorkloadTypeInstance> all = new ArrayList<WorkloadTypeInstance>(activeWorkloads);
+		all.addAll(completedWorkloads);
+		return all;
+	}
+	
 	public synchronized void submitWorkload(WorkloadTypeInstance workloadTypeInstance) {
 		this.addToWorkloadList(workloadTypeInstance, activeWorkloads);
 	}
@@ -76,6 +86,21 @@ public class WorkloadManager {
 		return null;
 	}
 	
+	/**
+	 * Find a workload by id, whether it is still active or has completed.
+	 */
+	public synchronized WorkloadTypeInstance findWorkloadById(String workloadId) {
+		WorkloadTypeInstance instance = getWorkloadById(workloadId);
+		if (instance == null) {
+			for (WorkloadTypeInstance completed : getCompletedWorkloads()) {
+				if (completed.getWorkloadId().equals(workloadId)) {
+					return completed;
+				}
+			}
+		}
+		return instance;
+	}
+	
 	public synchronized void terminateWorkload(String workloadId) {
 		WorkloadTypeInstance workload = getWorkloadById(workloadId);
 		timerService.stopTimingWorkload(workload);
@@ -84,11 +109,15 @@ public class WorkloadManager {
 		}
 	}
 
-	public synchronized Map<String, WorkloadResult> getResults(long afterTime) {
+	public Map<String, WorkloadResult> getResults(long afterTime) {
+		return getResults(afterTime, 0);
+	}
+	
+	public synchronized Map<String, WorkloadResult> getResults(long afterTime, long resolutionMs) {
 		this.updateStatus();
 		Map<String, WorkloadResult> results = new HashMap<String, WorkloadResult>();
 		for (WorkloadTypeInstance instance : this.activeWorkloads) {
-			results.put(instance.getWorkloadId(), instance.getWorkloadResult(afterTime) );
+			results.put(instance.getWorkloadId(), instance.getWorkloadResult(afterTime, resolutionMs) );
 		}
 		return results;
 	}
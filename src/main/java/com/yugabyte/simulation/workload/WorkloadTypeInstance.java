@@ -1,20 +1,46 @@
 package com.yugabyte.simulation.workload;
 
+import java.sql.SQLException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.ObjectName;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.yugabyte.simulation.dao.LatencyHeatmapResult;
 import com.yugabyte.simulation.dao.ParamValue;
+import com.yugabyte.simulation.dao.RunSummary;
+import com.yugabyte.simulation.dao.SaturationStatus;
+import com.yugabyte.simulation.dao.SloDefinition;
+import com.yugabyte.simulation.dao.SloStatus;
+import com.yugabyte.simulation.dao.SlowOperationsResult;
 import com.yugabyte.simulation.dao.TimerResult;
+import com.yugabyte.simulation.dao.WorkerStatsResult;
+import com.yugabyte.simulation.dao.WorkerSummary;
 import com.yugabyte.simulation.dao.WorkloadDesc;
 import com.yugabyte.simulation.dao.WorkloadResult;
+import com.yugabyte.simulation.services.LatencyHeatmap;
 import com.yugabyte.simulation.services.LoggingFileManager;
+import com.yugabyte.simulation.services.MBeanRegistry;
+import com.yugabyte.simulation.services.RunHistograms;
+import com.yugabyte.simulation.services.SaturationDetector;
 import com.yugabyte.simulation.services.ServiceManager;
+import com.yugabyte.simulation.services.SloTracker;
+import com.yugabyte.simulation.services.SlowOperationReservoir;
 import com.yugabyte.simulation.services.TimerService;
+import com.yugabyte.simulation.services.TimingHistory;
+import com.yugabyte.simulation.services.TimingRollup;
+import com.yugabyte.simulation.services.TimingSnapshot;
+import com.yugabyte.simulation.services.WorkerStats;
 
 public abstract class WorkloadTypeInstance {
 	private volatile WorkloadStatusType status;
@@ -30,19 +56,54 @@ public abstract class WorkloadTypeInstance {
 	private final int workloadOrdinal;
 	private final ServiceManager serviceManager;
 	
-	private final List<TimerResult> timingResults;
+	private final TimingHistory timingResults;
+	// Coarser views of the results for long running workloads, finest first
+	private final List<TimingRollup> rollups;
+	private static final long[] ROLLUP_RESOLUTIONS_MS = { 10_000, 60_000 };
+	private static final int[] ROLLUP_RETENTION_HOURS = { 7 * 24, 30 * 24 };
+	// Every interval merged together, for the run summary
+	private final TimingSnapshot runTotals = new TimingSnapshot();
+	private final LatencyHeatmap latencyHeatmap;
+	// The whole run at full latency resolution, for saving as a baseline
+	private final RunHistograms runHistograms = new RunHistograms();
+	private volatile RunSummary runSummary = null;
+	private final List<SloTracker> slos = new CopyOnWriteArrayList<>();
+	private final SaturationDetector saturationDetector;
+	private final SlowOperationReservoir slowOperations;
+	// Only populated if per worker stats are enabled
+	private final List<WorkerStats> workers = new CopyOnWriteArrayList<>();
+	// Workers with no operations for this many intervals are dropped
+	private static final int IDLE_WORKER_INTERVALS = 10;
+	private final List<String> operationNames = new ArrayList<>();
+	// The operations which have columns in the CSV, fixed when the header is written
+	private volatile List<String> csvOperationNames = Collections.emptyList();
+	private final ObjectName mbeanName;
     private static final Logger LOGGER = LoggerFactory.getLogger(WorkloadTypeInstance.class);
 
 	public WorkloadTypeInstance(ServiceManager serviceManager) {
 		this.serviceManager = serviceManager;
 		this.startTime = System.currentTimeMillis();
+		this.saturationDetector = new SaturationDetector(startTime);
 		this.workloadId = createWorkloadId(); 
 		this.status = WorkloadStatusType.SUBMITTED;
 		this.doInitialize();
 		this.status = WorkloadStatusType.EXECUTING;
-		this.timingResults = new ArrayList<TimerResult>();
+		this.rollups = new ArrayList<TimingRollup>();
+		for (int i = 0; i < ROLLUP_RESOLUTIONS_MS.length; i++) {
+			if (ROLLUP_RESOLUTIONS_MS[i] > getTimerService().getResultsIntervalMs()) {
+				int maxResults = (int)(ROLLUP_RETENTION_HOURS[i] * 3600_000L / ROLLUP_RESOLUTIONS_MS[i]);
+				this.rollups.add(new TimingRollup(ROLLUP_RESOLUTIONS_MS[i], maxResults));
+			}
+		}
+		// Older results are kept by the rollups, unless the intervals are already as coarse
+		long retentionMs = rollups.isEmpty() ? Long.MAX_VALUE : getTimerService().getResultsRetentionMs();
+		this.timingResults = new TimingHistory(getTimerService().getMaxResults(), retentionMs, getExtraTimingColumns());
+		this.latencyHeatmap = new LatencyHeatmap(getTimerService().getMaxResults(), retentionMs);
+		this.slowOperations = new SlowOperationReservoir(getTimerService().getSlowOperationCount());
 		this.workloadOrdinal = getTimerService().startTimingWorkload(this);
 		this.serviceManager.getWorkloadManager().registerWorkloadInstance(this);
+		this.mbeanName = MBeanRegistry.getObjectName("Workload", workloadId);
+		MBeanRegistry.register(new WorkloadMXBeanImpl(this, serviceManager.getWorkloadManager()), mbeanName);
 	}
 	
 	public WorkloadTypeInstance(ServiceManager serviceManager, WorkloadDesc workload, ParamValue[] params) {
@@ -56,6 +117,16 @@ public abstract class WorkloadTypeInstance {
 		return result;
 	}
 	
+	/**
+	 * Columns for the fields doAugmentTimingResult adds, so the history need not keep the
+	 * augmented results as objects. Called from the constructor, so must not use the fields
+	 * of the subclass.
+	 * @return null if the results are not augmented.
+	 */
+	protected TimingHistory.ExtraColumns getExtraTimingColumns() {
+		return null;
+	}
+	
 	protected String createWorkloadId() {
 		return getType().getTypeName() + "_" + this.startTime;
 	}
@@ -101,22 +172,213 @@ public abstract class WorkloadTypeInstance {
 	}
 	
 	public List<TimerResult> getTimingResults() {
-		return timingResults;
+		return timingResults.getAll();
 	}
 	
 	public abstract String formatToCsv(TimerResult result);
 	public abstract String getCsvHeader();
 	
-	public TimerResult submitTimingResult(TimerResult result, int maxLength) {
-		synchronized (timingResults) {
-			TimerResult newResult = doAugmentTimingResult(result);
-			timingResults.add(newResult);
-			if (timingResults.size() > maxLength) {
-				timingResults.remove(0);
+	/**
+	 * Register a named type of operation performed by this workload, for example "read" or 
+	 * "write", so that each type reports its own counts and latencies alongside the totals.
+	 * Tasks select the type with {@link com.yugabyte.simulation.services.Timer#setOperation(int)},
+	 * typically through {@link TimerService#getCurrentTimer()}. Operations should be registered 
+	 * before the workload starts executing so they are included in the CSV columns.
+	 * @return the ordinal to pass to setOperation. Registering the same name again returns the same ordinal.
+	 */
+	public int registerOperation(String name) {
+		synchronized (operationNames) {
+			if (!operationNames.contains(name)) {
+				operationNames.add(name);
+			}
+		}
+		return getTimerService().registerOperation(this, name);
+	}
+	
+	public List<String> getOperationNames() {
+		synchronized (operationNames) {
+			return new ArrayList<String>(operationNames);
+		}
+	}
+	
+	/**
+	 * The header of the results CSV: the columns of the workload type followed by
+	 * columns for each registered operation.
+	 */
+	public String getResultsCsvHeader() {
+		this.csvOperationNames = getOperationNames();
+		if (csvOperationNames.isEmpty()) {
+			return getCsvHeader();
+		}
+		StringBuilder sb = new StringBuilder(stripLineEnd(getCsvHeader()));
+		for (String operation : csvOperationNames) {
+			String name = operation.replace(',', ' ');
+			sb.append(String.format(",%1$s Num Succeeded,%1$s Num Failed,%1$s Average Time Us,%1$s P50 Time Us,%1$s P99 Time Us,%1$s Max Time Us", name));
+		}
+		return sb.append('\n').toString();
+	}
+	
+	/**
+	 * Format a result as a line of the results CSV, matching {@link #getResultsCsvHeader()}
+	 */
+	public String formatResultToCsv(TimerResult result) {
+		List<String> operations = this.csvOperationNames;
+		if (operations.isEmpty()) {
+			return formatToCsv(result);
+		}
+		StringBuilder sb = new StringBuilder(stripLineEnd(formatToCsv(result)));
+		for (String operation : operations) {
+			TimerResult opResult = result.getOperations().get(operation);
+			if (opResult == null) {
+				sb.append(",0,0,0,0,0,0");
 			}
-			return newResult;
+			else {
+				sb.append(String.format(",%d,%d,%d,%d,%d,%d", opResult.getNumSucceeded(), opResult.getNumFailed(),
+						opResult.getAvgUs(), opResult.getP50Us(), opResult.getP99Us(), opResult.getMaxUs()));
+			}
+		}
+		return sb.append('\n').toString();
+	}
+	
+	private static String stripLineEnd(String line) {
+		return line.endsWith("\n") ? line.substring(0, line.length()-1) : line;
+	}
+	
+	/**
+	 * Add the result of an interval to the history of this workload. 
+	 * @param snapshot The timings the result was created from, which are merged into the rollups.
+	 */
+	public TimerResult submitTimingResult(TimerResult result, TimingSnapshot snapshot) {
+		TimerResult newResult = doAugmentTimingResult(result);
+		timingResults.add(newResult);
+		latencyHeatmap.add(result.getStartTimeMs(), result.getDurationMs(), snapshot.getLatencies());
+		runHistograms.add(result.getStartTimeMs(), result.getDurationMs(), result.getNumFailed(), snapshot.getLatencies());
+		for (TimingRollup rollup : rollups) {
+			rollup.add(snapshot, result.getStartTimeMs(), result.getDurationMs());
+		}
+		synchronized (runTotals) {
+			runTotals.add(snapshot);
+		}
+		for (SloTracker slo : slos) {
+			evaluateSlo(slo, snapshot, result.getStartTimeMs());
 		}
+		evaluateSaturation(result);
+		removeIdleWorkers();
+		return newResult;
 	}
+	
+	private void evaluateSaturation(TimerResult result) {
+		SaturationDetector.Event event = saturationDetector.evaluate(result, getTargetRate(), 
+				isAtThreadLimit(), getTimerService().getClientCpuLoad());
+		SaturationStatus saturation = saturationDetector.getStatus();
+		switch (event) {
+		case SATURATED:
+			System.out.printf("*** Workload %s is limited by the client, not the database: %s, %,.0f of %,.0f ops/sec, client CPU %.0f%%, %d threads waiting for a connection\n", 
+					workloadId, saturation.getReasons(), saturation.getAchievedRate(), saturation.getTargetRate(),
+					saturation.getClientCpuPercent(), saturation.getPoolPending());
+			break;
+		case BELOW_TARGET:
+			System.out.printf("*** Workload %s is %.0f%% below its target rate of %,.0f ops/sec with the client not saturated\n", 
+					workloadId, saturation.getRateShortfallPercent(), saturation.getTargetRate());
+			break;
+		case RECOVERED:
+			System.out.printf("*** Workload %s is meeting its target again\n", workloadId);
+			break;
+		default:
+			break;
+		}
+	}
+	
+	/**
+	 * Whether the simulator was limiting this workload in the last interval, or null if no
+	 * interval has been collated yet.
+	 */
+	public SaturationStatus getSaturation() {
+		return saturationDetector.getStatus();
+	}
+	
+	/**
+	 * Replace the service level objectives of this workload, discarding their history. Each
+	 * is evaluated as each interval is collated and its action taken when it is breached.
+	 */
+	public void setSlos(List<SloDefinition> definitions) {
+		List<SloTracker> trackers = new ArrayList<>();
+		for (SloDefinition slo : definitions) {
+			trackers.add(new SloTracker(slo, getTimerService().getResultsIntervalMs()));
+		}
+		slos.clear();
+		slos.addAll(trackers);
+	}
+	
+	public List<SloStatus> getSloStatuses() {
+		List<SloStatus> statuses = new ArrayList<>();
+		for (SloTracker slo : slos) {
+			statuses.add(slo.getStatus());
+		}
+		return statuses;
+	}
+	
+	private void evaluateSlo(SloTracker slo, TimingSnapshot snapshot, long startTimeMs) {
+		SloTracker.Event event = slo.evaluate(snapshot, startTimeMs);
+		SloDefinition definition = slo.getDefinition();
+		switch (event) {
+		case RECOVERED:
+			System.out.printf("*** SLO %s of %s met again: burn rate %.2f\n", 
+					definition.getName(), workloadId, slo.getBurnRate());
+			return;
+		case BREACHED:
+		case STILL_BREACHED:
+			System.out.printf("*** SLO %s of %s breached: %s, burn rate %.2f, action %s\n", 
+					definition.getName(), workloadId, definition, slo.getBurnRate(), definition.getAction());
+			break;
+		default:
+			return;
+		}
+		switch (definition.getAction()) {
+		case STOP:
+			if (!isTerminated() && status != WorkloadStatusType.TERMINATING) {
+				// Terminating waits for the workers to finish, so must not block the collator
+				Thread stopper = new Thread(this::terminate, "SLO stop for " + workloadId);
+				stopper.setDaemon(true);
+				stopper.start();
+			}
+			break;
+		case REDUCE_RATE:
+			if (!reduceRate(definition.getRateReductionPercent())) {
+				System.out.printf("*** Workload %s does not support reducing its rate\n", workloadId);
+			}
+			break;
+		default:
+			break;
+		}
+	}
+	
+	/**
+	 * Reduce the target rate of this workload by the passed percentage, in response to an SLO
+	 * being breached. 
+	 * @return false if this type of workload has no target rate.
+	 */
+	protected boolean reduceRate(int percent) {
+		return false;
+	}
+	
+	/**
+	 * The operations per second this workload is aiming for, used to tell whether it is
+	 * keeping up. 
+	 * @return 0 if this type of workload has no target rate.
+	 */
+	protected double getTargetRate() {
+		return 0;
+	}
+	
+	/**
+	 * Whether this workload is using every worker thread it is allowed, so cannot go any
+	 * faster by adding threads.
+	 */
+	protected boolean isAtThreadLimit() {
+		return false;
+	}
+	
 	protected TimerService getTimerService() {
 		return serviceManager.getTimerService();
 	}
@@ -128,8 +390,32 @@ public abstract class WorkloadTypeInstance {
 		return this.workloadOrdinal;
 	}
 	
+	// Guards against exceptions whose causes form a loop
+	private static final int MAX_CAUSE_DEPTH = 16;
+	
+	/**
+	 * Describe the type of an error for counting failures. This is the SQLState of the
+	 * first SQLException in the cause chain which has one, otherwise the class name of the
+	 * root cause, as frameworks like Spring wrap the driver exceptions.
+	 */
+	static String getErrorType(Throwable t) {
+		Throwable rootCause = t;
+		for (int i = 0; t != null && i < MAX_CAUSE_DEPTH; i++, t = t.getCause()) {
+			if (t instanceof SQLException && ((SQLException)t).getSQLState() != null) {
+				return "SQLState " + ((SQLException)t).getSQLState();
+			}
+			rootCause = t;
+		}
+		return rootCause.getClass().getSimpleName();
+	}
+	
+	protected void recordError(Exception e) {
+		getTimerService().submitError(this.workloadOrdinal, getErrorType(e));
+	}
+	
 	private Exception lastException = null;
 	protected void handleException(Exception e) {
+		this.recordError(e);
 		if (LOGGER.isErrorEnabled()) {
 			if (lastException == null || lastException.getClass() != e.getClass() || 
 					(e.getStackTrace().length > 0 && lastException.getStackTrace().length > 0 && !e.getStackTrace()[0].toString().equals( lastException.getStackTrace()[0].toString()))) {
@@ -144,43 +430,199 @@ public abstract class WorkloadTypeInstance {
 		}
 	}
 	
+	/**
+	 * Called once the workload is no longer being timed, so partial rollups are published.
+	 */
+	public void timingComplete() {
+		MBeanRegistry.unregister(mbeanName);
+		for (TimingRollup rollup : rollups) {
+			rollup.flush();
+		}
+		RunSummary summary = createRunSummary(true);
+		this.runSummary = summary;
+		System.out.printf("Workload complete: %s", summary.toString());
+		getLoggingManager().writeFile(getWorkloadId() + "_summary.json", summary.toJson());
+	}
+	
+	private RunSummary createRunSummary(boolean complete) {
+		long end = endTime > 0 ? endTime : System.currentTimeMillis();
+		synchronized (runTotals) {
+			return new RunSummary(workloadId, getType().getTypeName(), description, complete, startTime, end, runTotals);
+		}
+	}
+	
+	/**
+	 * A copy of the totals of every interval collated so far.
+	 */
+	public TimingSnapshot getRunTotals() {
+		TimingSnapshot totals = new TimingSnapshot();
+		synchronized (runTotals) {
+			totals.add(runTotals);
+		}
+		return totals;
+	}
+	
+	/**
+	 * The summary of the whole run once the workload has completed, or of the run
+	 * so far if it is still running.
+	 */
+	public RunSummary getRunSummary() {
+		RunSummary summary = this.runSummary;
+		return summary != null ? summary : createRunSummary(false);
+	}
+	
 	public List<TimerResult> getResults(long fromTime) {
-		synchronized (timingResults) {
-			if (fromTime <= 0) {
-				return this.timingResults;
+		return getResults(fromTime, 0);
+	}
+	
+	/**
+	 * Get the results after the passed time at the passed resolution. The results will
+	 * be at the finest resolution held which is no finer than requested, see 
+	 * {@link #getResultsResolutionMs(long)}
+	 */
+	public List<TimerResult> getResults(long fromTime, long resolutionMs) {
+		TimingHistory history = getHistory(resolutionMs);
+		if (fromTime <= 0) {
+			return history.getAll();
+		}
+		else {
+			return history.getResultsAfter(fromTime);
+		}
+	}
+	
+	private TimingHistory getHistory(long resolutionMs) {
+		TimingRollup rollup = getRollup(resolutionMs);
+		return rollup == null ? timingResults : rollup.getHistory();
+	}
+	
+	private TimingRollup getRollup(long resolutionMs) {
+		if (resolutionMs <= getTimerService().getResultsIntervalMs() || rollups.isEmpty()) {
+			return null;
+		}
+		for (TimingRollup rollup : rollups) {
+			if (rollup.getResolutionMs() >= resolutionMs) {
+				return rollup;
 			}
-			else {
-				// Return a sub-array containing the correct elements which
-				// are greater than fromTime. Do a binary search for this.
-				// Binary search for the right element
-				int length = timingResults.size();
-				int start = 0;
-				int end = length-1;
-				int index = -1;
-				while (start <= end) {
-					int mid = (start + end)/2;
-					// Move to the right side if the target is greater
-					if (timingResults.get(mid).getStartTimeMs() <= fromTime) {
-						start = mid + 1;
-					}
-					else {
-						// Move left side
-						index = mid;
-						end = mid - 1;
-					}
-				}
-				if (index >= 0) {
-					return timingResults.subList(index, length);
-				}
-				else {
-					return new ArrayList<TimerResult>();
-				}
+		}
+		return rollups.get(rollups.size()-1);
+	}
+	
+	/**
+	 * The resolution of the results which would be returned for the requested resolution.
+	 */
+	public long getResultsResolutionMs(long resolutionMs) {
+		TimingRollup rollup = getRollup(resolutionMs);
+		return rollup == null ? getTimerService().getResultsIntervalMs() : rollup.getResolutionMs();
+	}
+	
+	/**
+	 * Get the latency heatmap of the intervals starting after <code>fromTime</code> and
+	 * before <code>toTime</code>, merging intervals if a coarser resolution is requested.
+	 */
+	public LatencyHeatmapResult getLatencyHeatmap(long fromTime, long toTime, long resolutionMs) {
+		return latencyHeatmap.getResults(workloadId, fromTime, toTime, 
+				Math.max(resolutionMs, getTimerService().getResultsIntervalMs()));
+	}
+	
+	public RunHistograms getRunHistograms() {
+		return runHistograms;
+	}
+	
+	/**
+	 * The reservoir the timer service keeps the slowest operations of this workload in
+	 */
+	public SlowOperationReservoir getSlowOperationReservoir() {
+		return slowOperations;
+	}
+	
+	/**
+	 * The slowest operations of the run, and of each retained interval starting at or after
+	 * the passed time.
+	 */
+	public SlowOperationsResult getSlowOperations(long fromTime) {
+		return slowOperations.getResult(workloadId, fromTime);
+	}
+	
+	/**
+	 * Called by the timer of each worker thread on its first operation when per worker stats
+	 * are enabled, and again if it resumes after being dropped as idle.
+	 */
+	public void registerWorker(WorkerStats worker) {
+		workers.add(worker);
+	}
+	
+	/**
+	 * Drop workers which have stopped, such as threads retired by the thread manager or the
+	 * timers of finished steps, so their falling rates do not make them look like stragglers.
+	 * Workers stuck in an operation are kept.
+	 */
+	private void removeIdleWorkers() {
+		if (workers.isEmpty()) {
+			return;
+		}
+		long now = System.nanoTime();
+		long idleNs = IDLE_WORKER_INTERVALS * getTimerService().getResultsIntervalMs() * 1_000_000L;
+		for (WorkerStats worker : workers) {
+			if (worker.isIdleFor(now, idleNs)) {
+				worker.setRemoved(true);
+				workers.remove(worker);
+			}
+		}
+	}
+	
+	/**
+	 * Get the <code>top</code> workers in the passed order, one of p99, avg, max, inFlight
+	 * (the longest running current operation) or opsPerSecond (the lowest throughput).
+	 */
+	public WorkerStatsResult getWorkerStats(int top, String orderBy) {
+		Comparator<WorkerSummary> order;
+		switch (orderBy) {
+		case "p99":
+			order = Comparator.comparingLong(WorkerSummary::getP99Us).reversed();
+			break;
+		case "avg":
+			order = Comparator.comparingLong(WorkerSummary::getAvgUs).reversed();
+			break;
+		case "max":
+			order = Comparator.comparingLong(WorkerSummary::getMaxUs).reversed();
+			break;
+		case "inFlight":
+			order = Comparator.comparingLong(WorkerSummary::getInFlightMs).reversed();
+			break;
+		case "opsPerSecond":
+			order = Comparator.comparingDouble(WorkerSummary::getOpsPerSecond);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown order " + orderBy + ", must be one of p99, avg, max, inFlight or opsPerSecond");
+		}
+		List<WorkerSummary> summaries = new ArrayList<>();
+		Map<String, Integer> workersByHost = new TreeMap<>();
+		Map<String, Double> opsPerSecondByHost = new TreeMap<>();
+		for (WorkerStats worker : workers) {
+			WorkerSummary summary = worker.getSummary();
+			summaries.add(summary);
+			if (summary.getLastHost() != null) {
+				workersByHost.merge(summary.getLastHost(), 1, Integer::sum);
+				opsPerSecondByHost.merge(summary.getLastHost(), summary.getOpsPerSecond(), Double::sum);
 			}
 		}
+		long medianP99Us = 0;
+		if (!summaries.isEmpty()) {
+			summaries.sort(Comparator.comparingLong(WorkerSummary::getP99Us));
+			medianP99Us = summaries.get(summaries.size() / 2).getP99Us();
+		}
+		summaries.sort(order);
+		return new WorkerStatsResult(workloadId, getTimerService().isWorkerStatsEnabled(), summaries.size(), medianP99Us,
+				new ArrayList<>(summaries.subList(0, Math.min(Math.max(top, 0), summaries.size()))),
+				workersByHost, opsPerSecondByHost);
 	}
 	
 	public WorkloadResult getWorkloadResult(long afterTime) {
-		return new WorkloadResult(afterTime, this);
+		return getWorkloadResult(afterTime, 0);
+	}
+	
+	public WorkloadResult getWorkloadResult(long afterTime, long resolutionMs) {
+		return new WorkloadResult(afterTime, resolutionMs, this);
 	}
 	
 	public String getDescription() {
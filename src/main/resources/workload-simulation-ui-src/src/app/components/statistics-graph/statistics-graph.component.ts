@@ -3,8 +3,10 @@ import * as d3 from 'd3';
 import { YugabyteDataSourceService } from 'src/app/services/yugabyte-data-source.service';
 import { TimingData } from '../../model/timing-data.model';
 import { TimingPoint } from '../../model/timing-point.model';
+import { LatencyHeatmapRow } from '../../model/latency-heatmap.model';
 
 enum LineType { MIN = 0, AVG = 1, MAX = 2 };
+interface HeatmapCell { startTimeMs : number; durationMs : number; lowMs : number; highMs : number; count : number };
 @Component({
   selector: 'app-statistics-graph',
   templateUrl: './statistics-graph.component.html',
@@ -35,6 +37,13 @@ export class StatisticsGraphComponent implements OnInit, AfterViewInit, OnChange
   private minTime : number = 0;
   private visibilities : { [key in LineType] : boolean } = {0 : true, 1 : true, 2: true};
   private dateFormatter = d3.timeFormat('%H:%M:%S');
+  private showHeatmap = false;
+  private heatmapRows : LatencyHeatmapRow[] = [];
+  private heatmapBounds : number[] = [];
+  private heatmapRequested = false;
+  private $heatmap : any;
+  private yScaleLinear : any;
+  private yScaleLog : any;
   // private minVisible = true;
   // private avgVisible = true;
   // private maxVisible = true;
@@ -64,6 +73,10 @@ export class StatisticsGraphComponent implements OnInit, AfterViewInit, OnChange
   @Input()
   timingMetricName = "Workload";
 
+  // The workload whose latency heatmap can be shown in place of the latency lines
+  @Input()
+  workloadId = "";
+
 
   constructor(
     private ybServer : YugabyteDataSourceService
@@ -136,6 +149,98 @@ export class StatisticsGraphComponent implements OnInit, AfterViewInit, OnChange
       .attr('y', 20)
       .text(heading)
       .attr('font-size', '1.5em');
+    if (this.timingType == "LATENCY" && this.workloadId) {
+      xLabel.append('text')
+        .attr('class', 'heatmapToggle')
+        .attr('x', this.margins.left)
+        .attr('y', 20)
+        .attr('fill', 'white')
+        .attr('font-size', '1em')
+        .style('cursor', 'pointer')
+        .text('Show heatmap')
+        .on('click', () => this.toggleHeatmap());
+    }
+  }
+
+  private toggleHeatmap() {
+    this.showHeatmap = !this.showHeatmap;
+    this.heatmapRows = [];
+    this.$heatmap.selectAll('rect').remove();
+    this.svg.select('.heatmapToggle').text(this.showHeatmap ? 'Show lines' : 'Show heatmap');
+    this.svg.selectAll('path.data').style('display', this.showHeatmap ? 'none' : null);
+    this.svg.select('.legend').style('display', this.showHeatmap ? 'none' : null);
+    if (this.showHeatmap) {
+      this.yScale = this.yScaleLog;
+    }
+    else {
+      this.yScale = this.yScaleLinear;
+      this.yAxis.tickFormat(d3.format('.2s'));
+    }
+    this.yAxis.scale(this.yScale);
+    this.update();
+  }
+
+  private updateHeatmap() {
+    // Only one request at a time, so slow responses do not pile up
+    if (this.heatmapRequested) {
+      return;
+    }
+    let fromTime = this.heatmapRows.length > 0 ? this.heatmapRows[this.heatmapRows.length-1].startTimeMs : this.minTime;
+    this.heatmapRequested = true;
+    this.ybServer.getLatencyHeatmap(this.workloadId, fromTime).subscribe(heatmap => {
+      this.heatmapRequested = false;
+      this.heatmapBounds = heatmap.bucketBoundsUs;
+      this.heatmapRows = this.heatmapRows.concat(heatmap.rows).filter(row => row.startTimeMs >= this.minTime);
+      this.drawHeatmap();
+    },
+    (error) => {
+      this.heatmapRequested = false;
+    });
+  }
+
+  private drawHeatmap() {
+    if (!this.showHeatmap) {
+      return;
+    }
+    let cells : HeatmapCell[] = [];
+    let lowest = Number.MAX_VALUE;
+    let highest = 0;
+    let maxCount = 2;
+    for (const row of this.heatmapRows) {
+      for (let i = 0; i < row.counts.length; i++) {
+        if (row.counts[i] > 0) {
+          let bucket = row.firstBucket + i;
+          // Latencies under 1us are drawn from 1us, a log scale cannot start at 0
+          let cell = {
+            startTimeMs : row.startTimeMs,
+            durationMs : row.durationMs,
+            lowMs : Math.max(this.heatmapBounds[bucket], 1) / 1000.0,
+            highMs : this.heatmapBounds[bucket+1] / 1000.0,
+            count : row.counts[i]
+          };
+          cells.push(cell);
+          lowest = Math.min(lowest, cell.lowMs);
+          highest = Math.max(highest, cell.highMs);
+          maxCount = Math.max(maxCount, cell.count);
+        }
+      }
+    }
+    if (cells.length == 0) {
+      lowest = 0.1;
+      highest = 100;
+    }
+    this.yScale.domain([lowest, highest]);
+    this.yAxis.tickFormat(this.yScale.tickFormat(5, '.2s'));
+    this.$yAxis.call(this.yAxis);
+    let color = d3.scaleSequentialLog(d3.interpolateInferno).domain([1, maxCount]);
+    this.$heatmap.selectAll('rect')
+      .data(cells)
+      .join('rect')
+      .attr('x', (d : HeatmapCell) => this.xScale(d.startTimeMs))
+      .attr('width', (d : HeatmapCell) => Math.max(1, this.xScale(d.startTimeMs + d.durationMs) - this.xScale(d.startTimeMs)))
+      .attr('y', (d : HeatmapCell) => this.yScale(d.highMs))
+      .attr('height', (d : HeatmapCell) => Math.max(1, this.yScale(d.lowMs) - this.yScale(d.highMs)))
+      .attr('fill', (d : HeatmapCell) => color(d.count));
   }
 
   private defineLegend() {
@@ -255,6 +360,8 @@ export class StatisticsGraphComponent implements OnInit, AfterViewInit, OnChange
       .tickSizeInner(-this.width + this.margins.left + this.margins.right)
       .tickSizeOuter(5)
       .tickPadding(8);
+    this.yScaleLinear = this.yScale;
+    this.yScaleLog = d3.scaleLog().range([this.height - this.margins.bottom, this.margins.top]).clamp(true);
 
     if (this.timingType == "LATENCY") {
       this.line = d3.line()
@@ -322,6 +429,8 @@ export class StatisticsGraphComponent implements OnInit, AfterViewInit, OnChange
             .attr("clip-path", "url(#clip)")
             .attr('class', 'vis');
 
+    // Below the lines so they can be drawn together if needed
+    this.$heatmap = visCont.append('g').attr('class', 'heatmap');
     this.$data = visCont.append('path').attr('class', 'line data');
     this.$dataMin = visCont.append('path').attr('class', 'lineMin data');
     this.$dataMax = visCont.append('path').attr('class', 'lineMax data');
@@ -337,6 +446,12 @@ export class StatisticsGraphComponent implements OnInit, AfterViewInit, OnChange
     let now = Date.now();
     this.minTime = now - this.duration - 1000;
     this.xScale.domain([now - this.duration, now]);
+    if (this.showHeatmap) {
+      this.$xAxis.call(this.xAxis);
+      this.drawHeatmap();
+      this.updateHeatmap();
+      return;
+    }
     let y = 100;
     if (this.data) {
       y = this.getHighestVisibleY();
@@ -416,16 +531,21 @@ export class StatisticsGraphComponent implements OnInit, AfterViewInit, OnChange
     return this.validatePoint(point) ? point.minUs/1000.0 : 0;
   }
 
+  // Intervals are not necessarily a second long, so scale counts to a per second rate
+  private perSecond(count : number, point : TimingPoint) : number {
+    return point.durationMs ? Math.round(count * 1000 / point.durationMs) : count;
+  }
+
   private getTotalTxns(point : TimingPoint, minTime? : number) : number {
-    return this.validatePoint(point) ? point.numFailed+point.numSucceeded : 0;
+    return this.validatePoint(point) ? this.perSecond(point.numFailed+point.numSucceeded, point) : 0;
   }
 
   private getSuccessfulTxns(point : TimingPoint) : number {
-    return this.validatePoint(point) ? point.numSucceeded : 0;
+    return this.validatePoint(point) ? this.perSecond(point.numSucceeded, point) : 0;
   }
 
   private getFailedTxns(point : TimingPoint) : number {
-    return this.validatePoint(point) ? point.numFailed : 0;
+    return this.validatePoint(point) ? this.perSecond(point.numFailed, point) : 0;
   }
 
   private formatToOneDP(num : number) : number {
@@ -435,8 +555,32 @@ export class StatisticsGraphComponent implements OnInit, AfterViewInit, OnChange
     return "Min:"+this.formatToOneDP(point.minUs/1000.0) + ", Avg:" + this.formatToOneDP(point.avgUs/1000.0) + ", Max:" + this.formatToOneDP(point.maxUs/1000.0);
   }
 
+  private formatPercentiles(point : TimingPoint) : string {
+    let result = "P50:"+this.formatToOneDP(point.p50Us/1000.0) + ", P99:" + this.formatToOneDP(point.p99Us/1000.0) + ", P99.9:" + this.formatToOneDP(point.p999Us/1000.0);
+    if (point.responseTime) {
+      // Response time includes any delay in starting scheduled operations
+      result += ", Resp P99:" + this.formatToOneDP(point.responseTime.p99/1000.0);
+    }
+    if (point.poolWait && point.execution) {
+      // Separates waiting for a connection in this process from time spent in the database
+      result += ", Pool wait P99:" + this.formatToOneDP(point.poolWait.p99/1000.0) + ", Exec P99:" + this.formatToOneDP(point.execution.p99/1000.0);
+    }
+    if (point.clientPauses && point.clientPauses.paused) {
+      // The simulator itself stalled, so these latencies are not all the database's
+      result += ", Client paused:" + this.formatToOneDP(Math.max(point.clientPauses.maxUs, point.clientPauses.gcMaxUs)/1000.0);
+    }
+    return result;
+  }
+
   private formatThroughput(point : TimingPoint) : string {
-    return "Throughput:" + (point.numSucceeded + point.numFailed) + " (" + point.numSucceeded + ", "+point.numFailed +")";
+    let result = "Throughput:" + this.getTotalTxns(point) + " (" + this.getSuccessfulTxns(point) + ", "+this.getFailedTxns(point) +")";
+    if (point.clientCost) {
+      result += ", Client CPU/op:" + this.formatToOneDP(point.clientCost.cpuUsPerOp) + "us, Alloc/op:" + Math.round(point.clientCost.bytesPerOp) + "B";
+    }
+    if (point.rowsPerOp) {
+      result += ", Rows/op:" + this.formatToOneDP(point.rowsPerOp.avg) + ", MB/s:" + this.formatToOneDP(point.megabytesPerSecond);
+    }
+    return result;
   }
 
   private createToolTip() {
@@ -450,7 +594,7 @@ export class StatisticsGraphComponent implements OnInit, AfterViewInit, OnChange
     this.$tooltip.append('rect')
         .attr('class', 'tooltip')
         .attr('width', 200)
-        .attr('height', 70)
+        .attr('height', 90)
         .attr('x', -210)
         .attr('y', -22)
         .attr('rx', 4)
@@ -472,10 +616,15 @@ export class StatisticsGraphComponent implements OnInit, AfterViewInit, OnChange
         .attr('y', 18);
 
     this.$tooltip.append('text')
-        .attr('class', 'tooltip-throughput')
+        .attr('class', 'tooltip-percentiles')
         .attr('x', -202)
         .attr('y', 38);
 
+    this.$tooltip.append('text')
+        .attr('class', 'tooltip-throughput')
+        .attr('x', -202)
+        .attr('y', 58);
+
     this.svg.append('rect')
         .attr('class', 'overlay')
         .style('fill','none')
@@ -497,9 +646,12 @@ export class StatisticsGraphComponent implements OnInit, AfterViewInit, OnChange
             let nextPoint = this.data[closest];
             let dataPoint = time - thisPoint.startTimeMs > time - nextPoint.startTimeMs ? nextPoint : thisPoint;
             if (dataPoint) {
-              this.$tooltip.attr('transform', 'translate(' + this.xScale(dataPoint.startTimeMs) + ',' + this.yScale(this.getHighestYFromPoint(dataPoint)) + ')');
+              // The heatmap has no single value to follow, so keep the tooltip at the top
+              let y = this.showHeatmap ? this.margins.top + 30 : this.yScale(this.getHighestYFromPoint(dataPoint));
+              this.$tooltip.attr('transform', 'translate(' + this.xScale(dataPoint.startTimeMs) + ',' + y + ')');
               this.$tooltip.select('.tooltip-date').text(this.dateFormatter(new Date(dataPoint.startTimeMs)));
               this.$tooltip.select('.tooltip-latency').text(this.formatLatency(dataPoint));
+              this.$tooltip.select('.tooltip-percentiles').text(this.formatPercentiles(dataPoint));
               this.$tooltip.select('.tooltip-throughput').text(this.formatThroughput(dataPoint));
             }
           }
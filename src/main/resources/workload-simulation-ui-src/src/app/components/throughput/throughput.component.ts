@@ -398,16 +398,21 @@ export class ThroughputComponent implements OnInit, AfterViewInit, OnChanges {
     return this.validatePoint(point) ? point.minUs : 0;
   }
 
+  // Intervals are not necessarily a second long, so scale counts to a per second rate
+  private perSecond(count : number, point : TimingPoint) : number {
+    return point.durationMs ? Math.round(count * 1000 / point.durationMs) : count;
+  }
+
   private getTotalTxns(point : TimingPoint, minTime? : number) : number {
-    return this.validatePoint(point) ? point.numFailed+point.numSucceeded : 0;
+    return this.validatePoint(point) ? this.perSecond(point.numFailed+point.numSucceeded, point) : 0;
   }
 
   private getSuccessfulTxns(point : TimingPoint) : number {
-    return this.validatePoint(point) ? point.numSucceeded : 0;
+    return this.validatePoint(point) ? this.perSecond(point.numSucceeded, point) : 0;
   }
 
   private getFailedTxns(point : TimingPoint) : number {
-    return this.validatePoint(point) ? point.numFailed : 0;
+    return this.validatePoint(point) ? this.perSecond(point.numFailed, point) : 0;
   }
 
   private formatToOneDP(num : number) : number {
@@ -418,7 +423,7 @@ export class ThroughputComponent implements OnInit, AfterViewInit, OnChanges {
   }
 
   private formatThroughput(point : TimingPoint) : string {
-    return "Throughput:" + (point.numSucceeded + point.numFailed) + " (" + point.numSucceeded + ", "+point.numFailed +")";
+    return "Throughput:" + this.getTotalTxns(point) + " (" + this.getSuccessfulTxns(point) + ", "+this.getFailedTxns(point) +")";
   }
 
   private createToolTip() {
@@ -0,0 +1,7 @@
+export interface ClientCost {
+    ops : number;
+    cpuTimeUs : number;
+    allocatedBytes : number;
+    cpuUsPerOp : number;
+    bytesPerOp : number;
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+export interface ClientPauses {
+    count : number;
+    totalUs : number;
+    maxUs : number;
+    gcCount : number;
+    gcTotalUs : number;
+    gcMaxUs : number;
+    paused : boolean;
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+export interface ConnectionPoolStats {
+    active : number;
+    idle : number;
+    pending : number;
+    total : number;
+}
\ No newline at end of file
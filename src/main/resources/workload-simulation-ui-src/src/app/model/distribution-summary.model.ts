@@ -0,0 +1,10 @@
+export interface DistributionSummary {
+    count : number;
+    min : number;
+    avg : number;
+    max : number;
+    p50 : number;
+    p90 : number;
+    p99 : number;
+    p999 : number;
+}
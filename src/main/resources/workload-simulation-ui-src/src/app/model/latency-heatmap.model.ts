@@ -0,0 +1,15 @@
+export interface LatencyHeatmapRow {
+    startTimeMs : number;
+    durationMs : number;
+    // The bucket index of the first count
+    firstBucket : number;
+    counts : number[];
+}
+
+export interface LatencyHeatmap {
+    workloadId : string;
+    resolutionMs : number;
+    // Bucket i holds latencies from bucketBoundsUs[i] up to bucketBoundsUs[i+1]
+    bucketBoundsUs : number[];
+    rows : LatencyHeatmapRow[];
+}
@@ -0,0 +1,15 @@
+export interface SaturationStatus {
+    status : string;
+    reasons : string[];
+    startTime : number;
+    targetRate : number;
+    achievedRate : number;
+    rateShortfallPercent : number;
+    poolPending : number;
+    poolWaitPercent : number;
+    clientCpuPercent : number;
+    lateStartPercent : number;
+    saturatedIntervals : number;
+    intervals : number;
+    clientSaturated : boolean;
+}
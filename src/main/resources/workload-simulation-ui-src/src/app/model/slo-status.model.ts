@@ -0,0 +1,13 @@
+export interface SloStatus {
+    name : string;
+    objective : string;
+    action : string;
+    burnRate : number;
+    latencyBurnRate : number;
+    errorBurnRate : number;
+    budgetConsumed : number;
+    breached : boolean;
+    breachCount : number;
+    lastBreachTime : number;
+    actionCount : number;
+}
\ No newline at end of file
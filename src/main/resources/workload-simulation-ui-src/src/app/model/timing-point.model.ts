@@ -1,8 +1,33 @@
+import { ClientCost } from './client-cost.model';
+import { ClientPauses } from './client-pauses.model';
+import { ConnectionPoolStats } from './connection-pool-stats.model';
+import { DistributionSummary } from './distribution-summary.model';
+
 export interface TimingPoint {
     numSucceeded : number;
     numFailed : number;
     startTimeMs : number;
+    durationMs : number;
     minUs : number;
     maxUs : number;
     avgUs : number;
+    p50Us : number;
+    p90Us : number;
+    p99Us : number;
+    p999Us : number;
+    responseTime? : DistributionSummary;
+    numLateStarts : number;
+    phases? : { [phase : string] : DistributionSummary };
+    operations? : { [operation : string] : TimingPoint };
+    errors? : { [errorType : string] : number };
+    clientPauses? : ClientPauses;
+    poolWait? : DistributionSummary;
+    execution? : DistributionSummary;
+    connectionPool? : ConnectionPoolStats;
+    clientCost? : ClientCost;
+    rowsPerOp? : DistributionSummary;
+    rows : number;
+    bytes : number;
+    rowsPerSecond : number;
+    megabytesPerSecond : number;
 }
\ No newline at end of file
@@ -1,3 +1,5 @@
+import { SaturationStatus } from "./saturation-status.model";
+import { SloStatus } from "./slo-status.model";
 import { TimingPoint } from "./timing-point.model";
 
 export interface WorkloadResult {
@@ -9,5 +11,8 @@ export interface WorkloadResult {
     endTime : number;
     status : string;
     results : TimingPoint[];
+    resolutionMs : number;
     description : string;
+    slos? : SloStatus[];
+    saturation? : SaturationStatus;
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import { InvocationResult } from '../model/invocation-result.model';
 import { WorkloadStatus } from '../model/workload-status.model';
 import { WorkloadResult } from '../model/workload-result.model';
 import { SystemPreferences } from '../model/system-preferences.model';
+import { LatencyHeatmap } from '../model/latency-heatmap.model';
 
 const PROTOCOL = 'http';
 const PORT = 8080;
@@ -40,8 +41,20 @@ export class YugabyteDataSourceService {
   // getTimingResults(afterTime : number) : Observable<TimingData> {
   //   return this.http.get<TimingData>(this.baseUrl + "api/getResults/" + afterTime);
   // }
-  getTimingResults(afterTime : number) : Observable<any> {
-    return this.http.get<any>(this.baseUrl + "api/getResults/" + afterTime);
+  getTimingResults(afterTime : number, resolutionMs? : number) : Observable<any> {
+    let url = this.baseUrl + "api/getResults/" + afterTime;
+    if (resolutionMs) {
+      url += "?resolutionMs=" + resolutionMs;
+    }
+    return this.http.get<any>(url);
+  }
+
+  getLatencyHeatmap(workloadId : string, fromTime : number, resolutionMs? : number) : Observable<LatencyHeatmap> {
+    let url = this.baseUrl + "api/getHeatmap/" + encodeURIComponent(workloadId) + "?fromTime=" + fromTime;
+    if (resolutionMs) {
+      url += "&resolutionMs=" + resolutionMs;
+    }
+    return this.http.get<LatencyHeatmap>(url);
   }
   
   createTables() : Observable<number> {
@@ -0,0 +1,91 @@
+package com.yugabyte.simulation.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.yugabyte.simulation.dao.Baseline;
+import com.yugabyte.simulation.dao.BaselineComparison;
+
+class BaselineServiceTest {
+	private static final double[] TOLERANCES = { 5, 0.1, 10, 10, 10 };
+
+	/**
+	 * A run of 1 second intervals of 1000 operations each, with latencies spread evenly
+	 * around the passed median
+	 */
+	private static Baseline.Run run(int intervals, long medianUs, long failuresPerInterval, Random random) {
+		List<Baseline.Interval> result = new ArrayList<>();
+		for (int i = 0; i < intervals; i++) {
+			LatencyHistogram latencies = new LatencyHistogram();
+			for (int j = 0; j < 1000; j++) {
+				latencies.record(medianUs / 2 + random.nextInt((int)medianUs));
+			}
+			result.add(new Baseline.Interval(i * 1000L, 1000, failuresPerInterval, HistogramLogFormat.encode(latencies)));
+		}
+		return new Baseline.Run("run", "", 0, result);
+	}
+
+	private static BaselineComparison.Metric find(List<BaselineComparison.Metric> metrics, String name) {
+		for (BaselineComparison.Metric metric : metrics) {
+			if (metric.getName().equals(name)) {
+				return metric;
+			}
+		}
+		throw new AssertionError("No metric " + name);
+	}
+
+	private static List<BaselineComparison.Metric> compare(Baseline.Run baseline, Baseline.Run current) {
+		return BaselineService.compareRuns(BaselineService.toBlocks(baseline, 0), BaselineService.toBlocks(current, 0),
+				TOLERANCES, new Random(1));
+	}
+
+	@Test
+	void sameDistributionDoesNotRegress() {
+		Random random = new Random(42);
+		List<BaselineComparison.Metric> metrics = compare(run(60, 1000, 0, random), run(60, 1000, 0, random));
+		for (BaselineComparison.Metric metric : metrics) {
+			assertFalse(metric.isRegression(), metric.getName());
+			assertTrue(metric.getChangeLow() <= 0.5 && metric.getChangeHigh() >= -0.5, metric.getName());
+		}
+		assertEquals(1000.0, find(metrics, "opsPerSecond").getCurrent(), 1e-9);
+		// Percentiles come from the full histograms rather than coarse buckets
+		assertEquals(1000.0, find(metrics, "p50Us").getBaseline(), 10);
+		assertEquals(1490.0, find(metrics, "p99Us").getBaseline(), 15);
+	}
+
+	@Test
+	void latencyIncreaseBeyondTheToleranceRegresses() {
+		Random random = new Random(42);
+		List<BaselineComparison.Metric> metrics = compare(run(60, 1000, 0, random), run(60, 1150, 0, random));
+		BaselineComparison.Metric p50 = find(metrics, "p50Us");
+		assertTrue(p50.isRegression());
+		assertEquals(15.0, p50.getChange(), 1.5);
+		assertTrue(p50.getChangeLow() > 10);
+		assertFalse(find(metrics, "opsPerSecond").isRegression());
+	}
+
+	@Test
+	void latencyIncreaseWithinTheToleranceDoesNotRegress() {
+		Random random = new Random(42);
+		List<BaselineComparison.Metric> metrics = compare(run(60, 1000, 0, random), run(60, 1050, 0, random));
+		BaselineComparison.Metric p50 = find(metrics, "p50Us");
+		assertFalse(p50.isRegression());
+		assertEquals(5.0, p50.getChange(), 1.5);
+	}
+
+	@Test
+	void errorIncreaseRegresses() {
+		Random random = new Random(42);
+		List<BaselineComparison.Metric> metrics = compare(run(60, 1000, 0, random), run(60, 1000, 5, random));
+		BaselineComparison.Metric errors = find(metrics, "errorPercent");
+		assertTrue(errors.isRegression());
+		assertEquals(0.5, errors.getChange(), 1e-9);
+	}
+}
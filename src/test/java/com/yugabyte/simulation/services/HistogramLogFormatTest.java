@@ -0,0 +1,72 @@
+package com.yugabyte.simulation.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class HistogramLogFormatTest {
+
+	private static void assertSameHistogram(LatencyHistogram expected, LatencyHistogram actual) {
+		assertEquals(expected.getTotalCount(), actual.getTotalCount());
+		assertEquals(expected.getTotalValue(), actual.getTotalValue());
+		assertEquals(expected.getMin(), actual.getMin());
+		assertEquals(expected.getMax(), actual.getMax());
+		for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+			assertEquals(expected.getCountAt(i), actual.getCountAt(i), "bucket " + i);
+		}
+	}
+
+	@Test
+	void encodeDecodeRoundTrip() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		Random random = new Random(7);
+		for (int i = 0; i < 50_000; i++) {
+			histogram.record((long)Math.exp(random.nextDouble() * 20));
+		}
+		histogram.record(LatencyHistogram.MAX_TRACKABLE_VALUE + 1000);
+		assertSameHistogram(histogram, HistogramLogFormat.decode(HistogramLogFormat.encode(histogram)));
+	}
+
+	@Test
+	void emptyHistogramRoundTrip() {
+		LatencyHistogram decoded = HistogramLogFormat.decode(HistogramLogFormat.encode(new LatencyHistogram()));
+		assertTrue(decoded.isEmpty());
+		assertEquals(0, decoded.getMax());
+	}
+
+	@Test
+	void lineRoundTrip() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(120);
+		histogram.record(4500);
+		histogram.record(4500);
+		String line = HistogramLogFormat.formatLine(1_650_000_000_000L, 1000, 3, histogram);
+		assertTrue(line.endsWith("\n"));
+
+		HistogramLogFormat.Interval interval = HistogramLogFormat.parseLine(line);
+		assertEquals(1_650_000_000_000L, interval.getStartTimeMs());
+		assertEquals(1000, interval.getDurationMs());
+		assertEquals(3, interval.getNumFailed());
+		LatencyHistogram decoded = new LatencyHistogram();
+		interval.addLatenciesTo(decoded);
+		interval.addLatenciesTo(decoded);
+		assertEquals(6, decoded.getTotalCount());
+		assertEquals(120, decoded.getMin());
+		assertEquals(4500, decoded.getMax());
+	}
+
+	@Test
+	void commentsAreSkippedAndBadLinesRejected() {
+		for (String header : HistogramLogFormat.HEADER.split("\n")) {
+			assertNull(HistogramLogFormat.parseLine(header));
+		}
+		assertNull(HistogramLogFormat.parseLine("  "));
+		assertThrows(IllegalArgumentException.class, () -> HistogramLogFormat.parseLine("1,2,3"));
+		assertThrows(IllegalArgumentException.class, () -> HistogramLogFormat.decode(new byte[] { 1, 2, 3 }));
+	}
+}
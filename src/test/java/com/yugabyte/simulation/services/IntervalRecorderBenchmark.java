@@ -0,0 +1,122 @@
+package com.yugabyte.simulation.services;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contention benchmark for the latency recording path. Each recording thread does what
+ * TimerService.submitResult does per operation (record into the workload's recorder, the
+ * aggregate is merged when the results are collated) while a collator thread snapshots
+ * every 100ms, comparing the striped {@link IntervalRecorder} against a single lock per
+ * histogram as used previously.
+ * <p>
+ * This is not a unit test, run it directly:
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.yugabyte.simulation.services.IntervalRecorderBenchmark
+ * </pre>
+ */
+public class IntervalRecorderBenchmark {
+	private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64, 128, 256};
+	private static final long RUN_TIME_MS = 2000;
+
+	private interface Recorder {
+		void record(long value, ExecutionStatus status);
+		void snapshot();
+	}
+
+	private static class StripedRecorder implements Recorder {
+		private final IntervalRecorder workload = new IntervalRecorder();
+		private final TimingSnapshot snapshot = new TimingSnapshot();
+
+		@Override
+		public void record(long value, ExecutionStatus status) {
+			workload.record(value, status);
+		}
+
+		@Override
+		public void snapshot() {
+			snapshot.reset();
+			workload.snapshotInto(snapshot);
+		}
+	}
+
+	private static class LockingRecorder implements Recorder {
+		private final LatencyHistogram workload = new LatencyHistogram();
+
+		@Override
+		public void record(long value, ExecutionStatus status) {
+			synchronized (workload) {
+				workload.record(value);
+			}
+		}
+
+		@Override
+		public void snapshot() {
+			synchronized (workload) {
+				workload.reset();
+			}
+		}
+	}
+
+	private static double run(Recorder recorder, int threads) throws InterruptedException {
+		AtomicBoolean stop = new AtomicBoolean(false);
+		AtomicLong totalOps = new AtomicLong();
+		CountDownLatch startLatch = new CountDownLatch(1);
+		Thread[] workers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Thread(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				long ops = 0;
+				try {
+					startLatch.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				while (!stop.get()) {
+					recorder.record(random.nextInt(100, 50_000), ExecutionStatus.SUCCESS);
+					ops++;
+				}
+				totalOps.addAndGet(ops);
+			});
+			workers[i].start();
+		}
+		Thread collator = new Thread(() -> {
+			while (!stop.get()) {
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					return;
+				}
+				recorder.snapshot();
+			}
+		});
+		collator.start();
+		long start = System.nanoTime();
+		startLatch.countDown();
+		Thread.sleep(RUN_TIME_MS);
+		stop.set(true);
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		long elapsedNs = System.nanoTime() - start;
+		collator.join();
+		return totalOps.get() * 1_000_000_000.0 / elapsedNs;
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		System.out.printf("%d cores, %d ms per run\n", Runtime.getRuntime().availableProcessors(), RUN_TIME_MS);
+		// Warm up both paths
+		run(new StripedRecorder(), 4);
+		run(new LockingRecorder(), 4);
+
+		System.out.printf("%8s %18s %18s %8s\n", "Threads", "Striped ops/s", "Locked ops/s", "Ratio");
+		for (int threads : THREAD_COUNTS) {
+			double striped = run(new StripedRecorder(), threads);
+			double locked = run(new LockingRecorder(), threads);
+			System.out.printf("%8d %,18.0f %,18.0f %7.1fx\n", threads, striped, locked, striped / locked);
+		}
+	}
+}
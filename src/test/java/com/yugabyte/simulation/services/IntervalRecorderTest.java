@@ -0,0 +1,103 @@
+package com.yugabyte.simulation.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class IntervalRecorderTest {
+	private static final int THREADS = 8;
+	private static final int OPS_PER_THREAD = 200_000;
+
+	@Test
+	void everySampleLandsInExactlyOneInterval() throws InterruptedException {
+		IntervalRecorder recorder = new IntervalRecorder();
+		CountDownLatch startLatch = new CountDownLatch(1);
+		Thread[] writers = new Thread[THREADS];
+		for (int i = 0; i < THREADS; i++) {
+			writers[i] = new Thread(() -> {
+				try {
+					startLatch.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int op = 0; op < OPS_PER_THREAD; op++) {
+					recorder.record(1 + op % 1000, op % 10 == 0 ? ExecutionStatus.ERROR : ExecutionStatus.SUCCESS);
+				}
+			});
+			writers[i].start();
+		}
+
+		// Swap the intervals as fast as possible while the writers are recording
+		AtomicBoolean stop = new AtomicBoolean(false);
+		TimingSnapshot total = new TimingSnapshot();
+		AtomicInteger intervals = new AtomicInteger();
+		Thread collator = new Thread(() -> {
+			TimingSnapshot interval = new TimingSnapshot();
+			while (!stop.get()) {
+				interval.reset();
+				recorder.snapshotInto(interval);
+				total.add(interval);
+				intervals.incrementAndGet();
+			}
+		});
+		collator.start();
+		startLatch.countDown();
+		for (Thread writer : writers) {
+			writer.join();
+		}
+		stop.set(true);
+		collator.join();
+		recorder.snapshotInto(total);
+
+		long expectedValue = 0;
+		for (int op = 0; op < OPS_PER_THREAD; op++) {
+			expectedValue += 1 + op % 1000;
+		}
+		assertTrue(intervals.get() > 1);
+		assertEquals((long)THREADS * OPS_PER_THREAD, total.getLatencies().getTotalCount());
+		assertEquals(THREADS * expectedValue, total.getLatencies().getTotalValue());
+		assertEquals((long)THREADS * OPS_PER_THREAD / 10, total.getFailureCount());
+	}
+
+	@Test
+	void errorTypesBeyondTheLimitAreCountedAsOther() {
+		IntervalRecorder recorder = new IntervalRecorder();
+		int types = IntervalRecorder.MAX_ERROR_TYPES + 2000;
+		for (int repeat = 0; repeat < 2; repeat++) {
+			for (int i = 0; i < types; i++) {
+				recorder.recordError("error " + i);
+			}
+		}
+		TimingSnapshot snapshot = new TimingSnapshot();
+		recorder.snapshotInto(snapshot);
+		Map<String, Long> errors = snapshot.getErrors();
+		assertEquals(IntervalRecorder.MAX_ERROR_TYPES, errors.size());
+		assertEquals(2, errors.get("error 0").longValue());
+		assertEquals(2, errors.get("error " + (IntervalRecorder.MAX_ERROR_TYPES - 2)).longValue());
+		assertEquals(2L * (types - IntervalRecorder.MAX_ERROR_TYPES + 1), errors.get(IntervalRecorder.OTHER_ERROR).longValue());
+	}
+
+	@Test
+	void negativePoolWaitIsNotRecorded() {
+		IntervalRecorder recorder = new IntervalRecorder();
+		recorder.record(100, -1, false, -1, ExecutionStatus.SUCCESS);
+		TimingSnapshot snapshot = new TimingSnapshot();
+		recorder.snapshotInto(snapshot);
+		assertEquals(1, snapshot.getLatencies().getTotalCount());
+		assertTrue(snapshot.getPoolWaits().isEmpty());
+		assertTrue(snapshot.getExecutionTimes().isEmpty());
+
+		// A connection obtained without waiting is still a pool wait
+		recorder.record(100, -1, false, 0, ExecutionStatus.SUCCESS);
+		snapshot.reset();
+		recorder.snapshotInto(snapshot);
+		assertEquals(1, snapshot.getPoolWaits().getTotalCount());
+		assertEquals(100, snapshot.getExecutionTimes().getMax());
+	}
+}
@@ -0,0 +1,78 @@
+package com.yugabyte.simulation.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.yugabyte.simulation.dao.LatencyHeatmapResult;
+
+class LatencyHeatmapTest {
+
+	private static LatencyHistogram histogram(long ... latencies) {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long latency : latencies) {
+			histogram.record(latency);
+		}
+		return histogram;
+	}
+
+	private static int countAt(LatencyHeatmapResult.Row row, long latency) {
+		int index = LatencyHeatmap.bucketIndex(latency) - row.getFirstBucket();
+		return index < 0 || index >= row.getCounts().length ? 0 : row.getCounts()[index];
+	}
+
+	@Test
+	void rowsAreReturnedAsIsAtTheirOwnResolution() {
+		LatencyHeatmap heatmap = new LatencyHeatmap(10);
+		heatmap.add(1000, 1000, histogram(100, 100, 5000));
+		heatmap.add(2000, 1000, histogram());
+		List<LatencyHeatmapResult.Row> rows = heatmap.getResults("w", 0, Long.MAX_VALUE, 1000).getRows();
+		assertEquals(2, rows.size());
+		assertEquals(2, countAt(rows.get(0), 100));
+		assertEquals(1, countAt(rows.get(0), 5000));
+		assertEquals(0, rows.get(1).getCounts().length);
+	}
+
+	@Test
+	void rowsAreMergedIntoAlignedBucketsAtACoarserResolution() {
+		LatencyHeatmap heatmap = new LatencyHeatmap(100);
+		// Intervals from 8s to 25s, merged into buckets at 0, 10s and 20s
+		for (long start = 8000; start < 26_000; start += 1000) {
+			heatmap.add(start, 1000, start < 20_000 ? histogram(100) : histogram(100, 20_000));
+		}
+		List<LatencyHeatmapResult.Row> rows = heatmap.getResults("w", 0, Long.MAX_VALUE, 10_000).getRows();
+		assertEquals(3, rows.size());
+		assertEquals(0, rows.get(0).getStartTimeMs());
+		assertEquals(2000, rows.get(0).getDurationMs());
+		assertEquals(2, countAt(rows.get(0), 100));
+		assertEquals(10_000, rows.get(1).getStartTimeMs());
+		assertEquals(10_000, rows.get(1).getDurationMs());
+		assertEquals(10, countAt(rows.get(1), 100));
+		assertEquals(0, countAt(rows.get(1), 20_000));
+		assertEquals(20_000, rows.get(2).getStartTimeMs());
+		assertEquals(6000, rows.get(2).getDurationMs());
+		assertEquals(6, countAt(rows.get(2), 100));
+		assertEquals(6, countAt(rows.get(2), 20_000));
+		// Only the buckets between the smallest and largest latency are sent
+		assertEquals(LatencyHeatmap.bucketIndex(100), rows.get(2).getFirstBucket());
+		assertEquals(LatencyHeatmap.bucketIndex(20_000) - LatencyHeatmap.bucketIndex(100) + 1, rows.get(2).getCounts().length);
+
+		rows = heatmap.getResults("w", 15_500, 22_000, 10_000).getRows();
+		assertEquals(2, rows.size());
+		assertEquals(4000, rows.get(0).getDurationMs());
+		assertEquals(2000, rows.get(1).getDurationMs());
+	}
+
+	@Test
+	void rowsOlderThanTheMaximumAgeAreDropped() {
+		LatencyHeatmap heatmap = new LatencyHeatmap(1000, 300_000);
+		for (long start = 1000; start <= 600_000; start += 1000) {
+			heatmap.add(start, 1000, histogram(100));
+		}
+		List<LatencyHeatmapResult.Row> rows = heatmap.getResults("w", 0, Long.MAX_VALUE, 1000).getRows();
+		assertEquals(301, rows.size());
+		assertEquals(300_000, rows.get(0).getStartTimeMs());
+	}
+}
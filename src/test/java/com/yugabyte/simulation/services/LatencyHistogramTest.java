@@ -0,0 +1,84 @@
+package com.yugabyte.simulation.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+	@Test
+	void emptyHistogramReportsZero() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertTrue(histogram.isEmpty());
+		assertEquals(0, histogram.getValueAtPercentile(99));
+		assertEquals(0, histogram.getMin());
+		assertEquals(0, histogram.getMean());
+	}
+
+	@Test
+	void smallValuesAreExact() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long value = 1; value <= 100; value++) {
+			histogram.record(value);
+		}
+		assertEquals(100, histogram.getTotalCount());
+		assertEquals(1, histogram.getMin());
+		assertEquals(100, histogram.getMax());
+		assertEquals(50, histogram.getMean());
+		assertEquals(1, histogram.getValueAtPercentile(0));
+		assertEquals(50, histogram.getValueAtPercentile(50));
+		assertEquals(90, histogram.getValueAtPercentile(90));
+		assertEquals(99, histogram.getValueAtPercentile(99));
+		assertEquals(100, histogram.getValueAtPercentile(100));
+	}
+
+	@Test
+	void largeValuesAreWithinOnePercent() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		Random random = new Random(42);
+		long[] values = new long[100_000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = 256 + (long)(Math.exp(random.nextDouble() * 16));
+			histogram.record(values[i]);
+		}
+		Arrays.sort(values);
+		for (double percentile : new double[] { 1, 10, 50, 90, 99, 99.9 }) {
+			long exact = values[(int)Math.ceil(percentile / 100 * values.length) - 1];
+			long reported = histogram.getValueAtPercentile(percentile);
+			assertTrue(reported >= exact, "p" + percentile + " " + reported + " below " + exact);
+			assertTrue(reported <= exact * 1.01, "p" + percentile + " " + reported + " more than 1% above " + exact);
+		}
+		assertEquals(values[values.length - 1], histogram.getValueAtPercentile(100));
+	}
+
+	@Test
+	void valuesAboveTheTrackableRangeKeepTheirMax() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		long huge = LatencyHistogram.MAX_TRACKABLE_VALUE * 4;
+		histogram.record(10);
+		histogram.record(huge);
+		assertEquals(2, histogram.getTotalCount());
+		assertEquals(huge, histogram.getMax());
+		assertEquals(huge, histogram.getValueAtPercentile(100));
+		assertEquals(1, histogram.getCountAt(LatencyHistogram.BUCKET_COUNT - 1));
+	}
+
+	@Test
+	void addMergesCountsAndTotals() {
+		LatencyHistogram first = new LatencyHistogram();
+		LatencyHistogram second = new LatencyHistogram();
+		first.record(5);
+		first.record(1000);
+		second.record(2);
+		second.record(50_000);
+		first.add(second);
+		assertEquals(4, first.getTotalCount());
+		assertEquals(2, first.getMin());
+		assertEquals(50_000, first.getMax());
+		assertEquals(5 + 1000 + 2 + 50_000, first.getTotalValue());
+	}
+}
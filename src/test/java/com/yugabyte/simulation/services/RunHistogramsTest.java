@@ -0,0 +1,47 @@
+package com.yugabyte.simulation.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.yugabyte.simulation.dao.Baseline;
+
+class RunHistogramsTest {
+
+	private static LatencyHistogram latencies(long latencyUs) {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(latencyUs);
+		return histogram;
+	}
+
+	@Test
+	void neighbouringIntervalsAreMergedOnceFull() {
+		RunHistograms histograms = new RunHistograms();
+		int added = RunHistograms.MAX_INTERVALS * 3 / 2 + 1;
+		for (int i = 0; i < added; i++) {
+			histograms.add(i * 1000L, 1000, i % 2, latencies(100 + i));
+		}
+		List<Baseline.Interval> intervals = histograms.getIntervals();
+		// Pairs of intervals, then the one still being filled
+		assertEquals(RunHistograms.MAX_INTERVALS * 3 / 4 + 1, intervals.size());
+		Baseline.Interval first = intervals.get(0);
+		assertEquals(0, first.getStartTimeMs());
+		assertEquals(2000, first.getDurationMs());
+		assertEquals(1, first.getNumFailed());
+		LatencyHistogram merged = HistogramLogFormat.decode(first.getEncodedLatencies());
+		assertEquals(2, merged.getTotalCount());
+		assertEquals(100, merged.getMin());
+		assertEquals(101, merged.getMax());
+		Baseline.Interval last = intervals.get(intervals.size() - 1);
+		assertEquals((added - 1) * 1000L, last.getStartTimeMs());
+		assertEquals(1000, last.getDurationMs());
+
+		long total = 0;
+		for (Baseline.Interval interval : intervals) {
+			total += HistogramLogFormat.decode(interval.getEncodedLatencies()).getTotalCount();
+		}
+		assertEquals(added, total);
+	}
+}
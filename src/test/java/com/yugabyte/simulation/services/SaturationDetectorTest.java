@@ -0,0 +1,100 @@
+package com.yugabyte.simulation.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.yugabyte.simulation.dao.ClientPauses;
+import com.yugabyte.simulation.dao.ConnectionPoolStats;
+import com.yugabyte.simulation.dao.DistributionSummary;
+import com.yugabyte.simulation.dao.SaturationStatus;
+import com.yugabyte.simulation.dao.TimerResult;
+
+class SaturationDetectorTest {
+	private static final long RUN_START = 0;
+	// After the warmup
+	private static final long START = 60_000;
+
+	/**
+	 * A 1 second interval of the passed number of operations averaging 1ms
+	 */
+	private static TimerResult result(long startTimeMs, long ops, long lateStarts, ClientPauses pauses,
+			DistributionSummary poolWait, ConnectionPoolStats pool) {
+		return new TimerResult(startTimeMs, 1000, ops, 0, 500, 1000, 2000, 1000, 1500, 1900, 2000,
+				null, lateStarts, pauses, poolWait, null, pool, null, null, 0, 0);
+	}
+
+	private static TimerResult result(long startTimeMs, long ops) {
+		return result(startTimeMs, ops, 0, null, null, null);
+	}
+
+	@Test
+	void meetingTheTargetIsOkEvenAtTheThreadLimit() {
+		SaturationDetector detector = new SaturationDetector(RUN_START);
+		assertNull(detector.getStatus());
+		assertEquals(SaturationDetector.Event.NONE, detector.evaluate(result(START, 1000), 1000, true, 0.5));
+		assertEquals(SaturationStatus.Status.OK, detector.getStatus().getStatus());
+		assertEquals(1000.0, detector.getStatus().getAchievedRate(), 1e-9);
+	}
+
+	@Test
+	void shortfallAtTheThreadLimitIsSaturationUntilRecovered() {
+		SaturationDetector detector = new SaturationDetector(RUN_START);
+		assertEquals(SaturationDetector.Event.SATURATED, detector.evaluate(result(START, 500), 1000, true, 0.5));
+		assertEquals(Arrays.asList(SaturationStatus.Reason.THREAD_CAP), detector.getStatus().getReasons());
+		assertEquals(50.0, detector.getStatus().getRateShortfallPercent(), 1e-9);
+		assertEquals(SaturationDetector.Event.NONE, detector.evaluate(result(START + 1000, 500), 1000, true, 0.5));
+		assertEquals(SaturationDetector.Event.RECOVERED, detector.evaluate(result(START + 2000, 1000), 1000, true, 0.5));
+		assertEquals(2, detector.getStatus().getSaturatedIntervals());
+		assertEquals(3, detector.getStatus().getIntervals());
+	}
+
+	@Test
+	void shortfallWithSpareThreadsIsBelowTarget() {
+		SaturationDetector detector = new SaturationDetector(RUN_START);
+		assertEquals(SaturationDetector.Event.BELOW_TARGET, detector.evaluate(result(START, 500), 1000, false, 0.5));
+		assertTrue(detector.getStatus().getReasons().isEmpty());
+		// Many late starts while short of the target mean the workers cannot keep up
+		assertEquals(SaturationDetector.Event.SATURATED,
+				detector.evaluate(result(START + 1000, 500, 100, null, null, null), 1000, false, 0.5));
+		assertEquals(Arrays.asList(SaturationStatus.Reason.LATE_STARTS), detector.getStatus().getReasons());
+	}
+
+	@Test
+	void shortfallDuringTheWarmupIsIgnored() {
+		SaturationDetector detector = new SaturationDetector(RUN_START);
+		assertEquals(SaturationDetector.Event.NONE, detector.evaluate(result(5000, 100), 1000, true, 0.5));
+		assertEquals(0.0, detector.getStatus().getRateShortfallPercent(), 1e-9);
+	}
+
+	@Test
+	void clientCpuAndPausesAlwaysCount() {
+		SaturationDetector detector = new SaturationDetector(RUN_START);
+		ClientPauses paused = new ClientPauses(1, 200_000, 200_000, 1, 200_000, 200_000, true);
+		assertEquals(SaturationDetector.Event.SATURATED,
+				detector.evaluate(result(START, 1000, 0, paused, null, null), 0, false, 0.95));
+		assertEquals(Arrays.asList(SaturationStatus.Reason.CLIENT_CPU, SaturationStatus.Reason.CLIENT_PAUSED),
+				detector.getStatus().getReasons());
+		assertEquals(95.0, detector.getStatus().getClientCpuPercent(), 1e-9);
+	}
+
+	@Test
+	void poolWaitOnlyCountsWhenItIsANoticeableShare() {
+		SaturationDetector detector = new SaturationDetector(RUN_START);
+		ConnectionPoolStats pending = new ConnectionPoolStats(10, 0, 3, 10);
+		// 1000 operations averaging 50us of their 1ms waiting for a connection
+		DistributionSummary shortWait = new DistributionSummary(1000, 0, 50, 500, 40, 100, 200, 500);
+		assertEquals(SaturationDetector.Event.NONE,
+				detector.evaluate(result(START, 1000, 0, null, shortWait, pending), 1000, false, 0.5));
+		// Averaging 200us
+		DistributionSummary longWait = new DistributionSummary(1000, 0, 200, 900, 150, 400, 800, 900);
+		assertEquals(SaturationDetector.Event.SATURATED,
+				detector.evaluate(result(START + 1000, 1000, 0, null, longWait, pending), 1000, false, 0.5));
+		assertEquals(Arrays.asList(SaturationStatus.Reason.POOL_EXHAUSTED), detector.getStatus().getReasons());
+		assertEquals(20.0, detector.getStatus().getPoolWaitPercent(), 1e-9);
+	}
+}
@@ -0,0 +1,78 @@
+package com.yugabyte.simulation.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.yugabyte.simulation.dao.SloDefinition;
+
+class SloTrackerTest {
+
+	private static SloDefinition p99Under(double thresholdMs, SloDefinition.Action action) {
+		SloDefinition definition = new SloDefinition();
+		definition.setName("p99");
+		definition.setPercentile(99);
+		definition.setLatencyThresholdMs(thresholdMs);
+		definition.setWindowSeconds(2);
+		definition.setAction(action);
+		return definition;
+	}
+
+	/**
+	 * An interval of 100 operations, the passed number of which took 50ms and the rest 1ms
+	 */
+	private static TimingSnapshot interval(int slowOperations) {
+		TimingSnapshot snapshot = new TimingSnapshot();
+		for (int i = 0; i < 100; i++) {
+			snapshot.getLatencies().record(i < slowOperations ? 50_000 : 1000);
+		}
+		return snapshot;
+	}
+
+	@Test
+	void breachRepeatAndRecovery() {
+		SloTracker tracker = new SloTracker(p99Under(10, SloDefinition.Action.REDUCE_RATE), 1000);
+		// Nothing is evaluated until the window is full
+		assertEquals(SloTracker.Event.NONE, tracker.evaluate(interval(5), 0));
+		assertEquals(SloTracker.Event.BREACHED, tracker.evaluate(interval(5), 1000));
+		assertEquals(5.0, tracker.getBurnRate(), 1e-9);
+		// Still breached, but the last reduction has not had a window to take effect
+		assertEquals(SloTracker.Event.NONE, tracker.evaluate(interval(5), 2000));
+		assertEquals(SloTracker.Event.STILL_BREACHED, tracker.evaluate(interval(5), 3000));
+		// Half the window is within the objective, but not enough to bring the burn rate under 1
+		assertEquals(SloTracker.Event.NONE, tracker.evaluate(interval(0), 4000));
+		assertEquals(SloTracker.Event.RECOVERED, tracker.evaluate(interval(0), 5000));
+		assertEquals(0.0, tracker.getBurnRate(), 1e-9);
+		assertFalse(tracker.getStatus().isBreached());
+		assertEquals(1, tracker.getStatus().getBreachCount());
+		assertEquals(2, tracker.getStatus().getActionCount());
+	}
+
+	@Test
+	void breachIsOnlyRepeatedForRateReductions() {
+		SloTracker tracker = new SloTracker(p99Under(10, SloDefinition.Action.LOG), 1000);
+		tracker.evaluate(interval(5), 0);
+		assertEquals(SloTracker.Event.BREACHED, tracker.evaluate(interval(5), 1000));
+		for (long start = 2000; start < 10_000; start += 1000) {
+			assertEquals(SloTracker.Event.NONE, tracker.evaluate(interval(5), start));
+		}
+		assertTrue(tracker.getStatus().isBreached());
+	}
+
+	@Test
+	void responseTimesAreUsedWhenRecorded() {
+		SloTracker tracker = new SloTracker(p99Under(10, SloDefinition.Action.LOG), 1000);
+		for (long start = 0; start < 2000; start += 1000) {
+			// Every operation ran quickly, but they were queued behind a stall
+			TimingSnapshot snapshot = interval(0);
+			for (int i = 0; i < 100; i++) {
+				snapshot.getResponseTimes().record(i < 50 ? 1000 : 40_000);
+			}
+			tracker.evaluate(snapshot, start);
+		}
+		assertTrue(tracker.getStatus().isBreached());
+		assertEquals(50.0, tracker.getBurnRate(), 1e-9);
+	}
+}
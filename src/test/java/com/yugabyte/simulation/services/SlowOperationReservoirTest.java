@@ -0,0 +1,72 @@
+package com.yugabyte.simulation.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.yugabyte.simulation.dao.SlowOperation;
+import com.yugabyte.simulation.dao.SlowOperationsResult;
+
+class SlowOperationReservoirTest {
+
+	private static SlowOperation operation(long latencyUs) {
+		return new SlowOperation(0, latencyUs, -1, "SUCCESS", "op", null, null, null, "worker");
+	}
+
+	private static void addAll(SlowOperationReservoir reservoir, long ... latencies) {
+		for (long latency : latencies) {
+			if (reservoir.isCandidate(latency)) {
+				reservoir.add(operation(latency));
+			}
+		}
+	}
+
+	private static List<Long> latencies(List<SlowOperation> operations) {
+		return operations.stream().map(SlowOperation::getLatencyUs).collect(Collectors.toList());
+	}
+
+	@Test
+	void keepsTheSlowestOfEachIntervalSlowestFirst() {
+		SlowOperationReservoir reservoir = new SlowOperationReservoir(3);
+		addAll(reservoir, 5, 1, 9, 3, 7, 2, 8);
+		assertEquals("[9, 8, 7]", latencies(reservoir.nextInterval(1000)).toString());
+
+		addAll(reservoir, 20, 4);
+		assertEquals("[20, 4]", latencies(reservoir.nextInterval(2000)).toString());
+
+		SlowOperationsResult result = reservoir.getResult("w1", 0);
+		assertEquals(3, result.getSize());
+		assertEquals("[20, 9, 8]", latencies(result.getSlowest()).toString());
+		assertEquals(2, result.getIntervals().size());
+		assertEquals(1, reservoir.getResult("w1", 1500).getIntervals().size());
+	}
+
+	@Test
+	void thresholdRisesOnceFullAndResetsEachInterval() {
+		SlowOperationReservoir reservoir = new SlowOperationReservoir(2);
+		assertTrue(reservoir.isCandidate(0));
+		addAll(reservoir, 10, 30);
+		assertFalse(reservoir.isCandidate(10));
+		assertTrue(reservoir.isCandidate(11));
+		addAll(reservoir, 20);
+		assertFalse(reservoir.isCandidate(20));
+
+		assertEquals("[30, 20]", latencies(reservoir.nextInterval(1000)).toString());
+		assertTrue(reservoir.isCandidate(1));
+		assertTrue(reservoir.nextInterval(2000).isEmpty());
+	}
+
+	@Test
+	void sizeOfZeroKeepsNothing() {
+		SlowOperationReservoir reservoir = new SlowOperationReservoir(0);
+		assertFalse(reservoir.isCandidate(Long.MAX_VALUE - 1));
+		reservoir.add(operation(100));
+		assertTrue(reservoir.nextInterval(1000).isEmpty());
+		assertTrue(reservoir.getResult("w1", 0).getSlowest().isEmpty());
+	}
+}
@@ -0,0 +1,172 @@
+package com.yugabyte.simulation.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.yugabyte.simulation.dao.ConnectionPoolStats;
+import com.yugabyte.simulation.dao.DistributionSummary;
+import com.yugabyte.simulation.dao.TimerResult;
+
+class TimingHistoryTest {
+
+	private static class StepResult extends TimerResult {
+		private final int step;
+
+		StepResult(TimerResult original, int step) {
+			super(original);
+			this.step = step;
+		}
+	}
+
+	private static final TimingHistory.ExtraColumns STEP_COLUMNS = new TimingHistory.ExtraColumns() {
+		@Override
+		public int getCount() {
+			return 1;
+		}
+
+		@Override
+		public boolean put(TimerResult result, long[] values) {
+			if (result.getClass() != StepResult.class) {
+				return false;
+			}
+			values[0] = ((StepResult)result).step;
+			return true;
+		}
+
+		@Override
+		public TimerResult get(TimerResult base, long[] values) {
+			return new StepResult(base, (int)values[0]);
+		}
+	};
+
+	private static TimerResult result(long startTimeMs) {
+		DistributionSummary poolWait = new DistributionSummary(3, 1, 2, 4, 2, 4, 4, 4);
+		return new TimerResult(startTimeMs, 1000, startTimeMs / 1000, 1, 10, 20, 30, 20, 25, 29, 30,
+				null, 0, null, poolWait, null, null, null, null, 0, 0);
+	}
+
+	private static TimerResult resultWithPool(long startTimeMs) {
+		return new TimerResult(startTimeMs, 1000, 1, 0, 10, 20, 30, 20, 25, 29, 30,
+				null, 0, null, null, null, new ConnectionPoolStats(2, 3, 1, 5), null, null, 0, 0);
+	}
+
+	private static void assertStartTimes(List<TimerResult> results, long ... startTimes) {
+		assertEquals(startTimes.length, results.size());
+		for (int i = 0; i < startTimes.length; i++) {
+			assertEquals(startTimes[i], results.get(i).getStartTimeMs());
+		}
+	}
+
+	@Test
+	void oldestResultsAreOverwrittenOnceFull() {
+		TimingHistory history = new TimingHistory(3);
+		for (long i = 1; i <= 5; i++) {
+			history.add(result(i * 1000));
+		}
+		assertEquals(3, history.size());
+		assertStartTimes(history.getAll(), 3000, 4000, 5000);
+		assertStartTimes(history.getResultsAfter(3000), 4000, 5000);
+		assertStartTimes(history.getResultsAfter(0), 3000, 4000, 5000);
+		assertTrue(history.getResultsAfter(5000).isEmpty());
+
+		TimerResult recreated = history.getAll().get(0);
+		assertEquals(3, recreated.getNumSucceeded());
+		assertEquals(29, recreated.getP99Us());
+		assertEquals(3, recreated.getPoolWait().getCount());
+		assertNull(recreated.getResponseTime());
+	}
+
+	@Test
+	void wrapsAroundAfterGrowing() {
+		TimingHistory history = new TimingHistory(300);
+		for (long i = 1; i <= 700; i++) {
+			history.add(result(i * 1000));
+		}
+		assertEquals(300, history.size());
+		List<TimerResult> all = history.getAll();
+		for (int i = 0; i < all.size(); i++) {
+			assertEquals((401 + i) * 1000L, all.get(i).getStartTimeMs());
+		}
+		assertStartTimes(history.getResultsAfter(698_500), 699_000, 700_000);
+	}
+
+	@Test
+	void viewsReadOverwrittenEntriesAsNull() {
+		TimingHistory history = new TimingHistory(2);
+		history.add(result(1000));
+		history.add(result(2000));
+		List<TimerResult> view = history.getAll();
+		history.add(result(3000));
+		assertNull(view.get(0));
+		assertEquals(2000, view.get(1).getStartTimeMs());
+	}
+
+	@Test
+	void subclassesUseTheExtraColumns() {
+		TimingHistory history = new TimingHistory(4, Long.MAX_VALUE, STEP_COLUMNS);
+		history.add(new StepResult(result(1000), 7));
+		history.add(result(2000));
+		StepResult stored = new StepResult(result(3000), 8);
+		history.add(stored);
+
+		TimerResult first = history.getAll().get(0);
+		assertSame(StepResult.class, first.getClass());
+		assertEquals(7, ((StepResult)first).step);
+		assertEquals(1, first.getNumSucceeded());
+		assertSame(TimerResult.class, history.getAll().get(1).getClass());
+		// Recreated from the columns rather than the object added
+		assertEquals(8, ((StepResult)history.getAll().get(2)).step);
+		assertNotSame(stored, history.getAll().get(2));
+
+		TimingHistory withoutColumns = new TimingHistory(4);
+		withoutColumns.add(stored);
+		assertSame(stored, withoutColumns.getAll().get(0));
+	}
+
+	@Test
+	void resultsOlderThanTheMaximumAgeAreDropped() {
+		TimingHistory history = new TimingHistory(1000, 2500, null);
+		for (long i = 1; i <= 5; i++) {
+			history.add(result(i * 1000));
+		}
+		assertStartTimes(history.getAll(), 3000, 4000, 5000);
+	}
+
+	@Test
+	void growingAfterDroppingByAgeKeepsTheOrder() {
+		TimingHistory history = new TimingHistory(10_000, 100_000, null);
+		for (long i = 1; i <= 1000; i++) {
+			history.add(result(i * 1000));
+		}
+		assertEquals(101, history.size());
+		List<TimerResult> all = history.getAll();
+		for (int i = 0; i < all.size(); i++) {
+			assertEquals((900 + i) * 1000L, all.get(i).getStartTimeMs());
+		}
+	}
+
+	@Test
+	void optionalColumnsAreAddedWhenFirstUsed() {
+		TimingHistory history = new TimingHistory(4);
+		history.add(result(1000));
+		history.add(resultWithPool(2000));
+		history.add(result(3000));
+
+		List<TimerResult> all = history.getAll();
+		assertNull(all.get(0).getConnectionPool());
+		assertEquals(5, all.get(1).getConnectionPool().getTotal());
+		assertEquals(1, all.get(1).getConnectionPool().getPending());
+		assertNull(all.get(1).getPoolWait());
+		assertNull(all.get(2).getConnectionPool());
+		assertEquals(3, all.get(2).getPoolWait().getCount());
+		assertNull(all.get(2).getClientCost());
+		assertEquals(0, all.get(2).getRows());
+	}
+}
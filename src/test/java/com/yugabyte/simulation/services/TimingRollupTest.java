@@ -0,0 +1,64 @@
+package com.yugabyte.simulation.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.yugabyte.simulation.dao.TimerResult;
+
+class TimingRollupTest {
+
+	private static TimingSnapshot interval(long ... latencies) {
+		TimingSnapshot snapshot = new TimingSnapshot();
+		for (long latency : latencies) {
+			snapshot.getLatencies().record(latency);
+		}
+		return snapshot;
+	}
+
+	@Test
+	void bucketIsPublishedWhenAnIntervalReachesItsEnd() {
+		TimingRollup rollup = new TimingRollup(10_000, 10);
+		for (long start = 10_000; start < 20_000; start += 1000) {
+			rollup.add(interval(100, 200), start, 1000);
+			if (start < 19_000) {
+				assertTrue(rollup.getHistory().getAll().isEmpty());
+			}
+		}
+		List<TimerResult> buckets = rollup.getHistory().getAll();
+		assertEquals(1, buckets.size());
+		assertEquals(10_000, buckets.get(0).getStartTimeMs());
+		assertEquals(10_000, buckets.get(0).getDurationMs());
+		assertEquals(20, buckets.get(0).getNumSucceeded());
+		assertEquals(100, buckets.get(0).getMinUs());
+		assertEquals(200, buckets.get(0).getMaxUs());
+	}
+
+	@Test
+	void gapsAndPartialBucketsArePublishedWithTheTimeCovered() {
+		TimingRollup rollup = new TimingRollup(10_000, 10);
+		// The workload starts part way through the first bucket
+		rollup.add(interval(100), 17_000, 1000);
+		rollup.add(interval(100), 18_000, 1000);
+		// An interval in a later bucket publishes the earlier one
+		rollup.add(interval(300), 41_000, 1000);
+		List<TimerResult> buckets = rollup.getHistory().getAll();
+		assertEquals(1, buckets.size());
+		assertEquals(10_000, buckets.get(0).getStartTimeMs());
+		assertEquals(2000, buckets.get(0).getDurationMs());
+		assertEquals(2, buckets.get(0).getNumSucceeded());
+
+		// The workload ends part way through the bucket
+		rollup.flush();
+		buckets = rollup.getHistory().getAll();
+		assertEquals(2, buckets.size());
+		assertEquals(40_000, buckets.get(1).getStartTimeMs());
+		assertEquals(1000, buckets.get(1).getDurationMs());
+		assertEquals(300, buckets.get(1).getMaxUs());
+		rollup.flush();
+		assertEquals(2, rollup.getHistory().size());
+	}
+}
@@ -0,0 +1,70 @@
+package com.yugabyte.simulation.workload;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.yugabyte.simulation.services.LatencyHistogram;
+
+class OperationScheduleTest {
+	private static final long MS = 1_000_000L;
+
+	@Test
+	void responseTimesCoverAWholeStall() {
+		// One worker aiming for an operation every 10ms, each taking 1ms, except one which
+		// holds the worker for 5s. The thread manager sees the rate drop and shortens the delay.
+		OperationSchedule schedule = new OperationSchedule(10, 0);
+		LatencyHistogram responseTimes = new LatencyHistogram();
+		long now = 0;
+		long firstAfterStallUs = -1;
+		for (int op = 0; op < 2000; op++) {
+			// The worker sleeps until the intended start, or starts at once if it is late
+			long start = Math.max(now, schedule.getIntendedStartTime());
+			now = start + (op == 100 ? 5000 * MS : MS);
+			long responseTimeUs = (now - schedule.getIntendedStartTime()) / 1000;
+			responseTimes.record(responseTimeUs);
+			if (op == 101) {
+				firstAfterStallUs = responseTimeUs;
+			}
+			schedule.next(now > 3000 * MS && now < 10_000 * MS ? 8 : 10, now);
+		}
+		assertEquals(5000_000, responseTimes.getValueAtPercentile(100));
+		// The operation queued behind the stalled one waited for all of it
+		assertTrue(firstAfterStallUs > 4990_000, Long.toString(firstAfterStallUs));
+		// Every operation intended during the stall is charged with its share of it, about
+		// 500 operations waiting on average 2.5s, then the backlog drains 9ms per operation
+		assertTrue(responseTimes.getCountAbove(1000_000) > 400);
+		assertTrue(responseTimes.getCountAbove(4000_000) > 90);
+		// Once the backlog has drained the schedule is met again
+		assertTrue(responseTimes.getValueAtPercentile(50) < 1010);
+	}
+
+	@Test
+	void delayChangesOnlyRespaceLaterOperations() {
+		OperationSchedule schedule = new OperationSchedule(10, 0);
+		assertTrue(schedule.isScheduled());
+		assertEquals(0, schedule.getIntendedStartTime());
+		// Finishing 50ms late, the lag carries over to the next operation
+		schedule.next(10, 50 * MS);
+		assertEquals(10 * MS, schedule.getIntendedStartTime());
+		schedule.next(4, 51 * MS);
+		assertEquals(14 * MS, schedule.getIntendedStartTime());
+		schedule.next(4, 52 * MS);
+		assertEquals(18 * MS, schedule.getIntendedStartTime());
+	}
+
+	@Test
+	void noDelayRunsBackToBack() {
+		OperationSchedule schedule = new OperationSchedule(0, 0);
+		assertFalse(schedule.isScheduled());
+		schedule.next(0, 7 * MS);
+		assertFalse(schedule.isScheduled());
+		assertEquals(7 * MS, schedule.getIntendedStartTime());
+		// A schedule starts from when the delay is set, not from the back to back operations
+		schedule.next(5, 9 * MS);
+		assertTrue(schedule.isScheduled());
+		assertEquals(14 * MS, schedule.getIntendedStartTime());
+	}
+}